@@ -0,0 +1,60 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+import br.com.tigelah.issuersimulator.application.ports.EventPublisher;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/** Dados e dublês compartilhados pelos benchmarks. */
+final class BenchFixtures {
+    private BenchFixtures() {}
+
+    static final UUID ACCOUNT_ID = UUID.fromString("7b0c6f8e-3f2a-4a51-9a34-2f2d8b1c9e01");
+
+    static byte[] riskApproved(UUID paymentId, int installments) {
+        return """
+        {"eventId":"%s","occurredAt":"2030-01-01T00:00:00Z","correlationId":"c-%s","type":"payment.risk.approved",
+         "paymentId":"%s","approved":true,"reason":"ok","merchantId":"m1","amountCents":12990,"currency":"BRL",
+         "installments":%d,"accountId":"%s","userId":"u1","panHash":"9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08",
+         "panLast4":"1111"}
+        """.formatted(UUID.randomUUID(), paymentId, paymentId, installments, ACCOUNT_ID).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static InstallmentCalculator calculator() {
+        return new InstallmentCalculator(Set.of(1, 2, 6, 12), Map.of(
+                "*", Map.of(2, new BigDecimal("0.020"), 6, new BigDecimal("0.060"), 12, new BigDecimal("0.120")),
+                "m1", Map.of(2, new BigDecimal("0.015"), 6, new BigDecimal("0.050"), 12, new BigDecimal("0.100"))
+        ));
+    }
+
+    /** Ledger em memória com resposta fixa: isola o custo do pipeline do custo de rede. */
+    static final class StubLedger implements LedgerGateway {
+        private final AvailableCredit credit = new AvailableCredit(ACCOUNT_ID, 10_000_000L, "BRL", 0, 0);
+        private final Optional<LimitRule> userRule = Optional.of(new LimitRule("USER", "u1", "BRL", 0, 5_000_000L, 0));
+
+        @Override public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) { return credit; }
+        @Override public Optional<LimitRule> getUserLimit(String userId) { return userRule; }
+        @Override public Optional<LimitRule> getPanLimit(String panHash) { return Optional.empty(); }
+    }
+
+    /** Publisher que só entrega os eventos ao Blackhole do JMH. */
+    static final class BlackholePublisher implements EventPublisher {
+        private final Blackhole bh;
+
+        BlackholePublisher(Blackhole bh) { this.bh = bh; }
+
+        @Override public void publishAuthorized(PaymentAuthorizedEvent event) { bh.consume(event); }
+        @Override public void publishDeclined(PaymentDeclinedEvent event) { bh.consume(event); }
+    }
+}
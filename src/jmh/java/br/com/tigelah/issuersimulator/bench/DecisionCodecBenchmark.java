@@ -0,0 +1,75 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDecisionEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.DecisionEventCodec;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON do producer ({@link JsonSerializer} do Spring, o formato atual no fio) contra o
+ * {@link DecisionEventCodec}. O tamanho de cada formato é verificado em {@code DecisionEventCodecTest}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionCodecBenchmark {
+
+    @Param({ "authorized", "declined" })
+    public String kind;
+
+    private PaymentDecisionEvent event;
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+    private RecordHeaders jsonHeaders;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        var now = Instant.parse("2030-01-01T00:00:00Z");
+        event = "authorized".equals(kind)
+                ? new PaymentAuthorizedEvent(UUID.randomUUID(), now, UUID.randomUUID().toString(),
+                        Topics.PAYMENT_AUTHORIZED, UUID.randomUUID(), "SIM123456", 12, 1299, 14289, 1191)
+                : new PaymentDeclinedEvent(UUID.randomUUID(), now, UUID.randomUUID().toString(),
+                        Topics.PAYMENT_DECLINED, UUID.randomUUID(), "insufficient_funds");
+
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>((Class<Object>) (Class<?>) event.getClass(), false);
+        jsonHeaders = new RecordHeaders();
+        json = jsonSerializer.serialize(Topics.PAYMENT_AUTHORIZED, jsonHeaders, event);
+        binary = DecisionEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize(Topics.PAYMENT_AUTHORIZED, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return DecisionEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return jsonDeserializer.deserialize(Topics.PAYMENT_AUTHORIZED, jsonHeaders, json);
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        return DecisionEventCodec.decode(binary);
+    }
+}
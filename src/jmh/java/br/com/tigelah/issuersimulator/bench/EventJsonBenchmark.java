@@ -0,0 +1,64 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+import br.com.tigelah.issuersimulator.entrypoints.kafka.RiskEvaluatedEventReader;
+import br.com.tigelah.issuersimulator.entrypoints.kafka.dto.RiskEvaluatedEvent;
+import br.com.tigelah.issuersimulator.infrastructure.config.JacksonConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Parse do evento de risco e serialização dos eventos de saída. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventJsonBenchmark {
+
+    private ObjectMapper mapper;
+    private RiskEvaluatedEventReader reader;
+    private byte[] riskApproved;
+    private PaymentAuthorizedEvent authorized;
+    private PaymentDeclinedEvent declined;
+
+    @Setup
+    public void setUp() {
+        mapper = new JacksonConfig().objectMapper();
+        reader = new RiskEvaluatedEventReader(mapper.getFactory());
+        riskApproved = BenchFixtures.riskApproved(UUID.randomUUID(), 12);
+        var now = Instant.parse("2030-01-01T00:00:00Z");
+        authorized = new PaymentAuthorizedEvent(UUID.randomUUID(), now, "c1", "payment.authorized",
+                UUID.randomUUID(), "SIM123456", 12, 1299, 14289, 1191);
+        declined = new PaymentDeclinedEvent(UUID.randomUUID(), now, "c1", "payment.declined",
+                UUID.randomUUID(), "insufficient_funds");
+    }
+
+    @Benchmark
+    public RiskEvaluatedEvent parseRiskEventStreaming() throws Exception {
+        return reader.read(riskApproved);
+    }
+
+    /** Caminho anterior (String + árvore), mantido como referência. */
+    @Benchmark
+    public JsonNode parseRiskEventTree() throws Exception {
+        return mapper.readTree(new String(riskApproved, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public byte[] serializeAuthorized() throws Exception {
+        return mapper.writeValueAsBytes(authorized);
+    }
+
+    @Benchmark
+    public byte[] serializeDeclined() throws Exception {
+        return mapper.writeValueAsBytes(declined);
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.application.ids.IdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ids compartilhados entre threads ({@code Scope.Benchmark}); rode com {@code -t 4} (ou mais) para ver a
+ * contenção do {@code SecureRandom} do {@link UUID#randomUUID()} contra o estado por thread do UUIDv7.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator ids = new IdGenerator(1);
+
+    @Benchmark
+    public String authCode() {
+        return ids.authCode();
+    }
+
+    @Benchmark
+    public String authCodeRandomHash() {
+        return "SIM" + Math.abs(UUID.randomUUID().hashCode());
+    }
+
+    @Benchmark
+    public UUID eventIdV7() {
+        return ids.eventId();
+    }
+
+    @Benchmark
+    public UUID eventIdRandomUuid() {
+        return UUID.randomUUID();
+    }
+}
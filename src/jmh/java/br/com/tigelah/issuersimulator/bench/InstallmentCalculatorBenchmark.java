@@ -0,0 +1,39 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.domain.model.InstallmentBreakdown;
+import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstallmentCalculatorBenchmark {
+
+    private InstallmentCalculator calculator;
+    private long amount;
+
+    @Setup
+    public void setUp() {
+        calculator = BenchFixtures.calculator();
+    }
+
+    @Benchmark
+    public InstallmentBreakdown merchantRate12x() {
+        return calculator.calculate("m1", 10_000 + (amount++ & 0xffff), 12);
+    }
+
+    @Benchmark
+    public InstallmentBreakdown fallbackRate6x() {
+        return calculator.calculate("unknown", 10_000 + (amount++ & 0xffff), 6);
+    }
+
+    @Benchmark
+    public InstallmentBreakdown cash() {
+        return calculator.calculate("m1", 10_000 + (amount++ & 0xffff), 1);
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.application.ids.IdGenerator;
+import br.com.tigelah.issuersimulator.application.security.PanHasher;
+import br.com.tigelah.issuersimulator.application.usecase.AuthorizeByIssuerUseCase;
+import br.com.tigelah.issuersimulator.application.usecase.AuthorizeWithLimitsUseCase;
+import br.com.tigelah.issuersimulator.application.usecase.CalculateInstallmentsUseCase;
+import br.com.tigelah.issuersimulator.domain.services.SimpleIssuerRules;
+import br.com.tigelah.issuersimulator.entrypoints.kafka.IssuerEventsConsumer;
+import br.com.tigelah.issuersimulator.entrypoints.kafka.KeyOrderedDispatcher;
+import br.com.tigelah.issuersimulator.infrastructure.config.JacksonConfig;
+import br.com.tigelah.issuersimulator.infrastructure.dedup.DecisionDedup;
+import br.com.tigelah.issuersimulator.infrastructure.metrics.PipelineMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IssuerEventsConsumer#onMessage(byte[])} ponta a ponta: parse, regras do emissor, limites
+ * (ledger em memória), parcelamento e publicação num publisher em memória.
+ *
+ * <p>{@code executor=direct} mede só o pipeline; {@code executor=virtual} inclui o fan-out das
+ * consultas ao ledger em virtual threads, como em produção.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssuerPipelineBenchmark {
+
+    @Param({"direct", "virtual"})
+    public String executor;
+
+    private IssuerEventsConsumer consumer;
+    private KeyOrderedDispatcher dispatcher;
+    private ExecutorService virtualThreads;
+    private byte[][] messages;
+    private int next;
+
+    @Setup
+    public void setUp(Blackhole bh) {
+        AuthorizeWithLimitsUseCase limits;
+        if ("virtual".equals(executor)) {
+            virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+            limits = new AuthorizeWithLimitsUseCase(virtualThreads);
+        } else {
+            limits = new AuthorizeWithLimitsUseCase(Runnable::run);
+        }
+
+        // onMessage é o modo record: o dispatcher só existe para completar o construtor
+        dispatcher = KeyOrderedDispatcher.virtualThreads(1);
+        consumer = new IssuerEventsConsumer(
+                new JacksonConfig().objectMapper(),
+                PanHasher.plain(),
+                new AuthorizeByIssuerUseCase(new SimpleIssuerRules(1_000_000)),
+                new BenchFixtures.StubLedger(),
+                limits,
+                new CalculateInstallmentsUseCase(BenchFixtures.calculator()),
+                new BenchFixtures.BlackholePublisher(bh),
+                Clock.systemUTC(),
+                PipelineMetrics.noop(),
+                dispatcher,
+                DecisionDedup.disabled(),
+                IdGenerator.standalone()
+        );
+
+        messages = new byte[1024][];
+        int[] plans = {1, 2, 6, 12};
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = BenchFixtures.riskApproved(UUID.randomUUID(), plans[i % plans.length]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.close();
+        if (virtualThreads != null) virtualThreads.close();
+    }
+
+    @Benchmark
+    public void onMessage() {
+        consumer.onMessage(messages[next++ & (messages.length - 1)]);
+    }
+}
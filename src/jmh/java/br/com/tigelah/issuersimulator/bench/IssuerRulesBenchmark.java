@@ -0,0 +1,49 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.domain.model.IssuerDecision;
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule;
+import br.com.tigelah.issuersimulator.domain.services.CompiledIssuerRules;
+import br.com.tigelah.issuersimulator.domain.services.SimpleIssuerRules;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IssuerRulesBenchmark {
+
+    private static final String[] MERCHANTS = { "m1", "m2", "m13", "m40" };
+    private static final String[] MCCS = { "5812", "5411", "7995", "4111" };
+    private static final String[] BINS = { "411111", "550000", "41111122", "627780" };
+
+    private final SimpleIssuerRules rules = new SimpleIssuerRules(1_000_000);
+    // ~100 regras por dimensão, como um conjunto de produção pequeno
+    private final CompiledIssuerRules compiled = CompiledIssuerRules.compile(1_000_000, IssuerRule.parseList(ruleSpec()));
+    private long amount;
+
+    @Benchmark
+    public IssuerDecision authorize() {
+        return rules.authorize((amount++ & 0x1fffff), true);
+    }
+
+    /** Com {@code -prof gc}: alocação por operação deve ficar em ~0. */
+    @Benchmark
+    public IssuerDecision authorizeCompiled() {
+        int i = (int) (amount & 3);
+        return compiled.authorize((amount++ & 0x1fffff), true, MERCHANTS[i], MCCS[i], "BRL", BINS[i]);
+    }
+
+    private static String ruleSpec() {
+        var spec = new StringBuilder("currency:USD:cap=200000,bin:41111122:block");
+        for (int i = 0; i < 100; i++) {
+            spec.append(",merchant:m").append(13 + i * 17).append(i % 2 == 0 ? ":block" : ":cap=50000");
+            spec.append(",mcc:").append(7995 - i).append(":block");
+            spec.append(",bin:").append(411111 + i * 7).append(":cap=").append(50_000 + i);
+        }
+        return spec.toString();
+    }
+}
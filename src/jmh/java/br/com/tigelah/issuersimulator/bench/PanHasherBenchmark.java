@@ -0,0 +1,42 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.application.security.PanHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PanHasherBenchmark {
+
+    private final String pan = "4111111111111111";
+    private final char[] panChars = pan.toCharArray();
+    private final char[] hexOut = new char[64];
+    private final PanHasher hmac = PanHasher.hmac("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    @Benchmark
+    public String sha256() {
+        return PanHasher.sha256(pan);
+    }
+
+    @Benchmark
+    public String sha256FromCharBuffer() {
+        return PanHasher.plain().hash(panChars, 0, panChars.length);
+    }
+
+    @Benchmark
+    public char[] sha256IntoBuffer() {
+        PanHasher.plain().hashInto(pan, hexOut, 0);
+        return hexOut;
+    }
+
+    @Benchmark
+    public String hmacSha256() {
+        return hmac.hash(pan);
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.tigelah.issuersimulator.bench;
+
+import br.com.tigelah.issuersimulator.domain.services.SpendWindows;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/** Reserva nas janelas diária/mensal; {@code -t 8} mede a contenção entre threads na mesma chave. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpendWindowsBenchmark {
+
+    @Param({ "1", "100000" })
+    public int keys;
+
+    private SpendWindows windows;
+    private String[] keyNames;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setup() {
+        windows = new SpendWindows(Clock.systemUTC(), ZoneId.of("America/Sao_Paulo"), Duration.ofDays(35));
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) keyNames[i] = "user-" + i;
+    }
+
+    @Benchmark
+    public Object reserve(Cursor cursor) {
+        var key = keyNames[cursor.next++ % keys];
+        // sem limite: mede só o custo da contabilização, nunca recusa
+        return windows.tryReserve(SpendWindows.Scope.USER, key, 1, 0, 0);
+    }
+}
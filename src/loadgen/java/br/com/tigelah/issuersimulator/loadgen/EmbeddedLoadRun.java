@@ -0,0 +1,78 @@
+package br.com.tigelah.issuersimulator.loadgen;
+
+import br.com.tigelah.issuersimulator.IssuerSimulatorApplication;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.entrypoints.loadgen.LoadGeneratorRunner;
+import br.com.tigelah.issuersimulator.entrypoints.loadgen.LoadProfile;
+import br.com.tigelah.issuersimulator.infrastructure.ledger.LedgerSnapshot;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sobe um Kafka embarcado, grava um snapshot de ledger com as contas sintéticas do
+ * {@link LoadProfile} e roda o simulador no profile {@code loadgen} com ledger embarcado.
+ *
+ * <p>Argumentos {@code chave=valor} (com ou sem {@code --}) viram propriedades do Spring:
+ * {@code issuer.loadgen.rate=5000}, {@code issuer.consumer.mode=batch},
+ * {@code issuer.publisher.binary-topics=payment.authorized}... O relatório e a distribuição de
+ * percentis (µs) saem no stdout.
+ */
+public final class EmbeddedLoadRun {
+
+    private static final int PARTITIONS = 4;
+    private static final long ACCOUNT_BALANCE_CENTS = 1_000_000_000_000L;
+
+    private EmbeddedLoadRun() { }
+
+    public static void main(String[] rawArgs) throws Exception {
+        var args = new ArrayList<String>();
+        for (var arg : rawArgs) args.add(arg.startsWith("--") ? arg : "--" + arg);
+
+        var broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS,
+                Topics.PAYMENT_RISK_APPROVED, Topics.PAYMENT_RISK_REJECTED, Topics.PAYMENT_AUTHORIZED, Topics.PAYMENT_DECLINED)
+                .brokerProperties(Map.of(
+                        "transaction.state.log.replication.factor", "1",
+                        "transaction.state.log.min.isr", "1",
+                        "group.initial.rebalance.delay.ms", "0"));
+        broker.afterPropertiesSet();
+
+        var snapshot = Files.createTempFile("loadgen-ledger", ".bin");
+        try {
+            int accounts = intArg(args, "issuer.loadgen.accounts", 10_000);
+            var credits = new ArrayList<AvailableCredit>(accounts);
+            for (int i = 0; i < accounts; i++) {
+                credits.add(new AvailableCredit(LoadProfile.accountId(i), ACCOUNT_BALANCE_CENTS, "BRL", 0, 0));
+            }
+            LedgerSnapshot.write(snapshot, credits, List.of(), List.of());
+
+            // argumentos de linha de comando: precedem o application.yml (e as variáveis de ambiente dele)
+            args.add("--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString());
+            args.add("--issuer.ledger.mode=embedded");
+            args.add("--issuer.ledger.embedded.snapshot=" + snapshot);
+
+            var app = new SpringApplication(IssuerSimulatorApplication.class);
+            app.setAdditionalProfiles("loadgen");
+            // o runner roda dentro do run(): quando ele volta a carga já terminou
+            try (var context = app.run(args.toArray(String[]::new))) {
+                var report = context.getBean(LoadGeneratorRunner.class).lastReport();
+                System.out.println(report.summary());
+                report.latencyMicros().outputPercentileDistribution(System.out, 1.0);
+            }
+        } finally {
+            broker.destroy();
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static int intArg(List<String> args, String name, int fallback) {
+        var prefix = "--" + name + "=";
+        for (var arg : args) if (arg.startsWith(prefix)) return Integer.parseInt(arg.substring(prefix.length()));
+        return fallback;
+    }
+}
@@ -14,4 +14,4 @@ public record PaymentAuthorizedEvent(
         long interestCents,
         long totalCents,
         long installmentAmountCents
-) { }
\ No newline at end of file
+) implements PaymentDecisionEvent { }
\ No newline at end of file
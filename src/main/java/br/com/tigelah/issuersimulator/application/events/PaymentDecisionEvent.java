@@ -0,0 +1,10 @@
+package br.com.tigelah.issuersimulator.application.events;
+
+import java.util.UUID;
+
+/** Decisão do emissor para um pagamento: {@link PaymentAuthorizedEvent} ou {@link PaymentDeclinedEvent}. */
+public sealed interface PaymentDecisionEvent permits PaymentAuthorizedEvent, PaymentDeclinedEvent {
+    UUID eventId();
+    String correlationId();
+    UUID paymentId();
+}
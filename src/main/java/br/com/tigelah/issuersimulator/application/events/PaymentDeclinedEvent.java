@@ -10,4 +10,4 @@ public record PaymentDeclinedEvent(
         String type,
         UUID paymentId,
         String reason
-) { }
\ No newline at end of file
+) implements PaymentDecisionEvent { }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package br.com.tigelah.issuersimulator.application.ids;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ids do emissor, sem lock e sem {@code SecureRandom} no caminho quente.
+ *
+ * <p><b>authCode</b> ({@link #authCode()}): 15 caracteres, {@code SIM} + nó (2) + segundos desde
+ * 2024-01-01 (6) + sequência no segundo (4), em base 36 maiúscula — ex.: {@code SIM0A0Q3ZK1000F}. Único por
+ * construção enquanto cada instância tiver o seu {@code nodeId} (0..1295). Segundo e sequência ficam num
+ * único {@link AtomicLong} atualizado por CAS; se a sequência do segundo acabar (1.679.616 códigos) ou o
+ * relógio voltar, o gerador "adianta" o segundo em vez de repetir código. O campo de tempo cobre ~69 anos.
+ *
+ * <p>Segundo e sequência só existem em memória e recomeçam a cada start: um processo que reinicia no
+ * mesmo segundo em que o anterior parou (ou com o relógio atrasado em relação a ele) pode repetir códigos
+ * daquele nó. Um restart leva mais que isso na prática; com relógio instável, troque o nó no restart.
+ *
+ * <p><b>eventId</b> ({@link #eventId()}): UUIDv7 (RFC 9562) — 48 bits de milissegundos, 12 bits de
+ * contador e 62 bits aleatórios. Cada thread tem o próprio último milissegundo e contador (ids de uma
+ * thread saem em ordem estritamente crescente) e usa {@link ThreadLocalRandom}; entre threads a
+ * unicidade vem dos 62 bits aleatórios.
+ */
+public final class IdGenerator {
+
+    public static final int MAX_NODE_ID = 36 * 36 - 1;
+    public static final int AUTH_CODE_LENGTH = 15;
+
+    static final long AUTH_EPOCH_SECOND = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    static final long MAX_SEQUENCE = 36L * 36 * 36 * 36 - 1;
+    private static final long SECONDS_SPAN = 36L * 36 * 36 * 36 * 36 * 36;
+    private static final int SEQUENCE_BITS = 21;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int COUNTER_MASK = 0xFFF;
+
+    private static final IdGenerator STANDALONE = new IdGenerator(0);
+
+    private final char[] node;
+    private final LongSupplier millis;
+    private final AtomicLong secondAndSequence = new AtomicLong();
+    private final ThreadLocal<long[]> lastMillisAndCounter = ThreadLocal.withInitial(() -> new long[] { -1, 0 });
+
+    public IdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    IdGenerator(int nodeId, LongSupplier millis) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) throw new IllegalArgumentException("node_id_out_of_range");
+        this.node = new char[] { DIGITS[nodeId / 36], DIGITS[nodeId % 36] };
+        this.millis = millis;
+    }
+
+    /** Gerador do nó 0, compartilhado por quem não recebe um configurado (testes e construtores de conveniência). */
+    public static IdGenerator standalone() {
+        return STANDALONE;
+    }
+
+    public String authCode() {
+        long now = Math.floorDiv(millis.getAsLong(), 1000) - AUTH_EPOCH_SECOND;
+        long current, next;
+        do {
+            current = secondAndSequence.get();
+            long second = current >>> SEQUENCE_BITS;
+            long sequence = current & ((1L << SEQUENCE_BITS) - 1);
+            if (now > second) next = now << SEQUENCE_BITS;
+            else if (sequence < MAX_SEQUENCE) next = current + 1;
+            else next = (second + 1) << SEQUENCE_BITS;
+        } while (!secondAndSequence.compareAndSet(current, next));
+
+        var code = new char[AUTH_CODE_LENGTH];
+        code[0] = 'S';
+        code[1] = 'I';
+        code[2] = 'M';
+        code[3] = node[0];
+        code[4] = node[1];
+        encode(Math.floorMod(next >>> SEQUENCE_BITS, SECONDS_SPAN), code, 5, 6);
+        encode(next & ((1L << SEQUENCE_BITS) - 1), code, 11, 4);
+        return new String(code);
+    }
+
+    public UUID eventId() {
+        var state = lastMillisAndCounter.get();
+        var random = ThreadLocalRandom.current();
+        long now = millis.getAsLong();
+        long counter;
+        if (now > state[0]) {
+            // contador recomeça aleatório mas com o bit alto zerado: sobra espaço para crescer no mesmo ms
+            state[0] = now;
+            counter = random.nextInt(COUNTER_MASK >> 1);
+        } else {
+            counter = state[1] + 1;
+            if (counter > COUNTER_MASK) {
+                state[0]++;
+                counter = 0;
+            }
+        }
+        state[1] = counter;
+        long msb = (state[0] << 16) | 0x7000L | counter;
+        long lsb = (random.nextLong() >>> 2) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    private static void encode(long value, char[] out, int offset, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            out[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+    }
+}
@@ -3,7 +3,22 @@ package br.com.tigelah.issuersimulator.application.ports;
 import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
 import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
 
+import java.util.List;
+
+/**
+ * Saída das decisões do emissor. Os métodos retornam só depois que o transporte confirmou a
+ * entrega; falha de entrega é lançada, para que o registro de entrada não seja confirmado.
+ */
 public interface EventPublisher {
     void publishAuthorized(PaymentAuthorizedEvent event);
     void publishDeclined(PaymentDeclinedEvent event);
+
+    /**
+     * Publica de uma vez todas as decisões de um lote. Implementações podem agrupar os envios;
+     * ao retornar, todos os eventos devem ter sido confirmados pelo transporte.
+     */
+    default void publishAll(List<PaymentAuthorizedEvent> authorized, List<PaymentDeclinedEvent> declined) {
+        authorized.forEach(this::publishAuthorized);
+        declined.forEach(this::publishDeclined);
+    }
 }
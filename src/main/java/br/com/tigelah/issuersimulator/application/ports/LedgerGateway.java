@@ -0,0 +1,45 @@
+package br.com.tigelah.issuersimulator.application.ports;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/** Consultas do emissor ao ledger: crédito disponível e regras de limite por usuário/PAN. */
+public interface LedgerGateway {
+
+    /** Crédito disponível de uma conta no ledger, em centavos. */
+    record AvailableCredit(UUID accountId, long availableCents, String currency, long holdsCents, long capturedCents) {}
+
+    /** Regra de limite de um usuário ou PAN ({@code scopeType}); limite zero = sem limite naquela dimensão. */
+    record LimitRule(String scopeType, String scopeKey, String currency, long creditLimitCents, long dailyLimitCents, long monthlyLimitCents) {}
+
+    AvailableCredit getAvailableCredit(UUID accountId, String correlationId);
+    Optional<LimitRule> getUserLimit(String userId);
+    Optional<LimitRule> getPanLimit(String panHash);
+
+    /**
+     * Crédito de várias contas numa consulta; contas desconhecidas ficam fora do mapa. O padrão faz uma
+     * chamada por conta — implementações com endpoint em lote sobrescrevem.
+     */
+    default Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        var credits = new HashMap<UUID, AvailableCredit>(accountIds.size() * 2);
+        for (var accountId : accountIds) credits.put(accountId, getAvailableCredit(accountId, correlationId));
+        return credits;
+    }
+
+    /** Regras de vários usuários numa consulta; quem não tem regra fica fora do mapa. */
+    default Map<String, LimitRule> getUserLimits(Collection<String> userIds) {
+        var rules = new HashMap<String, LimitRule>(userIds.size() * 2);
+        for (var userId : userIds) getUserLimit(userId).ifPresent(rule -> rules.put(userId, rule));
+        return rules;
+    }
+
+    /** Regras de vários PANs (hash) numa consulta; quem não tem regra fica fora do mapa. */
+    default Map<String, LimitRule> getPanLimits(Collection<String> panHashes) {
+        var rules = new HashMap<String, LimitRule>(panHashes.size() * 2);
+        for (var panHash : panHashes) getPanLimit(panHash).ifPresent(rule -> rules.put(panHash, rule));
+        return rules;
+    }
+}
@@ -1,20 +1,151 @@
 package br.com.tigelah.issuersimulator.application.security;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 
+/**
+ * Hash de PAN em hexadecimal minúsculo (64 caracteres).
+ *
+ * <p>Dois modos:
+ * <ul>
+ *   <li>{@link #plain()}: SHA-256 puro, compatível byte a byte com o {@code panHash} histórico;</li>
+ *   <li>{@link #hmac(byte[])}: HMAC-SHA256 com chave do emissor. SHA-256 sem sal de um PAN
+ *   (espaço de ~10^15 valores com BIN conhecido) é barato de reverter por força bruta; com a chave
+ *   isso deixa de ser possível para quem só tem os hashes.</li>
+ * </ul>
+ *
+ * <p>Cada thread mantém seu próprio {@link MessageDigest}/{@link Mac} e buffers, então não há
+ * {@code getInstance} nem lock por chamada. A entrada pode ser {@code byte[]} ou {@link CharSequence}
+ * (PANs ASCII são codificados direto no buffer da thread) e a saída hex vem de uma tabela.
+ */
 public final class PanHasher {
-    private PanHasher() {}
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int DIGEST_LENGTH = 32;
+    private static final PanHasher PLAIN = new PanHasher(null);
+
+    private final ThreadLocal<Engine> engines;
+
+    private PanHasher(byte[] key) {
+        var keySpec = key == null ? null : new SecretKeySpec(key.clone(), "HmacSHA256");
+        this.engines = ThreadLocal.withInitial(() -> new Engine(keySpec));
+    }
+
+    public static PanHasher plain() { return PLAIN; }
+
+    public static PanHasher hmac(byte[] key) {
+        if (key == null || key.length < 16) throw new IllegalArgumentException("pan_hmac_key_too_short");
+        return new PanHasher(key);
+    }
 
     public static String sha256(String pan) {
-        try {
-            var md = MessageDigest.getInstance("SHA-256");
-            var bytes = md.digest(pan.getBytes(StandardCharsets.UTF_8));
-            var sb = new StringBuilder(bytes.length * 2);
-            for (byte b : bytes) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (Exception e) {
-            throw new IllegalStateException("failed_to_hash_pan", e);
+        return PLAIN.hash(pan);
+    }
+
+    public String hash(CharSequence pan) {
+        var engine = engines.get();
+        return engine.hex(engine.digest(pan));
+    }
+
+    /** Hash de um trecho de {@code char[]} — ex.: o buffer do parser JSON, sem materializar o PAN. */
+    public String hash(char[] pan, int offset, int length) {
+        return hash(CharBuffer.wrap(pan, offset, length));
+    }
+
+    public String hash(byte[] pan, int offset, int length) {
+        var engine = engines.get();
+        return engine.hex(engine.digest(pan, offset, length));
+    }
+
+    /** Escreve os 64 caracteres hex em {@code out[offset..offset+64)}, sem criar {@code String}. */
+    public void hashInto(CharSequence pan, char[] out, int offset) {
+        var engine = engines.get();
+        var digest = engine.digest(pan);
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int v = digest[i] & 0xff;
+            out[offset + 2 * i] = (char) HEX[v >>> 4];
+            out[offset + 2 * i + 1] = (char) HEX[v & 0x0f];
+        }
+    }
+
+    private static final class Engine {
+        private final MessageDigest sha256;
+        private final Mac mac;
+        private final byte[] digest = new byte[DIGEST_LENGTH];
+        private final byte[] hex = new byte[DIGEST_LENGTH * 2];
+        private byte[] input = new byte[32];
+        private CharsetEncoder utf8;
+
+        Engine(SecretKeySpec key) {
+            try {
+                if (key == null) {
+                    this.sha256 = MessageDigest.getInstance("SHA-256");
+                    this.mac = null;
+                } else {
+                    this.sha256 = null;
+                    this.mac = Mac.getInstance("HmacSHA256");
+                    this.mac.init(key);
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("failed_to_hash_pan", e);
+            }
+        }
+
+        byte[] digest(CharSequence pan) {
+            int len = pan.length();
+            if (input.length < len) input = new byte[Math.max(len, input.length * 2)];
+            for (int i = 0; i < len; i++) {
+                char c = pan.charAt(i);
+                if (c >= 0x80) return digestUtf8(pan);
+                input[i] = (byte) c;
+            }
+            return digest(input, 0, len);
+        }
+
+        byte[] digest(byte[] bytes, int offset, int length) {
+            try {
+                if (mac != null) {
+                    mac.update(bytes, offset, length);
+                    mac.doFinal(digest, 0);
+                } else {
+                    sha256.update(bytes, offset, length);
+                    sha256.digest(digest, 0, DIGEST_LENGTH);
+                }
+                return digest;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("failed_to_hash_pan", e);
+            }
+        }
+
+        // caminho raro: PAN com caracteres não-ASCII
+        private byte[] digestUtf8(CharSequence pan) {
+            if (utf8 == null) {
+                utf8 = StandardCharsets.UTF_8.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
+            try {
+                var encoded = utf8.reset().encode(CharBuffer.wrap(pan));
+                return digest(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining());
+            } catch (CharacterCodingException e) {
+                throw new IllegalStateException("failed_to_hash_pan", e);
+            }
+        }
+
+        String hex(byte[] digest) {
+            for (int i = 0; i < DIGEST_LENGTH; i++) {
+                int v = digest[i] & 0xff;
+                hex[2 * i] = HEX[v >>> 4];
+                hex[2 * i + 1] = HEX[v & 0x0f];
+            }
+            return new String(hex, StandardCharsets.ISO_8859_1);
         }
     }
 }
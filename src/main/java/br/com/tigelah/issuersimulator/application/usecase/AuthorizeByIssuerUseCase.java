@@ -1,10 +1,19 @@
 package br.com.tigelah.issuersimulator.application.usecase;
 
 import br.com.tigelah.issuersimulator.domain.model.IssuerDecision;
+import br.com.tigelah.issuersimulator.domain.services.CompiledIssuerRules;
 import br.com.tigelah.issuersimulator.domain.services.SimpleIssuerRules;
 
+import java.util.List;
+
 public class AuthorizeByIssuerUseCase {
-    private final SimpleIssuerRules rules;
-    public AuthorizeByIssuerUseCase(SimpleIssuerRules rules) { this.rules = rules; }
+    private final CompiledIssuerRules rules;
+    /** Só o teto global, sem regras por dimensão. */
+    public AuthorizeByIssuerUseCase(SimpleIssuerRules rules) { this(CompiledIssuerRules.compile(rules.maxAmountCents(), List.of())); }
+    public AuthorizeByIssuerUseCase(CompiledIssuerRules rules) { this.rules = rules; }
     public IssuerDecision execute(long amountCents, boolean riskApproved) { return rules.authorize(amountCents, riskApproved); }
+    /** {@code mcc} e {@code bin} podem ser {@code null}: regras dessas dimensões não se aplicam. */
+    public IssuerDecision execute(long amountCents, boolean riskApproved, String merchantId, String mcc, String currency, String bin) {
+        return rules.authorize(amountCents, riskApproved, merchantId, mcc, currency, bin);
+    }
 }
@@ -1,37 +1,131 @@
 package br.com.tigelah.issuersimulator.application.usecase;
 
-import br.com.tigelah.issuersimulator.infrastructure.http.LedgerClient;
+import br.com.tigelah.issuersimulator.application.ids.IdGenerator;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.domain.services.SpendWindows;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Decide a autorização com base no crédito disponível e nas regras de limite do ledger.
+ *
+ * <p>As consultas ao ledger (crédito disponível, regra por usuário e regra por PAN) são disparadas
+ * em paralelo, de modo que a latência fica próxima de um único round-trip. A precedência continua
+ * a mesma: a regra do usuário, quando existe, vence a regra do PAN. O executor das consultas é de
+ * quem cria o caso de uso, que também o encerra.
+ *
+ * <p>Com {@link SpendWindows}, {@code dailyLimitCents} e {@code monthlyLimitCents} valem sobre o
+ * gasto acumulado na janela da chave da regra aplicada (usuário ou PAN), e a autorização reserva
+ * o valor nessa janela. Sem janelas, cada pagamento é comparado isoladamente com os limites.
+ *
+ * <p>O authCode vem do {@link IdGenerator} (largura fixa, único por nó).
+ *
+ * <p>Ledger recusado pela proteção do gateway (circuito aberto, bulkhead cheio) vira recusa
+ * {@code issuer_unavailable}: o pagamento recebe resposta na hora em vez de sumir ou travar o consumo.
+ * Outras falhas do ledger sobem para quem chamou.
+ */
 public class AuthorizeWithLimitsUseCase {
 
-    public LimitDecision execute(UUID accountId, long amountCents, String userId, String panHash, LedgerClient ledger) {
-        var available = ledger.getAvailableCredit(accountId, "n/a");
+    /** Chamadas que o gateway recusou sem chegar ao ledger ({@code ResilientLedgerGateway}). */
+    static final Set<String> LEDGER_UNAVAILABLE = Set.of("ledger_circuit_open", "ledger_bulkhead_full");
 
-        if (amountCents > available.availableCents()) {
-            return LimitDecision.decline("insufficient_funds");
-        }
+    private final Executor executor;
+    private final SpendWindows windows;
+    private final IdGenerator ids;
+
+    public AuthorizeWithLimitsUseCase(Executor executor) {
+        this(executor, null);
+    }
+
+    public AuthorizeWithLimitsUseCase(Executor executor, SpendWindows windows) {
+        this(executor, windows, IdGenerator.standalone());
+    }
+
+    public AuthorizeWithLimitsUseCase(Executor executor, SpendWindows windows, IdGenerator ids) {
+        this.executor = executor;
+        this.windows = windows;
+        this.ids = ids;
+    }
+
+    public LimitDecision execute(UUID accountId, long amountCents, String userId, String panHash, LedgerGateway ledger) {
+        var hasUser = userId != null && !userId.isBlank();
+        var hasPan = panHash != null && !panHash.isBlank();
 
-        Optional<LedgerClient.LimitRule> rule = Optional.empty();
-        if (userId != null && !userId.isBlank()) rule = ledger.getUserLimit(userId);
-        if (rule.isEmpty() && panHash != null && !panHash.isBlank()) rule = ledger.getPanLimit(panHash);
+        var availableF = CompletableFuture.supplyAsync(() -> ledger.getAvailableCredit(accountId, "n/a"), executor);
+        CompletableFuture<Optional<LedgerGateway.LimitRule>> userF = hasUser
+                ? CompletableFuture.supplyAsync(() -> ledger.getUserLimit(userId), executor)
+                : CompletableFuture.completedFuture(Optional.empty());
+        CompletableFuture<Optional<LedgerGateway.LimitRule>> panF = hasPan
+                ? CompletableFuture.supplyAsync(() -> ledger.getPanLimit(panHash), executor)
+                : CompletableFuture.completedFuture(Optional.empty());
 
-        if (rule.isPresent()) {
-            var r = rule.get();
-            if (r.creditLimitCents() > 0 && amountCents > r.creditLimitCents()) return LimitDecision.decline("limit_exceeded");
-            if (r.dailyLimitCents() > 0 && amountCents > r.dailyLimitCents()) return LimitDecision.decline("limit_exceeded");
-            if (r.monthlyLimitCents() > 0 && amountCents > r.monthlyLimitCents()) return LimitDecision.decline("limit_exceeded");
+        try {
+            var available = await(availableF);
+            if (amountCents > available.availableCents()) {
+                return LimitDecision.decline("insufficient_funds");
+            }
+
+            Optional<LedgerGateway.LimitRule> rule = await(userF);
+            var scope = SpendWindows.Scope.USER;
+            var scopeKey = userId;
+            if (rule.isEmpty()) {
+                rule = await(panF);
+                scope = SpendWindows.Scope.PAN;
+                scopeKey = panHash;
+            }
+
+            if (rule.isPresent()) {
+                var r = rule.get();
+                if (r.creditLimitCents() > 0 && amountCents > r.creditLimitCents()) return LimitDecision.decline("limit_exceeded");
+                if (windows != null) {
+                    var reservation = windows.tryReserve(scope, scopeKey, amountCents, r.dailyLimitCents(), r.monthlyLimitCents());
+                    if (reservation == null) return LimitDecision.decline("limit_exceeded");
+                    return new LimitDecision(true, "ok", ids.authCode(), reservation);
+                }
+                if (r.dailyLimitCents() > 0 && amountCents > r.dailyLimitCents()) return LimitDecision.decline("limit_exceeded");
+                if (r.monthlyLimitCents() > 0 && amountCents > r.monthlyLimitCents()) return LimitDecision.decline("limit_exceeded");
+            }
+            return LimitDecision.approve(ids.authCode());
+        } catch (IllegalStateException e) {
+            if (LEDGER_UNAVAILABLE.contains(e.getMessage())) return LimitDecision.decline("issuer_unavailable");
+            throw e;
+        } finally {
+            // a decisão não espera respostas que não vai usar (ex.: PAN quando a regra do usuário existe);
+            // cancel não interrompe a chamada já em curso, ela termina no executor e o resultado é descartado
+            userF.cancel(false);
+            panF.cancel(false);
         }
-        return LimitDecision.approve(generateAuthCode());
     }
 
-    private String generateAuthCode() {
-        return "SIM" + Math.abs(UUID.randomUUID().hashCode());
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
     }
 
-    public record LimitDecision(boolean authorized, String reason, String authCode) {
+    /**
+     * {@code reservation}: gasto reservado nas janelas. Quem decide devolve com {@link #release()} quando a
+     * autorização não sai — recusa no parcelamento, erro depois da reserva, ou publicação que falhou sem
+     * dedup para republicar a mesma decisão. Uma reentrega que o dedup não reconhece (desligado, entrada
+     * já fora do índice, outra instância) é avaliada como pagamento novo: nova autorização, nova reserva.
+     */
+    public record LimitDecision(boolean authorized, String reason, String authCode, SpendWindows.Reservation reservation) {
+        public LimitDecision(boolean authorized, String reason, String authCode) {
+            this(authorized, reason, authCode, null);
+        }
+
+        public void release() {
+            if (reservation != null) reservation.release();
+        }
+
         public static LimitDecision approve(String authCode) {
             if (authCode == null || authCode.isBlank()) throw new IllegalArgumentException("authCode_required");
             return new LimitDecision(true, "ok", authCode);
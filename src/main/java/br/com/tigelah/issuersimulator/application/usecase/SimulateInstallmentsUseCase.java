@@ -0,0 +1,116 @@
+package br.com.tigelah.issuersimulator.application.usecase;
+
+import br.com.tigelah.issuersimulator.domain.model.InstallmentBreakdown;
+import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import br.com.tigelah.issuersimulator.domain.services.RateTable;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Simulação de parcelamento para o checkout: o breakdown de todos os planos de um (merchant, valor).
+ *
+ * <ul>
+ *   <li>cada chamada lê a tabela de taxas uma vez; no lote, todos os itens usam a mesma tabela e a
+ *   resposta informa a versão;</li>
+ *   <li>cache por (merchant, valor, versão da tabela): recarregar a tabela muda a chave, então nada
+ *   expira na mão — as entradas antigas saem por tamanho;</li>
+ *   <li>lote acima de {@code chunkSize} itens é dividido em blocos calculados em paralelo no
+ *   {@code executor}; o primeiro bloco roda na thread de quem chamou.</li>
+ * </ul>
+ */
+public class SimulateInstallmentsUseCase {
+
+    private final InstallmentCalculator calculator;
+    private final Executor executor;
+    private final Settings settings;
+    private final Cache<Key, List<InstallmentBreakdown>> cache;
+
+    public SimulateInstallmentsUseCase(InstallmentCalculator calculator, Executor executor, Settings settings,
+                                       MeterRegistry registry) {
+        this.calculator = calculator;
+        this.executor = executor;
+        this.settings = settings;
+        this.cache = settings.cacheMaxSize() > 0
+                ? Caffeine.newBuilder().maximumSize(settings.cacheMaxSize()).recordStats().build()
+                : null;
+        if (cache != null) CaffeineCacheMetrics.monitor(registry, cache, "installments.simulations");
+    }
+
+    public Simulation execute(String merchantId, long amountCents) {
+        var rates = calculator.rateTable();
+        return new Simulation(rates.version(), simulate(rates, merchantId, amountCents));
+    }
+
+    /** Resultados na ordem dos itens; item inválido falha o lote inteiro. */
+    public Bulk executeAll(List<Item> items) {
+        if (items.size() > settings.maxBulkItems()) throw new IllegalArgumentException("too_many_items");
+        for (var item : items) {
+            if (item == null) throw new IllegalArgumentException("item_required");
+            validate(item.merchantId(), item.amountCents());
+        }
+
+        var rates = calculator.rateTable();
+        var results = new Result[items.size()];
+        int chunk = settings.chunkSize();
+        var pending = new ArrayList<CompletableFuture<Void>>();
+        for (int from = chunk; from < items.size(); from += chunk) {
+            int start = from;
+            int end = Math.min(from + chunk, items.size());
+            pending.add(CompletableFuture.runAsync(() -> fill(rates, items, results, start, end), executor));
+        }
+        fill(rates, items, results, 0, Math.min(chunk, items.size()));
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw e;
+        }
+        return new Bulk(rates.version(), Arrays.asList(results));
+    }
+
+    private void fill(RateTable rates, List<Item> items, Result[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            var item = items.get(i);
+            results[i] = new Result(item.merchantId(), item.amountCents(),
+                    simulate(rates, item.merchantId(), item.amountCents()));
+        }
+    }
+
+    private List<InstallmentBreakdown> simulate(RateTable rates, String merchantId, long amountCents) {
+        validate(merchantId, amountCents);
+        if (cache == null) return InstallmentCalculator.simulate(rates, merchantId, amountCents);
+        return cache.get(new Key(merchantId, amountCents, rates.version()),
+                key -> List.copyOf(InstallmentCalculator.simulate(rates, merchantId, amountCents)));
+    }
+
+    private static void validate(String merchantId, long amountCents) {
+        if (merchantId == null || merchantId.isBlank()) throw new IllegalArgumentException("merchant_id_required");
+        if (amountCents <= 0) throw new IllegalArgumentException("amount_invalid");
+    }
+
+    private record Key(String merchantId, long amountCents, long rateTableVersion) { }
+
+    public record Item(String merchantId, long amountCents) { }
+
+    public record Simulation(long rateTableVersion, List<InstallmentBreakdown> plans) { }
+
+    public record Result(String merchantId, long amountCents, List<InstallmentBreakdown> plans) { }
+
+    public record Bulk(long rateTableVersion, List<Result> results) { }
+
+    public record Settings(long cacheMaxSize, int maxBulkItems, int chunkSize) {
+        public Settings {
+            if (maxBulkItems <= 0) throw new IllegalArgumentException("max_bulk_items_must_be_positive");
+            if (chunkSize <= 0) throw new IllegalArgumentException("chunk_size_must_be_positive");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.tigelah.issuersimulator.domain.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Regra do emissor para um valor de uma dimensão do pagamento: bloqueia ({@link Action#BLOCK}) ou
+ * limita o valor ({@link Action#CAP}, {@code maxAmountCents}).
+ *
+ * <p>Formato de configuração ({@link #parseList}): entradas separadas por vírgula,
+ * {@code dimensão:chave:block} ou {@code dimensão:chave:cap=centavos} — por exemplo
+ * {@code merchant:m13:block, mcc:7995:block, currency:USD:cap=200000, bin:411111:cap=50000}.
+ * BIN é o prefixo numérico do cartão, de 4 a 8 dígitos.
+ */
+public record IssuerRule(Dimension dimension, String key, Action action, long maxAmountCents) {
+
+    public enum Dimension { MERCHANT, MCC, CURRENCY, BIN }
+
+    public enum Action { BLOCK, CAP }
+
+    public IssuerRule {
+        if (dimension == null || action == null) throw new IllegalArgumentException("issuer_rule_incomplete");
+        if (key == null || key.isBlank()) throw new IllegalArgumentException("issuer_rule_key_required");
+        if (action == Action.CAP && maxAmountCents <= 0) throw new IllegalArgumentException("issuer_rule_cap_must_be_positive");
+        if (dimension == Dimension.BIN && !isBin(key)) throw new IllegalArgumentException("issuer_rule_bin_invalid");
+    }
+
+    public static IssuerRule block(Dimension dimension, String key) {
+        return new IssuerRule(dimension, key, Action.BLOCK, 0);
+    }
+
+    public static IssuerRule cap(Dimension dimension, String key, long maxAmountCents) {
+        return new IssuerRule(dimension, key, Action.CAP, maxAmountCents);
+    }
+
+    /** Identificador estável, usado na tag das métricas: {@code merchant:m13:block}, {@code bin:411111:cap}. */
+    public String id() {
+        return dimension.name().toLowerCase(Locale.ROOT) + ":" + key + ":" + action.name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Motivo da recusa: {@code merchant_blocked}, {@code bin_amount_exceeded}... */
+    public String reason() {
+        return reason(dimension, action);
+    }
+
+    /** Todos os motivos que uma regra pode dar, um por dimensão e ação. */
+    public static List<String> reasons() {
+        var reasons = new ArrayList<String>();
+        for (var dimension : Dimension.values()) {
+            for (var action : Action.values()) reasons.add(reason(dimension, action));
+        }
+        return reasons;
+    }
+
+    private static String reason(Dimension dimension, Action action) {
+        var prefix = dimension.name().toLowerCase(Locale.ROOT);
+        return action == Action.BLOCK ? prefix + "_blocked" : prefix + "_amount_exceeded";
+    }
+
+    public static List<IssuerRule> parseList(String spec) {
+        var rules = new ArrayList<IssuerRule>();
+        if (spec == null || spec.isBlank()) return rules;
+        for (var entry : spec.split(",")) {
+            if (entry.isBlank()) continue;
+            rules.add(parse(entry.trim()));
+        }
+        return rules;
+    }
+
+    static IssuerRule parse(String entry) {
+        var parts = entry.split(":");
+        if (parts.length != 3) throw new IllegalArgumentException("issuer_rule_format_invalid: " + entry);
+        Dimension dimension;
+        try {
+            dimension = Dimension.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("issuer_rule_dimension_invalid: " + entry);
+        }
+        var key = parts[1].trim();
+        var action = parts[2].trim().toLowerCase(Locale.ROOT);
+        if (action.equals("block")) return block(dimension, key);
+        if (action.startsWith("cap=")) {
+            try {
+                return cap(dimension, key, Long.parseLong(action.substring(4)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("issuer_rule_cap_invalid: " + entry);
+            }
+        }
+        throw new IllegalArgumentException("issuer_rule_action_invalid: " + entry);
+    }
+
+    private static boolean isBin(String key) {
+        if (key.length() < 4 || key.length() > 8) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) < '0' || key.charAt(i) > '9') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,258 @@
+package br.com.tigelah.issuersimulator.domain.services;
+
+import br.com.tigelah.issuersimulator.domain.model.IssuerDecision;
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule;
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule.Action;
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule.Dimension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Regras do emissor compiladas numa estrutura imutável de decisão: teto global ({@code maxAmountCents})
+ * mais bloqueios e tetos por merchant, MCC, moeda e BIN ({@link IssuerRule}).
+ *
+ * <ul>
+ *   <li>merchant/MCC/moeda: um mapa por dimensão, chave → entrada já consolidada (bloqueio vence; entre
+ *   tetos vale o menor);</li>
+ *   <li>BIN: por tamanho de prefixo, um {@code long[]} ordenado com os prefixos numéricos e busca
+ *   binária — o BIN do pagamento não vira substring;</li>
+ *   <li>dimensões sem regra não entram; as demais são avaliadas da mais barata para a mais cara e, no
+ *   empate, a com mais bloqueios primeiro (bloqueio decide sem olhar o valor).</li>
+ * </ul>
+ *
+ * <p>{@link #authorize} não aloca: as decisões são instâncias pré-montadas e a contagem de disparos é um
+ * {@link LongAdder} por regra ({@link #hits}). Se mais de uma regra recusaria o pagamento, vale o motivo da
+ * primeira avaliada. Chaves são comparadas exatamente como chegam; moeda é normalizada para maiúsculas na
+ * compilação.
+ */
+public final class CompiledIssuerRules {
+
+    /** Id da regra do teto global em {@link #ruleIds()}. */
+    public static final String GLOBAL_CAP_ID = "global:amount:cap";
+
+    private static final IssuerDecision APPROVED = IssuerDecision.approved("ISSUER_OK");
+    private static final IssuerDecision RISK_REJECTED = IssuerDecision.rejected("risk_rejected");
+    private static final IssuerDecision AMOUNT_INVALID = IssuerDecision.rejected("amount_invalid");
+    private static final IssuerDecision AMOUNT_EXCEEDED = IssuerDecision.rejected("amount_exceeded");
+    private static final int GLOBAL_CAP = 0;
+
+    private final long maxAmountCents;
+    private final Stage[] stages;
+    private final List<String> ruleIds;
+    private final IssuerDecision[] decisions;
+    private final LongAdder[] hits;
+
+    private CompiledIssuerRules(long maxAmountCents, Stage[] stages, List<String> ruleIds, IssuerDecision[] decisions) {
+        this.maxAmountCents = maxAmountCents;
+        this.stages = stages;
+        this.ruleIds = ruleIds;
+        this.decisions = decisions;
+        this.hits = new LongAdder[ruleIds.size()];
+        for (int i = 0; i < hits.length; i++) hits[i] = new LongAdder();
+    }
+
+    public static CompiledIssuerRules compile(long maxAmountCents, List<IssuerRule> rules) {
+        var ids = new ArrayList<String>();
+        var decisions = new ArrayList<IssuerDecision>();
+        ids.add(GLOBAL_CAP_ID);
+        decisions.add(AMOUNT_EXCEEDED);
+
+        var byDimension = new EnumMap<Dimension, Map<String, Entry>>(Dimension.class);
+        var indexById = new HashMap<String, Integer>();
+        for (var rule : rules) {
+            var key = rule.dimension() == Dimension.CURRENCY ? rule.key().toUpperCase(Locale.ROOT) : rule.key();
+            var normalized = new IssuerRule(rule.dimension(), key, rule.action(), rule.maxAmountCents());
+            int index = indexById.computeIfAbsent(normalized.id(), id -> {
+                ids.add(id);
+                decisions.add(IssuerDecision.rejected(normalized.reason()));
+                return ids.size() - 1;
+            });
+            byDimension.computeIfAbsent(rule.dimension(), d -> new LinkedHashMap<>())
+                    .computeIfAbsent(key, k -> new Entry())
+                    .add(normalized, index);
+        }
+
+        var stages = new ArrayList<Stage>();
+        byDimension.forEach((dimension, entries) ->
+                stages.add(dimension == Dimension.BIN ? BinStage.of(entries) : new KeyStage(dimension, entries)));
+        stages.sort(Comparator.comparingInt(Stage::cost).thenComparing(Comparator.comparingInt(Stage::blocks).reversed()));
+
+        return new CompiledIssuerRules(maxAmountCents, stages.toArray(Stage[]::new), List.copyOf(ids),
+                decisions.toArray(IssuerDecision[]::new));
+    }
+
+    public IssuerDecision authorize(long amountCents, boolean riskApproved) {
+        return authorize(amountCents, riskApproved, null, null, null, null);
+    }
+
+    public IssuerDecision authorize(long amountCents, boolean riskApproved,
+                                    String merchantId, String mcc, String currency, String bin) {
+        if (!riskApproved) return RISK_REJECTED;
+        if (amountCents <= 0) return AMOUNT_INVALID;
+        if (amountCents > maxAmountCents) {
+            hits[GLOBAL_CAP].increment();
+            return AMOUNT_EXCEEDED;
+        }
+        for (var stage : stages) {
+            int rule = stage.match(amountCents, merchantId, mcc, currency, bin);
+            if (rule >= 0) {
+                hits[rule].increment();
+                return decisions[rule];
+            }
+        }
+        return APPROVED;
+    }
+
+    /** Ids das regras, na ordem dos índices de {@link #hits(int)}; o índice 0 é o teto global. */
+    public List<String> ruleIds() {
+        return ruleIds;
+    }
+
+    /** Quantas vezes a regra {@code index} recusou um pagamento. */
+    public long hits(int index) {
+        return hits[index].sum();
+    }
+
+    /** Ordem de avaliação das dimensões (para diagnóstico). */
+    public List<Dimension> evaluationOrder() {
+        return Arrays.stream(stages).map(Stage::dimension).toList();
+    }
+
+    /** Regras de uma chave já consolidadas: índice do bloqueio e do menor teto ({@code -1} = nenhum). */
+    private static final class Entry {
+        int block = -1;
+        int cap = -1;
+        long capCents = Long.MAX_VALUE;
+
+        void add(IssuerRule rule, int index) {
+            if (rule.action() == Action.BLOCK) {
+                if (block < 0) block = index;
+            } else if (rule.maxAmountCents() < capCents) {
+                cap = index;
+                capCents = rule.maxAmountCents();
+            }
+        }
+
+        int match(long amountCents) {
+            if (block >= 0) return block;
+            return cap >= 0 && amountCents > capCents ? cap : -1;
+        }
+    }
+
+    private abstract static class Stage {
+        final Dimension dimension;
+        final int blocks;
+
+        Stage(Dimension dimension, Iterable<Entry> entries) {
+            this.dimension = dimension;
+            int count = 0;
+            for (var entry : entries) if (entry.block >= 0) count++;
+            this.blocks = count;
+        }
+
+        Dimension dimension() { return dimension; }
+
+        int blocks() { return blocks; }
+
+        abstract int cost();
+
+        /** Índice da regra que recusa, ou {@code -1}. */
+        abstract int match(long amountCents, String merchantId, String mcc, String currency, String bin);
+    }
+
+    private static final class KeyStage extends Stage {
+        private final Map<String, Entry> entries;
+
+        KeyStage(Dimension dimension, Map<String, Entry> entries) {
+            super(dimension, entries.values());
+            this.entries = Map.copyOf(entries);
+        }
+
+        // moeda tem poucas chaves (tabela pequena); merchant e MCC pagam o hash de uma string maior
+        @Override
+        int cost() {
+            return dimension == Dimension.CURRENCY ? 1 : 2;
+        }
+
+        @Override
+        int match(long amountCents, String merchantId, String mcc, String currency, String bin) {
+            var key = switch (dimension) {
+                case MERCHANT -> merchantId;
+                case MCC -> mcc;
+                // mesma normalização das chaves em compile; sem minúsculas devolve a própria string
+                case CURRENCY -> currency == null ? null : currency.toUpperCase(Locale.ROOT);
+                case BIN -> bin;
+            };
+            if (key == null) return -1;
+            var entry = entries.get(key);
+            return entry == null ? -1 : entry.match(amountCents);
+        }
+    }
+
+    /** Prefixos por tamanho (do mais longo para o mais curto), cada um com um {@code long[]} ordenado. */
+    private static final class BinStage extends Stage {
+        private final int[] lengths;
+        private final long[][] prefixes;
+        private final Entry[][] entries;
+
+        private BinStage(Map<String, Entry> all, int[] lengths, long[][] prefixes, Entry[][] entries) {
+            super(Dimension.BIN, all.values());
+            this.lengths = lengths;
+            this.prefixes = prefixes;
+            this.entries = entries;
+        }
+
+        static BinStage of(Map<String, Entry> all) {
+            var byLength = new TreeMap<Integer, TreeMap<Long, Entry>>(Comparator.reverseOrder());
+            all.forEach((bin, entry) ->
+                    byLength.computeIfAbsent(bin.length(), l -> new TreeMap<>()).put(Long.parseLong(bin), entry));
+            int n = byLength.size();
+            var lengths = new int[n];
+            var prefixes = new long[n][];
+            var entries = new Entry[n][];
+            int i = 0;
+            for (var level : byLength.entrySet()) {
+                lengths[i] = level.getKey();
+                prefixes[i] = level.getValue().keySet().stream().mapToLong(Long::longValue).toArray();
+                entries[i] = level.getValue().values().toArray(Entry[]::new);
+                i++;
+            }
+            return new BinStage(all, lengths, prefixes, entries);
+        }
+
+        @Override
+        int cost() {
+            return 2 + lengths.length;
+        }
+
+        @Override
+        int match(long amountCents, String merchantId, String mcc, String currency, String bin) {
+            if (bin == null) return -1;
+            for (int level = 0; level < lengths.length; level++) {
+                int length = lengths[level];
+                if (bin.length() < length) continue;
+                long prefix = 0;
+                for (int i = 0; i < length; i++) {
+                    char c = bin.charAt(i);
+                    if (c < '0' || c > '9') return -1;
+                    prefix = prefix * 10 + (c - '0');
+                }
+                int found = Arrays.binarySearch(prefixes[level], prefix);
+                if (found < 0) continue;
+                int rule = entries[level][found].match(amountCents);
+                if (rule >= 0) return rule;
+            }
+            return -1;
+        }
+    }
+}
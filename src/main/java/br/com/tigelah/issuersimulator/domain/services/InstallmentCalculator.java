@@ -4,8 +4,11 @@ import br.com.tigelah.issuersimulator.domain.model.InstallmentBreakdown;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Calcula o breakdown de uma compra parcelada (principal + juros + total + valor da parcela).
@@ -58,25 +61,51 @@ import java.util.Set;
  *   </li>
  * </ol>
  *
+ * <p><b>Ponto fixo:</b> as taxas são convertidas uma única vez para partes por milhão numa
+ * {@link RateTable} e os juros são calculados só com {@code long}, sem {@code BigDecimal} por
+ * pagamento. O arredondamento é exatamente o mesmo descrito acima.
+ *
+ * <p><b>Recarga:</b> com o construtor de {@link Supplier}, a tabela pode ser trocada a quente
+ * (ver {@code ReloadableRateTable}); cada cálculo lê a tabela uma única vez e usa só ela, então
+ * nunca mistura plano de uma versão com taxa de outra.
+ *
  * <p><b>Observação:</b> este cálculo é determinístico e adequado para simulação e testes.
  * Em produção, taxas podem vir de tabela/config store, e o split de centavos pode seguir
  * regra contábil específica (ex.: last installment adjustment).
  */
 public class InstallmentCalculator {
 
-    private final Set<Integer> allowedPlans;
-    private final Map<String, Map<Integer, BigDecimal>> merchantRates; // merchantId -> (installments -> rate)
+    private static final long HALF = RateTable.SCALE / 2;
+
+    private final Supplier<RateTable> rates;
 
     public InstallmentCalculator(Set<Integer> allowedPlans,
                                  Map<String, Map<Integer, BigDecimal>> merchantRates) {
-        this.allowedPlans = allowedPlans;
-        this.merchantRates = merchantRates;
+        this(RateTable.of(allowedPlans, merchantRates));
+    }
+
+    public InstallmentCalculator(RateTable rates) {
+        this(() -> rates);
+    }
+
+    public InstallmentCalculator(Supplier<RateTable> rates) {
+        this.rates = rates;
+    }
+
+    /** Tabela em uso agora. */
+    public RateTable rateTable() {
+        return rates.get();
     }
 
     public InstallmentBreakdown calculate(String merchantId, long amountCents, int installments) {
+        return calculate(rates.get(), merchantId, amountCents, installments);
+    }
+
+    /** Calcula com uma tabela já lida (quem precisa da versão usada lê a tabela antes). */
+    public static InstallmentBreakdown calculate(RateTable rates, String merchantId, long amountCents, int installments) {
         if (installments <= 0) installments = 1;
 
-        if (!allowedPlans.contains(installments)) {
+        if (!rates.isAllowed(installments)) {
             throw new IllegalArgumentException("invalid_installments");
         }
 
@@ -84,9 +113,10 @@ public class InstallmentCalculator {
             return new InstallmentBreakdown(1, amountCents, 0, amountCents, amountCents);
         }
 
-        var rate = rateFor(merchantId, installments);
-        var principal = BigDecimal.valueOf(amountCents);
-        var interest = principal.multiply(rate).setScale(0, RoundingMode.HALF_UP).longValue();
+        long ratePpm = rates.ratePpm(merchantId, installments);
+        if (ratePpm == RateTable.NO_RATE) throw new IllegalArgumentException("installments_not_supported");
+
+        long interest = interestCents(amountCents, ratePpm);
 
         long total = amountCents + interest;
 
@@ -95,13 +125,36 @@ public class InstallmentCalculator {
         return new InstallmentBreakdown(installments, amountCents, interest, total, installmentAmount);
     }
 
-    private BigDecimal rateFor(String merchantId, int installments) {
-        var byMerchant = merchantRates.getOrDefault(merchantId, merchantRates.get("*"));
-        if (byMerchant == null) throw new IllegalArgumentException("installments_not_supported");
-
-        var rate = byMerchant.get(installments);
-        if (rate == null) throw new IllegalArgumentException("installments_not_supported");
+    /**
+     * Breakdown de todos os planos permitidos, em ordem crescente de parcelas; planos sem taxa para o
+     * merchant ficam de fora (o à vista não depende de taxa).
+     */
+    public static List<InstallmentBreakdown> simulate(RateTable rates, String merchantId, long amountCents) {
+        int count = rates.planCount();
+        var breakdowns = new ArrayList<InstallmentBreakdown>(count);
+        for (int i = 0; i < count; i++) {
+            int plan = rates.plan(i);
+            if (plan > 1 && rates.ratePpm(merchantId, plan) == RateTable.NO_RATE) continue;
+            breakdowns.add(calculate(rates, merchantId, amountCents, plan));
+        }
+        return breakdowns;
+    }
 
-        return rate;
+    /**
+     * {@code round_half_up(amountCents * ratePpm / 10^6)} em aritmética {@code long}.
+     *
+     * <p>O valor é dividido em {@code q * 10^6 + r}: a parte {@code q * ratePpm} é inteira e só
+     * {@code r * ratePpm} (que sempre cabe em {@code long}) precisa de arredondamento. Como as duas
+     * parcelas têm o mesmo sinal, o resultado é idêntico ao de {@code BigDecimal.setScale(0, HALF_UP)}
+     * em todo o intervalo de {@code long}.
+     */
+    static long interestCents(long amountCents, long ratePpm) {
+        long q = amountCents / RateTable.SCALE;
+        long r = amountCents % RateTable.SCALE;
+        long fraction = r * ratePpm;
+        long rounded = fraction >= 0
+                ? (fraction + HALF) / RateTable.SCALE
+                : -((-fraction + HALF) / RateTable.SCALE);
+        return q * ratePpm + rounded;
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package br.com.tigelah.issuersimulator.domain.services;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Tabela de taxas imutável em ponto fixo.
+ *
+ * <p>Cada taxa é guardada como inteiro em partes por milhão ({@code 0.015 -> 15_000}). As linhas de
+ * todos os merchants ficam num único {@code int[]} ({@code linha * colunas + coluna do plano}); o
+ * índice de merchants é uma tabela de endereçamento aberto ({@code String[]} de chaves + {@code int[]}
+ * de linhas), sem {@code HashMap} nem objetos por entrada — dezenas de milhares de merchants custam
+ * basicamente as próprias strings. Uma consulta é um probe no índice e um acesso a array, sem boxing.
+ *
+ * <p>{@link #version()} identifica o conteúdo: tabelas recarregadas ganham uma versão nova.
+ */
+public final class RateTable {
+
+    /** Escala das taxas: partes por milhão. */
+    public static final long SCALE = 1_000_000L;
+    static final long NO_RATE = Long.MIN_VALUE;
+    static final String FALLBACK_MERCHANT = "*";
+    private static final int NO_RATE_CELL = Integer.MIN_VALUE;
+
+    private final boolean[] allowed;
+    private final int[] plans;
+    private final int[] columnOfPlan;
+    private final int columns;
+    private final String[] slots;
+    private final int[] rowOfSlot;
+    private final int mask;
+    private final int[] rates;
+    private final int merchantCount;
+    private final int fallbackRow;
+    private final long version;
+
+    private RateTable(boolean[] allowed, int[] columnOfPlan, int columns, String[] slots, int[] rowOfSlot,
+                      int[] rates, int merchantCount, long version) {
+        this.allowed = allowed;
+        this.plans = IntStream.range(1, allowed.length).filter(plan -> allowed[plan]).toArray();
+        this.columnOfPlan = columnOfPlan;
+        this.columns = columns;
+        this.slots = slots;
+        this.rowOfSlot = rowOfSlot;
+        this.mask = slots.length - 1;
+        this.rates = rates;
+        this.merchantCount = merchantCount;
+        this.version = version;
+        this.fallbackRow = row(FALLBACK_MERCHANT);
+    }
+
+    public static RateTable of(Set<Integer> allowedPlans, Map<String, Map<Integer, BigDecimal>> merchantRates) {
+        var builder = builder(allowedPlans);
+        merchantRates.forEach((merchantId, byPlan) -> {
+            builder.merchant(merchantId);
+            byPlan.forEach((plan, rate) -> builder.rate(merchantId, plan, toPpm(rate)));
+        });
+        return builder.build(0);
+    }
+
+    public static Builder builder(Set<Integer> allowedPlans) {
+        return new Builder(allowedPlans);
+    }
+
+    /** Converte a taxa decimal para ppm; taxas com mais de 6 casas não são representáveis. */
+    public static long toPpm(BigDecimal rate) {
+        try {
+            return rate.movePointRight(6).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("rate_precision_not_supported", e);
+        }
+    }
+
+    boolean isAllowed(int installments) {
+        return installments < allowed.length && allowed[installments];
+    }
+
+    /** Taxa em ppm, ou {@link #NO_RATE}. Merchant sem linha própria usa a linha {@code "*"}. */
+    long ratePpm(String merchantId, int installments) {
+        int row = merchantId == null ? -1 : row(merchantId);
+        if (row < 0) row = fallbackRow;
+        if (row < 0 || installments >= columnOfPlan.length) return NO_RATE;
+        int column = columnOfPlan[installments];
+        if (column < 0) return NO_RATE;
+        int cell = rates[row * columns + column];
+        return cell == NO_RATE_CELL ? NO_RATE : cell;
+    }
+
+    private int row(String merchantId) {
+        for (int slot = spread(merchantId.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            var key = slots[slot];
+            if (key == null) return -1;
+            if (key.equals(merchantId)) return rowOfSlot[slot];
+        }
+    }
+
+    public int merchantCount() {
+        return merchantCount;
+    }
+
+    /** Planos permitidos (inclui à vista). */
+    public int planCount() {
+        return plans.length;
+    }
+
+    /** Planos permitidos em ordem crescente (inclui à vista). */
+    public int[] plans() {
+        return plans.clone();
+    }
+
+    int plan(int index) {
+        return plans[index];
+    }
+
+    public long version() {
+        return version;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    /** Monta a tabela linha a linha, sem mapas por merchant; usado pela carga de arquivo. */
+    public static final class Builder {
+        private final boolean[] allowed;
+        private final int[] columnOfPlan;
+        private final int columns;
+        private final HashMap<String, Integer> rows = new HashMap<>();
+        private int[] rates = new int[0];
+
+        private Builder(Set<Integer> allowedPlans) {
+            int maxPlan = allowedPlans.stream().mapToInt(Integer::intValue).max().orElse(0);
+            this.allowed = new boolean[Math.max(maxPlan, 0) + 1];
+            this.columnOfPlan = new int[allowed.length];
+            Arrays.fill(columnOfPlan, -1);
+            int column = 0;
+            for (int plan = 1; plan <= maxPlan; plan++) {
+                if (!allowedPlans.contains(plan)) continue;
+                allowed[plan] = true;
+                columnOfPlan[plan] = column++;
+            }
+            this.columns = column;
+        }
+
+        /**
+         * Abre a linha do merchant, mesmo sem taxa (planos sem taxa ficam indisponíveis para ele).
+         * Merchant repetido é erro: duas linhas do mesmo merchant não podem virar uma só em silêncio.
+         */
+        public Builder merchant(String merchantId) {
+            if (merchantId == null || merchantId.isEmpty()) throw new IllegalArgumentException("merchant_id_required");
+            if (rows.containsKey(merchantId)) throw new IllegalArgumentException("merchant_duplicated");
+            row(merchantId);
+            return this;
+        }
+
+        /** Planos fora dos permitidos são ignorados, como em {@link RateTable#of}. Cria a linha se faltar. */
+        public Builder rate(String merchantId, int plan, long ratePpm) {
+            if (merchantId == null || merchantId.isEmpty()) throw new IllegalArgumentException("merchant_id_required");
+            int row = row(merchantId);
+            if (plan <= 0 || plan >= columnOfPlan.length || columnOfPlan[plan] < 0) return this;
+            if (ratePpm <= NO_RATE_CELL || ratePpm > Integer.MAX_VALUE) throw new IllegalArgumentException("rate_out_of_range");
+            rates[row * columns + columnOfPlan[plan]] = (int) ratePpm;
+            return this;
+        }
+
+        private int row(String merchantId) {
+            return rows.computeIfAbsent(merchantId, id -> {
+                int row = rows.size();
+                if ((row + 1) * columns > rates.length) {
+                    int grown = rates.length;
+                    rates = Arrays.copyOf(rates, Math.max(columns * 16, rates.length * 2));
+                    Arrays.fill(rates, grown, rates.length, NO_RATE_CELL);
+                }
+                return row;
+            });
+        }
+
+        public RateTable build(long version) {
+            int n = rows.size();
+            int capacity = Integer.highestOneBit(Math.max(4, n * 2 - 1)) << 1;
+            var slots = new String[capacity];
+            var rowOfSlot = new int[capacity];
+            int mask = capacity - 1;
+            rows.forEach((merchantId, row) -> {
+                int slot = spread(merchantId.hashCode()) & mask;
+                while (slots[slot] != null) slot = (slot + 1) & mask;
+                slots[slot] = merchantId;
+                rowOfSlot[slot] = row;
+            });
+            return new RateTable(allowed, columnOfPlan, columns, slots, rowOfSlot,
+                    Arrays.copyOf(rates, n * columns), n, version);
+        }
+    }
+}
@@ -2,6 +2,10 @@ package br.com.tigelah.issuersimulator.domain.services;
 
 import br.com.tigelah.issuersimulator.domain.model.IssuerDecision;
 
+/**
+ * Só o teto global. O emissor usa {@link CompiledIssuerRules}, que cobre este caso e as regras por
+ * merchant/MCC/moeda/BIN; este record continua como forma curta de montar o teto.
+ */
 public record SimpleIssuerRules(long maxAmountCents) {
 
     public IssuerDecision authorize(long amountCents, boolean riskApproved) {
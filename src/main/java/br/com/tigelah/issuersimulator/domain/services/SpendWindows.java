@@ -0,0 +1,170 @@
+package br.com.tigelah.issuersimulator.domain.services;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gasto acumulado por janela (dia e mês corrente) para cada usuário e cada hash de PAN.
+ *
+ * <p>Cada chave tem dois {@code long}: o número do bucket (dia ou mês) nos 24 bits altos e o
+ * gasto em centavos nos 40 bits baixos. Reservar é um CAS sobre esse long, sem lock; quando o
+ * bucket gravado já passou, o gasto conta como zero e é sobrescrito no próprio CAS (rolagem
+ * preguiçosa, sem job de virada de dia).
+ *
+ * <p>Chaves sem uso há mais de {@code idleTtl} são removidas por {@link #evictIdle()}. Enquanto a
+ * chave não é removida, a janela mensal é exata; depois disso o acumulado é esquecido.
+ */
+public final class SpendWindows {
+
+    public enum Scope { USER, PAN }
+
+    private static final int SPENT_BITS = 40;
+    private static final long SPENT_MASK = (1L << SPENT_BITS) - 1;
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private final long idleTtlMillis;
+    private final ConcurrentHashMap<String, Window> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Window> pans = new ConcurrentHashMap<>();
+    private volatile Buckets buckets;
+
+    public SpendWindows(Clock clock, ZoneId zone, Duration idleTtl) {
+        this.clock = clock;
+        this.zone = zone;
+        this.idleTtlMillis = idleTtl.toMillis();
+        this.buckets = bucketsAt(clock.millis());
+    }
+
+    /**
+     * Soma {@code amountCents} às janelas de {@code key} se nenhum limite positivo for ultrapassado.
+     * Devolve a reserva (para eventual {@link Reservation#release()}) ou {@code null} se recusou.
+     */
+    public Reservation tryReserve(Scope scope, String key, long amountCents, long dailyLimitCents, long monthlyLimitCents) {
+        if (amountCents <= 0 || amountCents > SPENT_MASK) return null;
+        long now = clock.millis();
+        var b = currentBuckets(now);
+        var window = (scope == Scope.USER ? users : pans).computeIfAbsent(key, k -> new Window());
+        window.lastAccess = now;
+
+        if (!add(window, DAILY, b.day, amountCents, dailyLimitCents)) return null;
+        if (!add(window, MONTHLY, b.month, amountCents, monthlyLimitCents)) {
+            subtract(window, DAILY, b.day, amountCents);
+            return null;
+        }
+        return new Reservation(window, amountCents, b.day, b.month);
+    }
+
+    /** Gasto acumulado no dia corrente (0 se a chave não existe). */
+    public long dailySpent(Scope scope, String key) {
+        var window = (scope == Scope.USER ? users : pans).get(key);
+        return window == null ? 0 : spentIn(window.daily, currentBuckets(clock.millis()).day);
+    }
+
+    /** Gasto acumulado no mês corrente (0 se a chave não existe). */
+    public long monthlySpent(Scope scope, String key) {
+        var window = (scope == Scope.USER ? users : pans).get(key);
+        return window == null ? 0 : spentIn(window.monthly, currentBuckets(clock.millis()).month);
+    }
+
+    /** Remove chaves paradas há mais de {@code idleTtl}. Devolve quantas saíram. */
+    public int evictIdle() {
+        long cutoff = clock.millis() - idleTtlMillis;
+        int before = size();
+        users.values().removeIf(w -> w.lastAccess < cutoff);
+        pans.values().removeIf(w -> w.lastAccess < cutoff);
+        return Math.max(0, before - size());
+    }
+
+    public int size() {
+        return users.size() + pans.size();
+    }
+
+    /** Gasto reservado por uma autorização; {@link #release()} devolve se a autorização não foi adiante. */
+    public record Reservation(Window window, long amountCents, int day, int month) {
+        public void release() {
+            subtract(window, DAILY, day, amountCents);
+            subtract(window, MONTHLY, month, amountCents);
+        }
+    }
+
+    public static final class Window {
+        private volatile long daily;
+        private volatile long monthly;
+        private volatile long lastAccess;
+
+        private Window() { }
+    }
+
+    // ---- janelas ----
+
+    private static final VarHandle DAILY;
+    private static final VarHandle MONTHLY;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            DAILY = lookup.findVarHandle(Window.class, "daily", long.class);
+            MONTHLY = lookup.findVarHandle(Window.class, "monthly", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static boolean add(Window window, VarHandle field, int bucket, long amount, long limit) {
+        while (true) {
+            long state = (long) field.getVolatile(window);
+            long spent = spentIn(state, bucket);
+            long next = spent + amount;
+            if (limit > 0 && next > limit) return false;
+            if (next > SPENT_MASK) return false;
+            if (field.compareAndSet(window, state, pack(bucket, next))) return true;
+        }
+    }
+
+    private static void subtract(Window window, VarHandle field, int bucket, long amount) {
+        while (true) {
+            long state = (long) field.getVolatile(window);
+            // a janela já virou: a reserva não conta mais
+            if ((int) (state >>> SPENT_BITS) != bucket) return;
+            long next = Math.max(0, (state & SPENT_MASK) - amount);
+            if (field.compareAndSet(window, state, pack(bucket, next))) return;
+        }
+    }
+
+    private static long spentIn(long state, int bucket) {
+        return (int) (state >>> SPENT_BITS) == bucket ? state & SPENT_MASK : 0;
+    }
+
+    private static long pack(int bucket, long spent) {
+        return ((long) bucket << SPENT_BITS) | spent;
+    }
+
+    // ---- buckets de tempo ----
+
+    /** Dia e mês correntes, válidos em {@code [fromMillis, untilMillis)}; recalculados só na virada. */
+    private record Buckets(int day, int month, long fromMillis, long untilMillis) { }
+
+    private Buckets currentBuckets(long now) {
+        var b = buckets;
+        if (now >= b.fromMillis && now < b.untilMillis) return b;
+        b = bucketsAt(now);
+        buckets = b;
+        return b;
+    }
+
+    private Buckets bucketsAt(long now) {
+        var date = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+        long from = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long until = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        // +1: bucket 0 é o estado inicial de uma janela nova, nunca um dia real
+        int day = (int) date.toEpochDay() + 1;
+        int month = date.getYear() * 12 + date.getMonthValue();
+        return new Buckets(day, month, from, until);
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.tigelah.issuersimulator.entrypoints.http;
+
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase;
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase.Bulk;
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase.Item;
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase.Simulation;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulação de parcelamento para o checkout.
+ *
+ * <pre>
+ * GET  /installments/simulations?merchantId=m1&amp;amountCents=10000
+ *      -> {"rateTableVersion":1,"plans":[{"installments":1,...},{"installments":2,...}]}
+ * POST /installments/simulations/bulk  {"items":[{"merchantId":"m1","amountCents":10000},...]}
+ *      -> {"rateTableVersion":1,"results":[{"merchantId":"m1","amountCents":10000,"plans":[...]},...]}
+ * </pre>
+ *
+ * <p>Entrada inválida responde 400 com {@code {"error":"amount_invalid"}} (ou o motivo correspondente).
+ */
+@RestController
+@RequestMapping("/installments/simulations")
+public class InstallmentsController {
+
+    private final SimulateInstallmentsUseCase useCase;
+
+    public InstallmentsController(SimulateInstallmentsUseCase useCase) {
+        this.useCase = useCase;
+    }
+
+    @GetMapping
+    public Simulation simulate(@RequestParam String merchantId, @RequestParam long amountCents) {
+        return useCase.execute(merchantId, amountCents);
+    }
+
+    @PostMapping("/bulk")
+    public Bulk simulateAll(@RequestBody BulkRequest request) {
+        if (request.items() == null) throw new IllegalArgumentException("items_required");
+        return useCase.executeAll(request.items());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    ResponseEntity<Map<String, String>> invalid(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    public record BulkRequest(List<Item> items) { }
+}
@@ -1,155 +1,410 @@
 package br.com.tigelah.issuersimulator.entrypoints.kafka;
 
 import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDecisionEvent;
 import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+import br.com.tigelah.issuersimulator.application.ids.IdGenerator;
 import br.com.tigelah.issuersimulator.application.ports.EventPublisher;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
 import br.com.tigelah.issuersimulator.application.security.PanHasher;
 import br.com.tigelah.issuersimulator.application.usecase.AuthorizeByIssuerUseCase;
 import br.com.tigelah.issuersimulator.application.usecase.AuthorizeWithLimitsUseCase;
 import br.com.tigelah.issuersimulator.application.usecase.CalculateInstallmentsUseCase;
-import br.com.tigelah.issuersimulator.infrastructure.http.LedgerClient;
+import br.com.tigelah.issuersimulator.entrypoints.kafka.dto.RiskEvaluatedEvent;
+import br.com.tigelah.issuersimulator.infrastructure.config.KafkaConfig;
+import br.com.tigelah.issuersimulator.infrastructure.dedup.DecisionDedup;
+import br.com.tigelah.issuersimulator.infrastructure.logging.LogMarkers;
+import br.com.tigelah.issuersimulator.infrastructure.logging.LogPayloads;
 import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
-import com.fasterxml.jackson.databind.JsonNode;
+import br.com.tigelah.issuersimulator.infrastructure.metrics.PipelineMetrics;
+import br.com.tigelah.issuersimulator.infrastructure.metrics.PipelineMetrics.Stage;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
+/**
+ * Consome {@code payment.risk.*} e publica a decisão do emissor.
+ *
+ * <p>O modo de consumo é escolhido por {@code issuer.consumer.mode}:
+ * <ul>
+ *   <li>{@code record} (padrão): um registro por chamada, publicação individual;</li>
+ *   <li>{@code batch}: o listener recebe o lote inteiro do poll, roda o pipeline para todos os
+ *   registros e entrega as decisões ao {@link EventPublisher} de uma vez. Os offsets são comitados
+ *   uma única vez, ao final do lote.</li>
+ *   <li>{@code parallel}: o parse roda na thread do listener e o restante do pipeline vai para o
+ *   {@link KeyOrderedDispatcher}, em virtual threads. Registros da mesma conta (ou do mesmo pagamento,
+ *   quando não há conta) são processados em ordem; os demais em paralelo, mesmo vindo da mesma
+ *   partição. Cada registro é confirmado ao terminar, fora de ordem ({@code asyncAcks}); o container
+ *   só comita o offset até o menor registro ainda pendente.</li>
+ *   <li>{@code transactional}: como {@code batch}, mas o lote roda dentro de uma transação Kafka. As
+ *   decisões e os offsets de entrada comitam juntos; se algo falhar, a transação aborta, os eventos já
+ *   enviados nunca ficam visíveis para leitores {@code read_committed} e o lote é reentregue
+ *   (exactly-once). O tamanho do lote é limitado em {@code issuer.consumer.transactional.*}.</li>
+ * </ul>
+ *
+ * <p>Reentregas do mesmo {@code paymentId} são resolvidas pelo {@link DecisionDedup}: a decisão
+ * original é republicada sem consultar o ledger de novo.
+ *
+ * <p>Cada etapa do pipeline é medida em {@link PipelineMetrics}.
+ *
+ * <p>Logs: toda recusa e todo erro geram uma linha; recusas levam {@link LogMarkers#DECISION} e não são
+ * descartadas com a fila de log sob pressão. Autorizações são amostradas em
+ * {@code issuer.logging.sampling} ({@code SamplingTurboFilter}). Payloads só entram em log cortados e
+ * sem dados de cartão ({@link LogPayloads}).
+ *
+ * <p>O {@code eventId} das decisões é um UUIDv7 do {@link IdGenerator}: ordenado no tempo e sem
+ * {@code SecureRandom} por evento.
+ */
 @Component
 public class IssuerEventsConsumer {
     private static final Logger log = LoggerFactory.getLogger(IssuerEventsConsumer.class);
 
-    private final ObjectMapper mapper;
+    static final String RECORD_MODE = "#{'${issuer.consumer.mode:record}' == 'record'}";
+    static final String BATCH_MODE = "#{'${issuer.consumer.mode:record}' == 'batch'}";
+    static final String PARALLEL_MODE = "#{'${issuer.consumer.mode:record}' == 'parallel'}";
+    static final String TRANSACTIONAL_MODE = "#{'${issuer.consumer.mode:record}' == 'transactional'}";
+
+    private static final long PUBLISH_RETRY_INITIAL_BACKOFF_MS = 100;
+    private static final long PUBLISH_RETRY_MAX_BACKOFF_MS = 5_000;
+
+    private final RiskEvaluatedEventReader reader;
     private final AuthorizeByIssuerUseCase useCase;
-    private final LedgerClient ledger;
+    private final LedgerGateway ledger;
     private final AuthorizeWithLimitsUseCase limitsUseCase;
-    private final CalculateInstallmentsUseCase installmentsUseCase; // NOVO
+    private final CalculateInstallmentsUseCase installmentsUseCase;
     private final EventPublisher publisher;
     private final Clock clock;
+    private final PipelineMetrics metrics;
+    private final KeyOrderedDispatcher dispatcher;
+    private final DecisionDedup dedup;
+    private final IdGenerator ids;
 
     public IssuerEventsConsumer(
             ObjectMapper mapper,
+            PanHasher panHasher,
             AuthorizeByIssuerUseCase useCase,
-            LedgerClient ledger,
+            LedgerGateway ledger,
             AuthorizeWithLimitsUseCase limitsUseCase,
-            CalculateInstallmentsUseCase installmentsUseCase, // NOVO
+            CalculateInstallmentsUseCase installmentsUseCase,
             EventPublisher publisher,
-            Clock clock
+            Clock clock,
+            PipelineMetrics metrics,
+            KeyOrderedDispatcher dispatcher,
+            DecisionDedup dedup,
+            IdGenerator ids
     ) {
-        this.mapper = mapper;
+        this.reader = new RiskEvaluatedEventReader(mapper.getFactory(), panHasher);
         this.useCase = useCase;
         this.ledger = ledger;
         this.limitsUseCase = limitsUseCase;
         this.installmentsUseCase = installmentsUseCase;
         this.publisher = publisher;
         this.clock = clock;
+        this.metrics = metrics;
+        this.dispatcher = dispatcher;
+        this.dedup = dedup;
+        this.ids = ids;
     }
 
     @KafkaListener(
             topics = { Topics.PAYMENT_RISK_APPROVED, Topics.PAYMENT_RISK_REJECTED },
-            groupId = "${kafka.consumer.group-id:issuer-simulator}"
+            groupId = "${kafka.consumer.group-id:issuer-simulator}",
+            autoStartup = RECORD_MODE
     )
-    public void onMessage(String message) {
+    public void onMessage(byte[] message) {
         try {
-            JsonNode root = mapper.readTree(message);
+            var decision = decide(message, true);
+            if (decision == null) return;
+            try {
+                publish(decision.event());
+            } catch (RuntimeException e) {
+                // sobe para o error handler do container: o offset não é comitado e o registro volta
+                metrics.failed();
+                log.error("Failed to publish issuer decision: {}", LogPayloads.redacted(message), e);
+                notPublished(decision);
+                throw e;
+            }
+        } finally {
+            MDC.clear();
+        }
+    }
 
-            String correlationId = root.path("correlationId").asText(null);
-            if (correlationId != null) MDC.put("correlationId", correlationId);
+    @KafkaListener(
+            topics = { Topics.PAYMENT_RISK_APPROVED, Topics.PAYMENT_RISK_REJECTED },
+            groupId = "${kafka.consumer.group-id:issuer-simulator}",
+            containerFactory = KafkaConfig.BATCH_LISTENER_FACTORY,
+            autoStartup = BATCH_MODE
+    )
+    public void onBatch(List<ConsumerRecord<String, byte[]>> records) {
+        processBatch(records);
+    }
 
-            String type = root.path("type").asText("");
-            UUID paymentId = UUID.fromString(root.path("paymentId").asText());
+    @KafkaListener(
+            topics = { Topics.PAYMENT_RISK_APPROVED, Topics.PAYMENT_RISK_REJECTED },
+            groupId = "${kafka.consumer.group-id:issuer-simulator}",
+            containerFactory = KafkaConfig.TRANSACTIONAL_LISTENER_FACTORY,
+            autoStartup = TRANSACTIONAL_MODE
+    )
+    public void onTransactionalBatch(List<ConsumerRecord<String, byte[]>> records) {
+        // o container já abriu a transação; os envios do publisher entram nela e os offsets vão
+        // junto no commit. Exceção aqui = abort + reentrega do lote.
+        processBatch(records);
+    }
 
-            if ("payment.risk.rejected".equals(type)) {
-                publishDeclined(paymentId, correlationId, "risk_rejected");
-                return;
+    private void processBatch(List<ConsumerRecord<String, byte[]>> records) {
+        var decisions = new ArrayList<Decision>(records.size());
+        var authorized = new ArrayList<PaymentAuthorizedEvent>(records.size());
+        var declined = new ArrayList<PaymentDeclinedEvent>();
+        for (var record : records) {
+            var decision = decide(record.value(), false);
+            if (decision == null) continue;
+            decisions.add(decision);
+            switch (decision.event()) {
+                case PaymentAuthorizedEvent a -> authorized.add(a);
+                case PaymentDeclinedEvent d -> declined.add(d);
             }
+        }
+        // espera o ack de todos os eventos; falha aqui sobe para o error handler do container:
+        // o lote é reentregue (o dedup devolve as mesmas decisões) e nenhum offset é comitado
+        long start = System.nanoTime();
+        try {
+            publisher.publishAll(authorized, declined);
+        } catch (RuntimeException e) {
+            decisions.forEach(this::notPublished);
+            throw e;
+        }
+        metrics.record(Stage.PUBLISH, start);
+        log.debug("issuer_batch_processed records={} authorized={} declined={}",
+                records.size(), authorized.size(), declined.size());
+    }
 
-            if ("payment.risk.approved".equals(type)) {
+    @KafkaListener(
+            topics = { Topics.PAYMENT_RISK_APPROVED, Topics.PAYMENT_RISK_REJECTED },
+            groupId = "${kafka.consumer.group-id:issuer-simulator}",
+            containerFactory = KafkaConfig.PARALLEL_LISTENER_FACTORY,
+            autoStartup = PARALLEL_MODE
+    )
+    public void onRecord(ConsumerRecord<String, byte[]> record, Acknowledgment ack) throws InterruptedException {
+        byte[] message = record.value();
+        RiskEvaluatedEvent event = parse(message);
+        if (event == null) {
+            ack.acknowledge();
+            return;
+        }
+        Object key = event.accountId() != null ? event.accountId()
+                : Objects.requireNonNullElse(event.paymentId(), record.partition());
+        dispatcher.dispatch(key, () -> {
+            try {
+                var decision = decide(event, message, true);
+                if (decision == null || publishUntilAcked(decision.event(), message)) ack.acknowledge();
+                else notPublished(decision);
+            } finally {
+                MDC.clear();
+            }
+        });
+    }
 
-                long amountCents = root.path("amountCents").asLong(0);
-                boolean riskApproved = root.path("approved").asBoolean(true);
+    /**
+     * A publicação falhou e o registro volta. Com o dedup a reentrega republica esta mesma decisão e a
+     * reserva de gasto continua valendo; sem ele a decisão é refeita (e reserva de novo), então a reserva
+     * desta tentativa é devolvida.
+     */
+    private void notPublished(Decision decision) {
+        if (!dedup.isEnabled()) decision.releaseReservation();
+    }
 
+    /** Publica e espera o ack do broker. */
+    private void publish(PaymentDecisionEvent decision) {
+        long start = System.nanoTime();
+        switch (decision) {
+            case PaymentAuthorizedEvent authorized -> publisher.publishAuthorized(authorized);
+            case PaymentDeclinedEvent declined -> publisher.publishDeclined(declined);
+        }
+        metrics.record(Stage.PUBLISH, start);
+    }
 
-                var accountId = UUID.fromString(root.path("accountId").asText());
-                var merchantId = root.path("merchantId").asText("");
-                var userId = root.path("userId").asText("");
-                var panHash = root.path("panHash").asText("");
+    /**
+     * No modo paralelo não há como devolver um registro já passado ao container: a publicação é
+     * repetida com backoff até o ack. Enquanto isso o offset fica pendente e, se a fila encher, o
+     * consumo para. Devolve {@code false} só se a thread for interrompida (shutdown).
+     */
+    private boolean publishUntilAcked(PaymentDecisionEvent decision, byte[] message) {
+        long backoffMillis = PUBLISH_RETRY_INITIAL_BACKOFF_MS;
+        while (true) {
+            try {
+                publish(decision);
+                return true;
+            } catch (RuntimeException e) {
+                metrics.failed();
+                log.error("Failed to publish issuer decision, retrying in {}ms: {}",
+                        backoffMillis, LogPayloads.redacted(message), e);
+            }
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, PUBLISH_RETRY_MAX_BACKOFF_MS);
+        }
+    }
 
-                if ((panHash == null || panHash.isBlank()) && root.has("pan")) {
-                    var pan = root.path("pan").asText("");
-                    if (!pan.isBlank()) panHash = PanHasher.sha256(pan);
-                }
+    /** Roda o pipeline para um registro. Devolve a decisão a publicar, ou {@code null} se o registro foi descartado. */
+    private Decision decide(byte[] message, boolean withMdc) {
+        RiskEvaluatedEvent event = parse(message);
+        return event == null ? null : decide(event, message, withMdc);
+    }
 
-                int installments = root.path("installments").asInt(1);
+    private RiskEvaluatedEvent parse(byte[] message) {
+        try {
+            long start = System.nanoTime();
+            RiskEvaluatedEvent event = reader.read(message);
+            metrics.record(Stage.PARSE, start);
+            return event;
+        } catch (Exception e) {
+            metrics.failed();
+            log.error("Failed to consume issuer message: {}", LogPayloads.redacted(message), e);
+            return null;
+        }
+    }
 
-                var issuerDecision = useCase.execute(amountCents, riskApproved);
-                if (!issuerDecision.approved()) {
-                    publishDeclined(paymentId, correlationId, issuerDecision.reason());
-                    return;
-                }
+    private Decision decide(RiskEvaluatedEvent event, byte[] message, boolean withMdc) {
+        try {
+            String correlationId = event.correlationId();
+            if (withMdc && correlationId != null) MDC.put("correlationId", correlationId);
 
-                var limitDecision = limitsUseCase.execute(accountId, amountCents, userId, panHash, ledger);
-                if (!limitDecision.authorized()) {
-                    publishDeclined(paymentId, correlationId, limitDecision.reason());
-                    return;
-                }
+            UUID paymentId = required(event.paymentId(), "paymentId");
 
-                try {
-                    var breakdown = installmentsUseCase.execute(merchantId, amountCents, installments);
-
-                    var authorized = new PaymentAuthorizedEvent(
-                            UUID.randomUUID(),
-                            Instant.now(clock),
-                            correlationId,
-                            Topics.PAYMENT_AUTHORIZED,
-                            paymentId,
-                            limitDecision.authCode(),
-                            breakdown.installments(),
-                            breakdown.interestCents(),
-                            breakdown.totalCents(),
-                            breakdown.installmentAmountCents()
-                    );
-
-                    publisher.publishAuthorized(authorized);
-                    log.info("issuer_authorized paymentId={} installments={} totalCents={} interestCents={}",
-                            paymentId, breakdown.installments(), breakdown.totalCents(), breakdown.interestCents());
-                    return;
-
-                } catch (IllegalArgumentException ex) {
-                    var reason = ex.getMessage();
-                    if (!"invalid_installments".equals(reason) && !"installments_not_supported".equals(reason)) {
-                        reason = "invalid_installments";
-                    }
-                    publishDeclined(paymentId, correlationId, reason);
-                    log.info("issuer_declined_installments paymentId={} installments={} reason={}", paymentId, installments, reason);
-                    return;
-                }
+            var previous = dedup.find(paymentId);
+            if (previous != null) {
+                // reentrega: mesma decisão (mesmo eventId e authCode), sem passar de novo pelo ledger
+                log.info("issuer_duplicate paymentId={} eventId={}", paymentId, previous.eventId());
+                return new Decision(previous, null);
             }
 
-            log.warn("issuer_unknown_event type={} payload={}", type, root);
+            var decision = evaluate(event, paymentId, correlationId, message);
+            if (decision != null) dedup.remember(decision.event());
+            return decision;
 
         } catch (Exception e) {
-            log.error("Failed to consume issuer message: {}", message, e);
-        } finally {
-            MDC.clear();
+            metrics.failed();
+            log.error("Failed to consume issuer message: {}", LogPayloads.redacted(message), e);
+            return null;
+        }
+    }
+
+    private Decision evaluate(RiskEvaluatedEvent event, UUID paymentId, String correlationId, byte[] message) {
+        long start;
+        String type = event.type();
+        if ("payment.risk.rejected".equals(type)) {
+            log.info(LogMarkers.DECISION, "issuer_declined paymentId={} reason={}", paymentId, "risk_rejected");
+            return new Decision(declined(paymentId, correlationId, "risk_rejected"), null);
+        }
+
+        if ("payment.risk.approved".equals(type)) {
+
+            long amountCents = event.amountCents();
+            boolean riskApproved = event.approved();
+
+            var accountId = required(event.accountId(), "accountId");
+            var merchantId = event.merchantId();
+            var userId = event.userId();
+            var panHash = event.panHash();
+
+            int installments = event.installments();
+
+            start = System.nanoTime();
+            var issuerDecision = useCase.execute(amountCents, riskApproved, merchantId, event.mcc(), event.currency(), event.bin());
+            metrics.record(Stage.ISSUER_RULES, start);
+            if (!issuerDecision.approved()) {
+                log.info(LogMarkers.DECISION, "issuer_declined paymentId={} reason={}", paymentId, issuerDecision.reason());
+                return new Decision(declined(paymentId, correlationId, issuerDecision.reason()), null);
+            }
+
+            start = System.nanoTime();
+            var limitDecision = limitsUseCase.execute(accountId, amountCents, userId, panHash, ledger);
+            metrics.record(Stage.LIMITS, start);
+            if (!limitDecision.authorized()) {
+                log.info(LogMarkers.DECISION, "issuer_declined paymentId={} reason={}", paymentId, limitDecision.reason());
+                return new Decision(declined(paymentId, correlationId, limitDecision.reason()), null);
+            }
+
+            start = System.nanoTime();
+            try {
+                var breakdown = installmentsUseCase.execute(merchantId, amountCents, installments);
+                metrics.record(Stage.INSTALLMENTS, start);
+
+                var authorized = new PaymentAuthorizedEvent(
+                        ids.eventId(),
+                        Instant.now(clock),
+                        correlationId,
+                        Topics.PAYMENT_AUTHORIZED,
+                        paymentId,
+                        limitDecision.authCode(),
+                        breakdown.installments(),
+                        breakdown.interestCents(),
+                        breakdown.totalCents(),
+                        breakdown.installmentAmountCents()
+                );
+
+                metrics.authorized();
+                log.info("issuer_authorized paymentId={} installments={} totalCents={} interestCents={}",
+                        paymentId, breakdown.installments(), breakdown.totalCents(), breakdown.interestCents());
+                return new Decision(authorized, limitDecision);
+
+            } catch (IllegalArgumentException ex) {
+                metrics.record(Stage.INSTALLMENTS, start);
+                limitDecision.release();
+                var reason = ex.getMessage();
+                if (!"invalid_installments".equals(reason) && !"installments_not_supported".equals(reason)) {
+                    reason = "invalid_installments";
+                }
+                log.info(LogMarkers.DECISION, "issuer_declined_installments paymentId={} installments={} reason={}", paymentId, installments, reason);
+                return new Decision(declined(paymentId, correlationId, reason), null);
+            } catch (RuntimeException | Error e) {
+                // a autorização não vai sair: a reserva de gasto não pode ficar presa
+                limitDecision.release();
+                throw e;
+            }
+        }
+
+        log.warn("issuer_unknown_event type={} payload={}", type, LogPayloads.redacted(message));
+        return null;
+    }
+
+    /** Decisão a publicar e, numa autorização avaliada agora, a reserva de gasto que ela segura. */
+    private record Decision(PaymentDecisionEvent event, AuthorizeWithLimitsUseCase.LimitDecision limits) {
+        void releaseReservation() {
+            if (limits != null) limits.release();
         }
     }
 
-    private void publishDeclined(UUID paymentId, String correlationId, String reason) {
-        var declined = new PaymentDeclinedEvent(
-                UUID.randomUUID(),
+    private static <T> T required(T value, String field) {
+        if (value == null) throw new IllegalArgumentException(field + "_required");
+        return value;
+    }
+
+    private PaymentDeclinedEvent declined(UUID paymentId, String correlationId, String reason) {
+        metrics.declined(reason);
+        return new PaymentDeclinedEvent(
+                ids.eventId(),
                 Instant.now(clock),
                 correlationId,
                 Topics.PAYMENT_DECLINED,
                 paymentId,
                 reason
         );
-        publisher.publishDeclined(declined);
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package br.com.tigelah.issuersimulator.entrypoints.kafka;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa tarefas em paralelo preservando a ordem entre tarefas da mesma chave.
+ *
+ * <p>Cada chave tem uma "cauda": a próxima tarefa da chave só roda quando a anterior termina.
+ * Chaves diferentes rodam livremente no executor (virtual threads por padrão). A cauda sai do mapa
+ * assim que termina sem sucessora, então o mapa só guarda chaves com trabalho pendente.
+ *
+ * <p>{@link #dispatch} bloqueia quando há {@code maxInFlight} tarefas pendentes: é o backpressure
+ * sobre a thread do listener.
+ */
+public final class KeyOrderedDispatcher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final ConcurrentHashMap<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedDispatcher(ExecutorService executor, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("max_in_flight_invalid");
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    public static KeyOrderedDispatcher virtualThreads(int maxInFlight) {
+        return new KeyOrderedDispatcher(Executors.newVirtualThreadPerTaskExecutor(), maxInFlight);
+    }
+
+    /**
+     * Agenda {@code task} depois da última tarefa pendente de {@code key}. Exceções da tarefa são
+     * logadas e não interrompem a fila da chave.
+     */
+    public void dispatch(Object key, Runnable task) throws InterruptedException {
+        permits.acquire();
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.error("keyed_task_failed key={}", key, t);
+            }
+        };
+        CompletableFuture<Void> tail;
+        try {
+            tail = tails.compute(key, (k, prev) -> prev == null
+                    ? CompletableFuture.runAsync(guarded, executor)
+                    : prev.thenRunAsync(guarded, executor));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        tail.whenComplete((v, e) -> {
+            tails.remove(key, tail);
+            permits.release();
+        });
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    public int pendingKeys() {
+        return tails.size();
+    }
+
+    /** Espera todas as tarefas pendentes terminarem. Devolve {@code false} se o prazo estourar. */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        if (!permits.tryAcquire(maxInFlight, timeout.toNanos(), TimeUnit.NANOSECONDS)) return false;
+        permits.release(maxInFlight);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!awaitIdle(Duration.ofSeconds(30))) {
+                log.warn("keyed_dispatcher_close_timeout inFlight={}", inFlight());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.close();
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.tigelah.issuersimulator.entrypoints.kafka;
+
+import br.com.tigelah.issuersimulator.application.security.PanHasher;
+import br.com.tigelah.issuersimulator.entrypoints.kafka.dto.RiskEvaluatedEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+/**
+ * Lê {@code payment.risk.*} direto dos bytes do record para um {@link RiskEvaluatedEvent},
+ * usando o parser de streaming do Jackson.
+ *
+ * <p>Não há cópia para {@code String} nem árvore {@code JsonNode}: cada campo conhecido é lido
+ * uma vez e campos desconhecidos (inclusive objetos e arrays) são pulados com
+ * {@link JsonParser#skipChildren()}.
+ *
+ * <p>Os defaults são os mesmos do consumo via árvore: {@code approved=true}, {@code installments=1},
+ * {@code amountCents=0} e strings vazias para merchant/user/panHash. Se o evento trouxer {@code pan}
+ * em claro e nenhum {@code panHash}, o hash é calculado aqui e o PAN não sai do reader; o mesmo vale
+ * para o {@code bin} (6 primeiros dígitos), quando o evento não traz um.
+ */
+public class RiskEvaluatedEventReader {
+
+    private final JsonFactory factory;
+    private final PanHasher panHasher;
+
+    public RiskEvaluatedEventReader(JsonFactory factory) {
+        this(factory, PanHasher.plain());
+    }
+
+    public RiskEvaluatedEventReader(JsonFactory factory, PanHasher panHasher) {
+        this.factory = factory;
+        this.panHasher = panHasher;
+    }
+
+    public RiskEvaluatedEvent read(byte[] payload) throws IOException {
+        try (JsonParser p = factory.createParser(payload)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("risk_event_not_an_object");
+
+            UUID eventId = null;
+            Instant occurredAt = null;
+            String correlationId = null;
+            String type = "";
+            UUID paymentId = null;
+            boolean approved = true;
+            String reason = null;
+            String merchantId = "";
+            long amountCents = 0;
+            String currency = null;
+            int installments = 1;
+            UUID accountId = null;
+            String userId = "";
+            String panHash = "";
+            String panLast4 = null;
+            String hashedPan = null;
+            String mcc = null;
+            String bin = null;
+            String panBin = null;
+
+            for (String field = p.nextFieldName(); field != null; field = p.nextFieldName()) {
+                var token = p.nextToken();
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "eventId" -> eventId = lenientUuid(p.getValueAsString());
+                    case "occurredAt" -> occurredAt = lenientInstant(p.getValueAsString());
+                    case "correlationId" -> correlationId = p.getValueAsString();
+                    case "type" -> type = p.getValueAsString("");
+                    case "paymentId" -> paymentId = uuid(p.getValueAsString());
+                    case "approved" -> approved = p.getValueAsBoolean(true);
+                    case "reason" -> reason = p.getValueAsString();
+                    case "merchantId" -> merchantId = p.getValueAsString("");
+                    case "amountCents" -> amountCents = p.getValueAsLong(0);
+                    case "currency" -> currency = p.getValueAsString();
+                    case "installments" -> installments = p.getValueAsInt(1);
+                    case "accountId" -> accountId = uuid(p.getValueAsString());
+                    case "userId" -> userId = p.getValueAsString("");
+                    case "panHash" -> panHash = p.getValueAsString("");
+                    case "panLast4" -> panLast4 = p.getValueAsString();
+                    case "mcc" -> mcc = p.getValueAsString();
+                    case "bin" -> bin = p.getValueAsString();
+                    case "pan" -> {
+                        // hash direto do buffer de caracteres do parser: o PAN nunca vira String
+                        if (token == JsonToken.VALUE_STRING && !isBlank(p.getTextCharacters(), p.getTextOffset(), p.getTextLength())) {
+                            hashedPan = panHasher.hash(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                            panBin = bin(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                        }
+                    }
+                    default -> { /* campo desconhecido: escalar já consumido */ }
+                }
+            }
+
+            if (panHash.isBlank() && hashedPan != null) panHash = hashedPan;
+            if (bin == null) bin = panBin;
+
+            return new RiskEvaluatedEvent(eventId, occurredAt, correlationId, type, paymentId, approved, reason,
+                    merchantId, amountCents, currency, installments, accountId, userId, panHash, panLast4, mcc, bin);
+        }
+    }
+
+    private static boolean isBlank(char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (!Character.isWhitespace(chars[i])) return false;
+        }
+        return true;
+    }
+
+    private static final int BIN_LENGTH = 6;
+
+    /** Os 6 primeiros dígitos, ignorando espaços; {@code null} se o PAN tiver outro caractere antes disso. */
+    private static String bin(char[] chars, int offset, int length) {
+        var digits = new char[BIN_LENGTH];
+        int n = 0;
+        for (int i = offset; i < offset + length && n < BIN_LENGTH; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') digits[n++] = c;
+            else if (!Character.isWhitespace(c)) return null;
+        }
+        return n == BIN_LENGTH ? new String(digits) : null;
+    }
+
+    private static UUID uuid(String value) {
+        return value == null || value.isEmpty() ? null : UUID.fromString(value);
+    }
+
+    private static UUID lenientUuid(String value) {
+        try {
+            return uuid(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Instant lenientInstant(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
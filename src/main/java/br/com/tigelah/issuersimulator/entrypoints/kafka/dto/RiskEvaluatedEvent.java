@@ -10,5 +10,15 @@ public record RiskEvaluatedEvent(
         String type,
         UUID paymentId,
         boolean approved,
-        String reason
+        String reason,
+        String merchantId,
+        long amountCents,
+        String currency,
+        int installments,
+        UUID accountId,
+        String userId,
+        String panHash,
+        String panLast4,
+        String mcc,
+        String bin
 ) { }
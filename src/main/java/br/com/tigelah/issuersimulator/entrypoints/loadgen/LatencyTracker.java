@@ -0,0 +1,91 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Casa cada envio com a decisão publicada pelo {@code paymentId} e registra a latência ponta a
+ * ponta num histograma HDR (1µs a 1min, 3 dígitos significativos).
+ *
+ * <p>A latência conta a partir do instante em que o envio <em>deveria</em> ter saído, não de quando
+ * saiu: se o gerador atrasar, o atraso aparece no resultado (sem coordinated omission). Um pagamento
+ * reenviado tem um envio pendente por cópia; cada decisão fecha o mais antigo. Envios anteriores a
+ * {@link #recordFrom(long)} (aquecimento) são casados, mas ficam fora do histograma.
+ */
+public final class LatencyTracker {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final ConcurrentHashMap<UUID, ArrayDeque<Long>> pending = new ConcurrentHashMap<>();
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private volatile long recordFromNanos = Long.MIN_VALUE;
+    private volatile long lastRecordedNanos;
+
+    public void sent(UUID paymentId, long intendedNanos) {
+        pending.compute(paymentId, (id, sends) -> {
+            if (sends == null) sends = new ArrayDeque<>(1);
+            sends.addLast(intendedNanos);
+            return sends;
+        });
+    }
+
+    /** Decisão recebida. Devolve {@code false} se não havia envio pendente para o pagamento. */
+    public boolean received(UUID paymentId, long nowNanos) {
+        // nanoTime pode ser negativo: o array guarda o instante, a referência nula diz se achou
+        var intended = new Long[1];
+        pending.computeIfPresent(paymentId, (id, sends) -> {
+            intended[0] = sends.removeFirst();
+            return sends.isEmpty() ? null : sends;
+        });
+        if (intended[0] == null) {
+            unmatched.increment();
+            return false;
+        }
+        matched.increment();
+        long from = recordFromNanos;
+        if (from == Long.MIN_VALUE || intended[0] - from >= 0) {
+            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nowNanos - intended[0]));
+            recorder.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            lastRecordedNanos = nowNanos;
+        }
+        return true;
+    }
+
+    /** Só envios previstos a partir de {@code intendedNanos} entram no histograma. */
+    public void recordFrom(long intendedNanos) {
+        this.recordFromNanos = intendedNanos;
+    }
+
+    /** Latências registradas desde a chamada anterior, em microssegundos. */
+    public Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    /** Instante ({@link System#nanoTime()}) da última latência registrada no histograma. */
+    public long lastRecordedNanos() {
+        return lastRecordedNanos;
+    }
+
+    /** Envios ainda sem decisão (aproximado enquanto há tráfego). */
+    public int outstanding() {
+        int count = 0;
+        for (var sends : pending.values()) count += sends.size();
+        return count;
+    }
+
+    public long matched() {
+        return matched.sum();
+    }
+
+    public long unmatched() {
+        return unmatched.sum();
+    }
+}
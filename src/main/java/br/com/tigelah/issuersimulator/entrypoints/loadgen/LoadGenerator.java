@@ -0,0 +1,204 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import br.com.tigelah.issuersimulator.infrastructure.messaging.DecisionEventCodec;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.DecisionEventSerializer;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dirige o simulador por Kafka: envia {@code payment.risk.*} no ritmo do {@link LoadProfile} e lê
+ * {@code payment.authorized}/{@code payment.declined} para medir a latência ponta a ponta.
+ *
+ * <p>O ritmo é aberto (cada envio tem um instante previsto, independente das respostas) e a leitura
+ * começa no fim dos tópicos de saída, para não casar decisões de execuções anteriores. As decisões são
+ * lidas em {@code read_committed}, então o modo {@code transactional} é medido até o commit.
+ */
+public final class LoadGenerator {
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final List<String> DECISION_TOPICS = List.of(Topics.PAYMENT_AUTHORIZED, Topics.PAYMENT_DECLINED);
+    private static final byte[] BINARY_CONTENT_TYPE = DecisionEventCodec.CONTENT_TYPE.getBytes(StandardCharsets.US_ASCII);
+
+    private final LoadProfile profile;
+    private final Map<String, Object> kafkaProperties;
+    private final ObjectMapper mapper;
+    private final Clock clock;
+    private final Duration drainTimeout;
+
+    /**
+     * @param kafkaProperties propriedades comuns de cliente ({@code bootstrap.servers}, segurança...)
+     * @param drainTimeout    espera máxima pelas decisões pendentes depois do último envio
+     */
+    public LoadGenerator(LoadProfile profile, Map<String, Object> kafkaProperties, ObjectMapper mapper,
+                         Clock clock, Duration drainTimeout) {
+        this.profile = profile;
+        this.kafkaProperties = Map.copyOf(kafkaProperties);
+        this.mapper = mapper;
+        this.clock = clock;
+        this.drainTimeout = drainTimeout;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        var tracker = new LatencyTracker();
+        var generator = new SyntheticEventGenerator(profile, mapper, clock);
+        var sendFailures = new LongAdder();
+
+        try (var producer = new KafkaProducer<>(producerProperties(), new StringSerializer(), new ByteArraySerializer());
+             var collector = new DecisionCollector(tracker)) {
+            collector.start();
+
+            long periodNanos = TimeUnit.SECONDS.toNanos(1) / profile.ratePerSecond();
+            long start = System.nanoTime();
+            long measureFrom = start + profile.warmup().toNanos();
+            long end = measureFrom + profile.duration().toNanos();
+            tracker.recordFrom(measureFrom);
+
+            long sent = 0;
+            long duplicates = 0;
+            for (long i = 0; ; i++) {
+                long intended = start + i * periodNanos;
+                if (intended - end >= 0) break;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+
+                var event = generator.next();
+                tracker.sent(event.paymentId(), intended);
+                producer.send(new ProducerRecord<>(event.topic(), event.key(), event.payload()), (metadata, error) -> {
+                    if (error != null) sendFailures.increment();
+                });
+                if (intended - measureFrom >= 0) {
+                    sent++;
+                    if (event.duplicate()) duplicates++;
+                }
+            }
+            producer.flush();
+            long sendEnd = System.nanoTime();
+
+            long deadline = sendEnd + drainTimeout.toNanos();
+            while (tracker.outstanding() > 0 && System.nanoTime() - deadline < 0) {
+                Thread.sleep(50);
+            }
+
+            var histogram = tracker.histogram();
+            long lastDecision = histogram.getTotalCount() > 0 ? tracker.lastRecordedNanos() : measureFrom;
+            var report = LoadReport.of(sent, duplicates, sendFailures.sum(), tracker.unmatched(), tracker.outstanding(),
+                    Duration.ofNanos(sendEnd - measureFrom), Duration.ofNanos(lastDecision - measureFrom), histogram);
+            log.info(report.summary());
+            return report;
+        }
+    }
+
+    private Map<String, Object> producerProperties() {
+        var props = new HashMap<>(kafkaProperties);
+        props.put(ProducerConfig.ACKS_CONFIG, "1");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        props.put(ProducerConfig.CLIENT_ID_CONFIG, "issuer-loadgen-producer");
+        return props;
+    }
+
+    private Map<String, Object> consumerProperties() {
+        var props = new HashMap<>(kafkaProperties);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, "issuer-loadgen-consumer");
+        return props;
+    }
+
+    private UUID paymentIdOf(ConsumerRecord<String, byte[]> record) throws IOException {
+        var contentType = record.headers().lastHeader(DecisionEventSerializer.CONTENT_TYPE_HEADER);
+        if (contentType != null && Arrays.equals(contentType.value(), BINARY_CONTENT_TYPE)) {
+            return DecisionEventCodec.decode(record.value()).paymentId();
+        }
+        var paymentId = mapper.readTree(record.value()).get("paymentId");
+        return paymentId == null ? null : UUID.fromString(paymentId.asText());
+    }
+
+    /** Lê as decisões numa thread própria, a partir do fim dos tópicos no momento do {@link #start()}. */
+    private final class DecisionCollector implements AutoCloseable {
+        private final LatencyTracker tracker;
+        private final KafkaConsumer<String, byte[]> consumer;
+        private final CountDownLatch positioned = new CountDownLatch(1);
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        DecisionCollector(LatencyTracker tracker) {
+            this.tracker = tracker;
+            this.consumer = new KafkaConsumer<>(consumerProperties(), new StringDeserializer(), new ByteArrayDeserializer());
+            this.thread = Thread.ofPlatform().name("issuer-loadgen-collector").daemon().unstarted(this::loop);
+        }
+
+        void start() throws InterruptedException {
+            thread.start();
+            positioned.await();
+        }
+
+        private void loop() {
+            try {
+                var partitions = new ArrayList<TopicPartition>();
+                for (var topic : DECISION_TOPICS) {
+                    for (var info : consumer.partitionsFor(topic)) partitions.add(new TopicPartition(topic, info.partition()));
+                }
+                consumer.assign(partitions);
+                consumer.seekToEnd(partitions);
+                // position() resolve o seek agora: nada publicado depois daqui é perdido
+                for (var partition : partitions) consumer.position(partition);
+                positioned.countDown();
+
+                while (running) {
+                    for (var record : consumer.poll(Duration.ofMillis(100))) {
+                        long now = System.nanoTime();
+                        try {
+                            var paymentId = paymentIdOf(record);
+                            if (paymentId != null) tracker.received(paymentId, now);
+                        } catch (Exception e) {
+                            log.warn("loadgen_unreadable_decision topic={} offset={}", record.topic(), record.offset(), e);
+                        }
+                    }
+                }
+            } catch (WakeupException e) {
+                // close()
+            } catch (RuntimeException e) {
+                log.error("loadgen_collector_failed", e);
+            } finally {
+                positioned.countDown();
+                consumer.close();
+            }
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            running = false;
+            consumer.wakeup();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
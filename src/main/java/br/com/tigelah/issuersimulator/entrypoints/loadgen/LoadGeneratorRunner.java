@@ -0,0 +1,59 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Profile {@code loadgen}: ao subir, roda o {@link LoadGenerator} contra o próprio simulador (mesmo
+ * cluster Kafka) com o perfil de {@code issuer.loadgen.*} e registra o {@link LoadReport} no log.
+ */
+@Component
+@Profile("loadgen")
+public class LoadGeneratorRunner implements ApplicationRunner {
+
+    private final LoadGenerator generator;
+    private volatile LoadReport lastReport;
+
+    public LoadGeneratorRunner(
+            KafkaProperties kafka,
+            ObjectMapper mapper,
+            Clock clock,
+            @Value("${issuer.loadgen.rate:1000}") int rate,
+            @Value("${issuer.loadgen.duration:30s}") Duration duration,
+            @Value("${issuer.loadgen.warmup:5s}") Duration warmup,
+            @Value("${issuer.loadgen.amount.median-cents:15000}") long amountMedianCents,
+            @Value("${issuer.loadgen.amount.sigma:1.0}") double amountSigma,
+            @Value("${issuer.loadgen.installment-mix:1:70,2:10,6:15,12:5}") String installmentMix,
+            @Value("${issuer.loadgen.merchants:100}") int merchants,
+            @Value("${issuer.loadgen.accounts:10000}") int accounts,
+            @Value("${issuer.loadgen.duplicate-ratio:0.01}") double duplicateRatio,
+            @Value("${issuer.loadgen.rejected-ratio:0.05}") double rejectedRatio,
+            @Value("${issuer.loadgen.seed:42}") long seed,
+            @Value("${issuer.loadgen.drain-timeout:10s}") Duration drainTimeout) {
+        var profile = LoadProfile.of(rate, duration, warmup, amountMedianCents, amountSigma, installmentMix,
+                merchants, accounts, duplicateRatio, rejectedRatio, seed);
+        var clientProperties = Map.<String, Object>of(
+                CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, String.join(",", kafka.getBootstrapServers()));
+        this.generator = new LoadGenerator(profile, clientProperties, mapper, clock, drainTimeout);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        lastReport = generator.run();
+    }
+
+    /** Relatório da execução no startup ({@code null} se ainda não terminou). */
+    public LoadReport lastReport() {
+        return lastReport;
+    }
+}
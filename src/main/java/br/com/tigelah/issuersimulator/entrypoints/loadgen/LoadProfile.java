@@ -0,0 +1,82 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Forma da carga sintética.
+ *
+ * @param ratePerSecond     eventos por segundo (ritmo aberto: não espera as respostas)
+ * @param duration          tempo de envio medido, depois do aquecimento
+ * @param warmup            envio inicial fora do relatório
+ * @param amountMedianCents mediana do valor; a distribuição é log-normal
+ * @param amountSigma       desvio do log do valor (0 = todos iguais à mediana)
+ * @param installments      parcelas possíveis, em paralelo com {@code installmentWeights}
+ * @param installmentWeights pesos acumulados de cada parcela
+ * @param merchants         lojistas distintos ({@code m1..mN})
+ * @param accounts          contas distintas ({@link #accountId(int)})
+ * @param duplicateRatio    fração de reenvios de um pagamento recente (mesmo paymentId e payload)
+ * @param rejectedRatio     fração de {@code payment.risk.rejected}
+ * @param seed              semente: mesma semente, mesma sequência de eventos
+ */
+public record LoadProfile(
+        int ratePerSecond,
+        Duration duration,
+        Duration warmup,
+        long amountMedianCents,
+        double amountSigma,
+        int[] installments,
+        int[] installmentWeights,
+        int merchants,
+        int accounts,
+        double duplicateRatio,
+        double rejectedRatio,
+        long seed
+) {
+    // "LOADGEN\0": contas sintéticas não colidem com contas reais
+    private static final long ACCOUNT_MSB = 0x4C4F414447454E00L;
+
+    public LoadProfile {
+        if (ratePerSecond <= 0) throw new IllegalArgumentException("loadgen_rate_invalid");
+        if (merchants <= 0 || accounts <= 0) throw new IllegalArgumentException("loadgen_cardinality_invalid");
+        if (amountMedianCents <= 0 || amountSigma < 0) throw new IllegalArgumentException("loadgen_amount_invalid");
+        if (duplicateRatio < 0 || duplicateRatio >= 1 || rejectedRatio < 0 || rejectedRatio > 1) {
+            throw new IllegalArgumentException("loadgen_ratio_invalid");
+        }
+        if (installments.length == 0 || installments.length != installmentWeights.length) {
+            throw new IllegalArgumentException("loadgen_installment_mix_invalid");
+        }
+    }
+
+    /**
+     * Perfil com o mix de parcelas no formato {@code "1:70,2:10,6:15,12:5"} (parcela:peso).
+     */
+    public static LoadProfile of(int ratePerSecond, Duration duration, Duration warmup,
+                                 long amountMedianCents, double amountSigma, String installmentMix,
+                                 int merchants, int accounts, double duplicateRatio, double rejectedRatio, long seed) {
+        var entries = installmentMix.split(",");
+        var installments = new int[entries.length];
+        var weights = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            var parts = entries[i].trim().split(":");
+            if (parts.length != 2) throw new IllegalArgumentException("loadgen_installment_mix_invalid");
+            installments[i] = Integer.parseInt(parts[0].trim());
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight <= 0) throw new IllegalArgumentException("loadgen_installment_mix_invalid");
+            total += weight;
+            weights[i] = total;
+        }
+        return new LoadProfile(ratePerSecond, duration, warmup, amountMedianCents, amountSigma,
+                installments, weights, merchants, accounts, duplicateRatio, rejectedRatio, seed);
+    }
+
+    /** Conta sintética {@code i}; o ledger usado no teste de carga precisa ter essas contas. */
+    public static UUID accountId(int i) {
+        return new UUID(ACCOUNT_MSB, i);
+    }
+
+    public static String merchantId(int i) {
+        return "m" + (i + 1);
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Resultado de uma execução do {@link LoadGenerator}. Latências em microssegundos; só a janela
+ * medida (sem aquecimento) entra em percentis e vazão.
+ *
+ * @param sent            eventos enviados na janela medida (inclui duplicatas)
+ * @param duplicates      quantos desses eram reenvios
+ * @param sendFailures    envios que o broker recusou
+ * @param decisions       decisões casadas com um envio da janela medida
+ * @param unmatched       decisões sem envio pendente (ex.: resposta a mais para uma duplicata)
+ * @param outstanding     envios sem decisão ao fim da espera
+ * @param offeredPerSecond  ritmo de envio efetivo
+ * @param sustainedPerSecond decisões por segundo, do fim do aquecimento à última decisão
+ */
+public record LoadReport(
+        long sent,
+        long duplicates,
+        long sendFailures,
+        long decisions,
+        long unmatched,
+        long outstanding,
+        double offeredPerSecond,
+        double sustainedPerSecond,
+        Histogram latencyMicros
+) {
+
+    static LoadReport of(long sent, long duplicates, long sendFailures, long unmatched, long outstanding,
+                         Duration sendWindow, Duration receiveWindow, Histogram latencyMicros) {
+        long decisions = latencyMicros.getTotalCount();
+        return new LoadReport(sent, duplicates, sendFailures, decisions, unmatched, outstanding,
+                perSecond(sent, sendWindow), perSecond(decisions, receiveWindow), latencyMicros);
+    }
+
+    public long percentileMicros(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile);
+    }
+
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "loadgen_report sent=%d duplicates=%d send_failures=%d decisions=%d unmatched=%d outstanding=%d "
+                        + "offered_per_s=%.1f sustained_per_s=%.1f "
+                        + "p50_us=%d p90_us=%d p99_us=%d p99_9_us=%d max_us=%d",
+                sent, duplicates, sendFailures, decisions, unmatched, outstanding,
+                offeredPerSecond, sustainedPerSecond,
+                percentileMicros(50), percentileMicros(90), percentileMicros(99), percentileMicros(99.9),
+                latencyMicros.getMaxValue());
+    }
+
+    private static double perSecond(long count, Duration window) {
+        long nanos = window.toNanos();
+        return nanos <= 0 ? 0 : count * 1e9 / nanos;
+    }
+}
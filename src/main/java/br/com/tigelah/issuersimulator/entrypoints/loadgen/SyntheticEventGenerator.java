@@ -0,0 +1,94 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import br.com.tigelah.issuersimulator.entrypoints.kafka.dto.RiskEvaluatedEvent;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Gera eventos {@code payment.risk.*} conforme o {@link LoadProfile}.
+ *
+ * <p>Duplicatas reenviam um dos últimos {@value #RECENT} eventos byte a byte, como uma reentrega do
+ * upstream. Não é thread-safe: um gerador por thread de envio.
+ */
+public final class SyntheticEventGenerator {
+
+    static final int RECENT = 4096;
+
+    /** Evento pronto para envio; {@code duplicate} marca os reenvios. */
+    public record SyntheticEvent(UUID paymentId, String topic, String key, byte[] payload, boolean duplicate) { }
+
+    private final LoadProfile profile;
+    private final ObjectMapper mapper;
+    private final Clock clock;
+    private final SplittableRandom random;
+    private final SyntheticEvent[] recent = new SyntheticEvent[RECENT];
+    private long generated;
+
+    public SyntheticEventGenerator(LoadProfile profile, ObjectMapper mapper, Clock clock) {
+        this.profile = profile;
+        this.mapper = mapper;
+        this.clock = clock;
+        this.random = new SplittableRandom(profile.seed());
+    }
+
+    public SyntheticEvent next() {
+        if (generated > 0 && random.nextDouble() < profile.duplicateRatio()) {
+            var original = recent[random.nextInt((int) Math.min(generated, RECENT))];
+            return new SyntheticEvent(original.paymentId(), original.topic(), original.key(), original.payload(), true);
+        }
+        var event = fresh();
+        recent[(int) (generated++ % RECENT)] = event;
+        return event;
+    }
+
+    private SyntheticEvent fresh() {
+        var paymentId = new UUID(random.nextLong(), random.nextLong());
+        var accountId = LoadProfile.accountId(random.nextInt(profile.accounts()));
+        boolean rejected = random.nextDouble() < profile.rejectedRatio();
+        String topic = rejected ? Topics.PAYMENT_RISK_REJECTED : Topics.PAYMENT_RISK_APPROVED;
+
+        var event = new RiskEvaluatedEvent(
+                new UUID(random.nextLong(), random.nextLong()),
+                Instant.now(clock),
+                "loadgen-" + generated,
+                topic,
+                paymentId,
+                !rejected,
+                rejected ? "loadgen_rejected" : null,
+                LoadProfile.merchantId(random.nextInt(profile.merchants())),
+                amountCents(),
+                "BRL",
+                installments(),
+                accountId,
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+        try {
+            return new SyntheticEvent(paymentId, topic, accountId.toString(), mapper.writeValueAsBytes(event), false);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("loadgen_serialization_failed", e);
+        }
+    }
+
+    private long amountCents() {
+        double factor = profile.amountSigma() == 0 ? 1 : Math.exp(profile.amountSigma() * random.nextGaussian());
+        return Math.max(1, Math.round(profile.amountMedianCents() * factor));
+    }
+
+    private int installments() {
+        var weights = profile.installmentWeights();
+        int pick = random.nextInt(weights[weights.length - 1]);
+        int idx = Arrays.binarySearch(weights, pick + 1);
+        return profile.installments()[idx >= 0 ? idx : -idx - 1];
+    }
+}
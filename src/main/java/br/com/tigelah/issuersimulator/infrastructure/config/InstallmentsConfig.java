@@ -1,19 +1,83 @@
 package br.com.tigelah.issuersimulator.infrastructure.config;
 
 import br.com.tigelah.issuersimulator.application.usecase.CalculateInstallmentsUseCase;
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase;
 import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import br.com.tigelah.issuersimulator.domain.services.RateTable;
+import br.com.tigelah.issuersimulator.infrastructure.rates.ReloadableRateTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class InstallmentsConfig {
 
+    private static final String RATES_FILE_SET = "!'${issuer.installments.rates.file:}'.isBlank()";
+
+    /** {@code issuer.installments.rates.file}: tabela do arquivo, recarregada quando ele muda. */
+    @Bean
+    @ConditionalOnExpression(RATES_FILE_SET)
+    ReloadableRateTable reloadableRateTable(@Value("${issuer.installments.rates.file}") String file,
+                                            MeterRegistry registry) {
+        return new ReloadableRateTable(Path.of(file), registry);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    @ConditionalOnExpression(RATES_FILE_SET)
+    ScheduledExecutorService rateTableReloader(ReloadableRateTable rates,
+                                               @Value("${issuer.installments.rates.reload-interval:30s}") Duration interval) {
+        var scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rate-table-reloader").daemon().factory());
+        scheduler.scheduleWithFixedDelay(rates::reloadIfChanged,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+
+    @Bean
+    public InstallmentCalculator installmentCalculator(ObjectProvider<ReloadableRateTable> reloadable) {
+        var fromFile = reloadable.getIfAvailable();
+        return fromFile != null ? new InstallmentCalculator(fromFile) : new InstallmentCalculator(defaultRates());
+    }
+
+    @Bean
+    public CalculateInstallmentsUseCase calculateInstallmentsUseCase(InstallmentCalculator installmentCalculator) {
+        return new CalculateInstallmentsUseCase(installmentCalculator);
+    }
+
+    /** Cálculo é só CPU: um worker por core para os blocos das simulações em lote. */
+    @Bean(destroyMethod = "shutdownNow")
+    ExecutorService installmentsSimulationExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                Thread.ofPlatform().name("installments-simulation-", 0).daemon().factory());
+    }
+
     @Bean
-    public CalculateInstallmentsUseCase calculateInstallmentsUseCase() {
+    public SimulateInstallmentsUseCase simulateInstallmentsUseCase(
+            InstallmentCalculator installmentCalculator,
+            ExecutorService installmentsSimulationExecutor,
+            @Value("${issuer.installments.simulation.cache-max-size:100000}") long cacheMaxSize,
+            @Value("${issuer.installments.simulation.max-bulk-items:1000}") int maxBulkItems,
+            @Value("${issuer.installments.simulation.chunk-size:64}") int chunkSize,
+            MeterRegistry registry) {
+        return new SimulateInstallmentsUseCase(installmentCalculator, installmentsSimulationExecutor,
+                new SimulateInstallmentsUseCase.Settings(cacheMaxSize, maxBulkItems, chunkSize), registry);
+    }
+
+    /** Tabela embutida, usada sem arquivo configurado. */
+    private static RateTable defaultRates() {
 
         var allowed = Set.of(1, 2, 6, 12);
 
@@ -30,6 +94,6 @@ public class InstallmentsConfig {
                 )
         );
 
-        return new CalculateInstallmentsUseCase(new InstallmentCalculator(allowed, rates));
+        return RateTable.of(allowed, rates);
     }
 }
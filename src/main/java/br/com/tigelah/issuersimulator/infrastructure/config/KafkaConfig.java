@@ -1,9 +1,182 @@
 package br.com.tigelah.issuersimulator.infrastructure.config;
 
+import br.com.tigelah.issuersimulator.entrypoints.kafka.KeyOrderedDispatcher;
+import br.com.tigelah.issuersimulator.infrastructure.dedup.DecisionDedup;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.DecisionEventSerializer;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.MeteredKafkaTransactionManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
 
 @EnableKafka
 @Configuration
-public class KafkaConfig { }
+public class KafkaConfig {
+
+    public static final String BATCH_LISTENER_FACTORY = "batchKafkaListenerContainerFactory";
+    public static final String PARALLEL_LISTENER_FACTORY = "parallelKafkaListenerContainerFactory";
+    public static final String TRANSACTIONAL_LISTENER_FACTORY = "transactionalKafkaListenerContainerFactory";
+
+    /**
+     * Error handler dos modos {@code record}, {@code batch} e {@code parallel} (o Boot aplica o bean
+     * único no {@code configure}, inclusive na factory padrão do modo {@code record}). O padrão do
+     * Spring Kafka tenta 10 vezes sem espera e comita o offset: numa queda do broker a decisão se
+     * perderia. Aqui o backoff é exponencial e sem limite de tentativas — o consumo fica parado no
+     * registro (ou lote) que falhou até a publicação voltar. Payload inválido e recusa não chegam
+     * aqui: o pipeline já os trata.
+     */
+    @Bean
+    DefaultErrorHandler kafkaErrorHandler(
+            @Value("${issuer.consumer.retry.initial-interval:100ms}") Duration initialInterval,
+            @Value("${issuer.consumer.retry.max-interval:5s}") Duration maxInterval) {
+        return new DefaultErrorHandler(retryBackOff(initialInterval, maxInterval));
+    }
+
+    @Bean(BATCH_LISTENER_FACTORY)
+    ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        var factory = new ConcurrentKafkaListenerContainerFactory<Object, Object>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+
+    /**
+     * Acks manuais e fora de ordem: o listener confirma cada registro quando o processamento em
+     * paralelo termina e o container comita só o prefixo contíguo de offsets confirmados. Enquanto
+     * houver lacunas no poll corrente, o consumer fica pausado.
+     */
+    @Bean(PARALLEL_LISTENER_FACTORY)
+    ConcurrentKafkaListenerContainerFactory<Object, Object> parallelKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        var factory = new ConcurrentKafkaListenerContainerFactory<Object, Object>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    /**
+     * Lote do poll numa transação Kafka: eventos de decisão e offsets de entrada comitam juntos ou
+     * nenhum dos dois. O tamanho do grupo é limitado por {@code max-records} ({@code max.poll.records})
+     * e por {@code max-wait} ({@code fetch.max.wait.ms}, com {@code fetch.min.bytes} alto para o broker
+     * segurar o fetch até encher ou o tempo acabar). A entrada é lida em {@code read_committed}.
+     *
+     * <p>Aqui não há error handler: ele repetiria o lote dentro da mesma transação e os envios da
+     * tentativa que falhou comitariam junto. A exceção aborta a transação e o lote volta pelo
+     * after-rollback com o mesmo backoff sem limite do {@link #kafkaErrorHandler} (o padrão desistiria
+     * após 10 tentativas e comitaria os offsets).
+     *
+     * <p>Sem {@code issuer.consumer.mode=transactional} não há transaction manager e a factory não é usada.
+     */
+    @Bean(TRANSACTIONAL_LISTENER_FACTORY)
+    ConcurrentKafkaListenerContainerFactory<Object, Object> transactionalKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ObjectProvider<MeteredKafkaTransactionManager<Object, Object>> transactionManager,
+            @Value("${issuer.consumer.transactional.max-records:500}") int maxRecords,
+            @Value("${issuer.consumer.transactional.max-wait:100ms}") Duration maxWait,
+            @Value("${issuer.consumer.transactional.min-bytes:1MB}") DataSize minBytes,
+            @Value("${issuer.consumer.retry.initial-interval:100ms}") Duration initialInterval,
+            @Value("${issuer.consumer.retry.max-interval:5s}") Duration maxInterval) {
+        var factory = new ConcurrentKafkaListenerContainerFactory<Object, Object>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        var container = factory.getContainerProperties();
+        container.setAckMode(ContainerProperties.AckMode.BATCH);
+        transactionManager.ifAvailable(container::setKafkaAwareTransactionManager);
+        factory.setCommonErrorHandler(null);
+        factory.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(retryBackOff(initialInterval, maxInterval)));
+
+        var overrides = new Properties();
+        overrides.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxRecords));
+        overrides.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, String.valueOf(maxWait.toMillis()));
+        overrides.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(minBytes.toBytes()));
+        container.setKafkaConsumerProperties(overrides);
+        return factory;
+    }
+
+    private static BackOff retryBackOff(Duration initialInterval, Duration maxInterval) {
+        var backOff = new ExponentialBackOff(initialInterval.toMillis(), 2.0);
+        backOff.setMaxInterval(maxInterval.toMillis());
+        return backOff;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "issuer.consumer.mode", havingValue = "transactional")
+    MeteredKafkaTransactionManager<Object, Object> kafkaTransactionManager(
+            ProducerFactory<Object, Object> producerFactory, MeterRegistry registry) {
+        return new MeteredKafkaTransactionManager<>(producerFactory, registry);
+    }
+
+    @Bean(destroyMethod = "close")
+    KeyOrderedDispatcher keyOrderedDispatcher(
+            @Value("${issuer.consumer.parallel.max-in-flight:256}") int maxInFlight,
+            MeterRegistry registry) {
+        var dispatcher = KeyOrderedDispatcher.virtualThreads(maxInFlight);
+        Gauge.builder("issuer.consumer.in_flight", dispatcher, KeyOrderedDispatcher::inFlight)
+                .description("Records dispatched to the parallel pipeline and not yet acknowledged")
+                .register(registry);
+        Gauge.builder("issuer.consumer.pending_keys", dispatcher, KeyOrderedDispatcher::pendingKeys)
+                .description("Ordering keys with work pending in the parallel pipeline")
+                .register(registry);
+        return dispatcher;
+    }
+
+    @Bean
+    DecisionDedup decisionDedup(@Value("${issuer.dedup.enabled:true}") boolean enabled,
+                                @Value("${issuer.dedup.max-entries:200000}") long maxEntries,
+                                MeterRegistry registry) {
+        return enabled ? new DecisionDedup(maxEntries, registry) : DecisionDedup.disabled();
+    }
+
+    /**
+     * Formato do valor por tópico: {@code issuer.publisher.binary-topics} usam o codec binário, o resto JSON.
+     * No modo {@code transactional} o producer também fica transacional; fora de uma transação ele não envia.
+     */
+    @Bean
+    DefaultKafkaProducerFactoryCustomizer decisionEventSerializerCustomizer(
+            @Value("${issuer.publisher.binary-topics:}") List<String> binaryTopics,
+            @Value("${issuer.consumer.mode:record}") String consumerMode,
+            @Value("${issuer.consumer.transactional.id-prefix:issuer-simulator-tx-}") String transactionIdPrefix) {
+        var topics = new HashSet<String>();
+        for (var topic : binaryTopics) if (!topic.isBlank()) topics.add(topic.trim());
+        boolean transactional = "transactional".equals(consumerMode);
+        return factory -> {
+            useDecisionEventSerializer(factory, topics);
+            if (transactional) factory.setTransactionIdPrefix(transactionIdPrefix);
+        };
+    }
 
+    // V é o tipo de valor da factory (Object na do Boot); o serializer é criado já com esse tipo
+    private static <V> void useDecisionEventSerializer(DefaultKafkaProducerFactory<?, V> factory, Set<String> topics) {
+        factory.setValueSerializer(new DecisionEventSerializer<V>(topics));
+    }
+}
@@ -1,22 +1,131 @@
 package br.com.tigelah.issuersimulator.infrastructure.config;
 
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.infrastructure.http.BatchingLedgerGateway;
+import br.com.tigelah.issuersimulator.infrastructure.http.CachingLedgerGateway;
+import br.com.tigelah.issuersimulator.infrastructure.http.CoalescingLedgerGateway;
 import br.com.tigelah.issuersimulator.infrastructure.http.LedgerClient;
+import br.com.tigelah.issuersimulator.infrastructure.http.LedgerHttpTransport;
+import br.com.tigelah.issuersimulator.infrastructure.http.ResilientLedgerGateway;
+import br.com.tigelah.issuersimulator.infrastructure.ledger.InMemoryLedger;
+import br.com.tigelah.issuersimulator.infrastructure.metrics.TimedLedgerGateway;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
 @Configuration
 public class LedgerConfig {
 
+    @Bean(destroyMethod = "close")
+    LedgerHttpTransport ledgerHttpTransport(
+            @Value("${issuer.ledger.http.max-connections:200}") int maxConnections,
+            @Value("${issuer.ledger.http.max-connections-per-route:200}") int maxConnectionsPerRoute,
+            @Value("${issuer.ledger.http.connect-timeout:500ms}") Duration connectTimeout,
+            @Value("${issuer.ledger.http.pool-wait-timeout:200ms}") Duration poolWaitTimeout,
+            @Value("${issuer.ledger.http.connection-ttl:5m}") Duration connectionTtl,
+            @Value("${issuer.ledger.http.idle-eviction:30s}") Duration idleEviction,
+            MeterRegistry registry) {
+        var settings = new LedgerHttpTransport.Settings(
+                maxConnections, maxConnectionsPerRoute, connectTimeout, poolWaitTimeout, connectionTtl, idleEviction);
+        return new LedgerHttpTransport(settings, registry);
+    }
+
+    // RestTemplateBuilder traz a instrumentação http.client.requests (latência por endpoint)
+    @Bean
+    RestTemplate ledgerCreditRestTemplate(RestTemplateBuilder builder, LedgerHttpTransport transport,
+                                          @Value("${issuer.ledger.http.available-credit-timeout:800ms}") Duration readTimeout) {
+        return builder.requestFactory(() -> transport.requestFactory(readTimeout)).build();
+    }
+
+    @Bean
+    RestTemplate ledgerLimitsRestTemplate(RestTemplateBuilder builder, LedgerHttpTransport transport,
+                                          @Value("${issuer.ledger.http.limits-timeout:500ms}") Duration readTimeout) {
+        return builder.requestFactory(() -> transport.requestFactory(readTimeout)).build();
+    }
+
+    /** {@code issuer.ledger.mode=embedded}: ledger em processo, carregado do snapshot quando configurado. */
     @Bean
-    RestTemplate restTemplate() { return new RestTemplate(); }
+    @ConditionalOnProperty(name = "issuer.ledger.mode", havingValue = "embedded")
+    InMemoryLedger inMemoryLedger(@Value("${issuer.ledger.embedded.snapshot:}") String snapshot, MeterRegistry registry) {
+        var ledger = snapshot.isBlank() ? new InMemoryLedger() : InMemoryLedger.fromSnapshot(Path.of(snapshot));
+        Gauge.builder("ledger.embedded.accounts", ledger, InMemoryLedger::accountCount).register(registry);
+        Gauge.builder("ledger.embedded.limits", ledger, InMemoryLedger::limitCount).register(registry);
+        return ledger;
+    }
+
+    // primário: no modo embedded o InMemoryLedger também é um LedgerGateway, mas sem as métricas
+    @Bean
+    @Primary
+    LedgerGateway ledgerGateway(ObjectProvider<InMemoryLedger> embeddedLedger,
+                                RestTemplate ledgerCreditRestTemplate,
+                                RestTemplate ledgerLimitsRestTemplate,
+                                @Value("${issuer.ledger.base-url}") String baseUrl,
+                                ObjectMapper mapper,
+                                @Value("${issuer.ledger.limits-cache.enabled:true}") boolean cacheEnabled,
+                                @Value("${issuer.ledger.limits-cache.ttl:5m}") Duration ttl,
+                                @Value("${issuer.ledger.limits-cache.negative-ttl:1m}") Duration negativeTtl,
+                                @Value("${issuer.ledger.limits-cache.refresh-after:4m}") Duration refreshAfter,
+                                @Value("${issuer.ledger.limits-cache.max-size:100000}") long maxSize,
+                                @Value("${issuer.ledger.resilience.enabled:true}") boolean resilienceEnabled,
+                                ResilientLedgerGateway.Settings ledgerResilienceSettings,
+                                @Value("${issuer.ledger.batching.enabled:false}") boolean batchingEnabled,
+                                @Value("${issuer.ledger.batching.window:2ms}") Duration batchWindow,
+                                @Value("${issuer.ledger.batching.max-size:100}") int batchMaxSize,
+                                @Value("${issuer.ledger.coalescing.enabled:true}") boolean coalescingEnabled,
+                                ExecutorService ledgerLookupExecutor,
+                                MeterRegistry registry) {
+        var embedded = embeddedLedger.getIfAvailable();
+        // em processo não há round-trip a economizar: sem cache de limites
+        if (embedded != null) return new TimedLedgerGateway(embedded, registry);
+
+        // Timed por dentro: cada tentativa (inclusive hedge) vira uma amostra de issuer.ledger.call
+        LedgerGateway client = new TimedLedgerGateway(
+                new LedgerClient(ledgerCreditRestTemplate, ledgerLimitsRestTemplate, baseUrl, mapper), registry);
+        if (resilienceEnabled) {
+            client = new ResilientLedgerGateway(client, ledgerResilienceSettings, ledgerLookupExecutor, registry);
+        }
+        // lote acima da resiliência: hedge e breaker valem para a consulta em lote inteira
+        if (batchingEnabled) {
+            client = new BatchingLedgerGateway(client, new BatchingLedgerGateway.Settings(batchWindow, batchMaxSize), registry);
+        }
+        // por fora do hedge: uma requisição coalescida ganha no máximo um hedge
+        if (coalescingEnabled) client = new CoalescingLedgerGateway(client, registry);
+        if (!cacheEnabled) return client;
+        var settings = new CachingLedgerGateway.Settings(ttl, negativeTtl, refreshAfter, maxSize);
+        return new CachingLedgerGateway(client, settings, ledgerLookupExecutor, registry);
+    }
 
     @Bean
-    LedgerClient ledgerClient(RestTemplate restTemplate,
-                              @Value("${issuer.ledger.base-url}") String baseUrl,
-                              ObjectMapper mapper) {
-        return new LedgerClient(restTemplate, baseUrl, mapper);
+    ResilientLedgerGateway.Settings ledgerResilienceSettings(
+            @Value("${issuer.ledger.resilience.bulkhead.available-credit:100}") int creditConcurrency,
+            @Value("${issuer.ledger.resilience.bulkhead.limits:100}") int limitsConcurrency,
+            @Value("${issuer.ledger.resilience.bulkhead.max-wait:10ms}") Duration bulkheadWait,
+            @Value("${issuer.ledger.resilience.hedge.enabled:true}") boolean hedgeEnabled,
+            @Value("${issuer.ledger.resilience.hedge.percentile:95}") double hedgePercentile,
+            @Value("${issuer.ledger.resilience.hedge.min-delay:5ms}") Duration hedgeMinDelay,
+            @Value("${issuer.ledger.resilience.hedge.max-delay:200ms}") Duration hedgeMaxDelay,
+            @Value("${issuer.ledger.resilience.hedge.max-ratio:0.1}") double hedgeMaxRatio,
+            @Value("${issuer.ledger.resilience.breaker.window:100}") int breakerWindow,
+            @Value("${issuer.ledger.resilience.breaker.min-calls:20}") int breakerMinCalls,
+            @Value("${issuer.ledger.resilience.breaker.failure-rate:0.5}") double breakerFailureRate,
+            @Value("${issuer.ledger.resilience.breaker.open-duration:5s}") Duration breakerOpenDuration,
+            @Value("${issuer.ledger.resilience.breaker.half-open-calls:5}") int breakerHalfOpenCalls) {
+        return new ResilientLedgerGateway.Settings(
+                new ResilientLedgerGateway.Settings.Bulkhead(creditConcurrency, limitsConcurrency, bulkheadWait),
+                new ResilientLedgerGateway.Settings.Hedge(hedgeEnabled, hedgePercentile, hedgeMinDelay, hedgeMaxDelay, hedgeMaxRatio),
+                new ResilientLedgerGateway.Settings.Breaker(breakerWindow, breakerMinCalls, breakerFailureRate,
+                        breakerOpenDuration, breakerHalfOpenCalls));
     }
 }
@@ -0,0 +1,19 @@
+package br.com.tigelah.issuersimulator.infrastructure.config;
+
+import br.com.tigelah.issuersimulator.infrastructure.logging.LoggingMetrics;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoggingConfig {
+
+    /** Descartes do appender assíncrono e da amostragem ({@code logback-spring.xml}). */
+    @Bean
+    MeterBinder loggingMetrics() {
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext context) return new LoggingMetrics(context);
+        return registry -> { };
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.tigelah.issuersimulator.infrastructure.config;
+
+import br.com.tigelah.issuersimulator.application.security.PanHasher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Base64;
+
+@Configuration
+public class SecurityConfig {
+
+    // sem chave: SHA-256 puro (o mesmo esquema usado pelo ledger em /limits/pan/{panHash})
+    @Bean
+    public PanHasher panHasher(@Value("${issuer.pan-hash.hmac-key:}") String base64Key) {
+        if (base64Key == null || base64Key.isBlank()) return PanHasher.plain();
+        return PanHasher.hmac(Base64.getDecoder().decode(base64Key));
+    }
+}
@@ -1,26 +1,110 @@
 package br.com.tigelah.issuersimulator.infrastructure.config;
 
+import br.com.tigelah.issuersimulator.application.ids.IdGenerator;
 import br.com.tigelah.issuersimulator.application.usecase.AuthorizeByIssuerUseCase;
 import br.com.tigelah.issuersimulator.application.usecase.AuthorizeWithLimitsUseCase;
-import br.com.tigelah.issuersimulator.domain.services.SimpleIssuerRules;
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule;
+import br.com.tigelah.issuersimulator.domain.services.CompiledIssuerRules;
+import br.com.tigelah.issuersimulator.domain.services.SpendWindows;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class UseCaseConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(UseCaseConfig.class);
+
     @Bean
-    public SimpleIssuerRules simpleIssuerRules(@Value("${issuer.max-amount-cents:1000000}") long maxAmountCents) {
-        return new SimpleIssuerRules(maxAmountCents);
+    public CompiledIssuerRules issuerRules(@Value("${issuer.max-amount-cents:1000000}") long maxAmountCents,
+                                           @Value("${issuer.rules:}") String rules,
+                                           MeterRegistry registry) {
+        var compiled = CompiledIssuerRules.compile(maxAmountCents, IssuerRule.parseList(rules));
+        var ids = compiled.ruleIds();
+        for (int i = 0; i < ids.size(); i++) {
+            int index = i;
+            FunctionCounter.builder("issuer.rules.hits", compiled, c -> c.hits(index))
+                    .description("Payments declined by each issuer rule")
+                    .tag("rule", ids.get(i))
+                    .register(registry);
+        }
+        return compiled;
     }
 
     @Bean
-    public AuthorizeByIssuerUseCase authorizeByIssuerUseCase(SimpleIssuerRules rules) {
+    public AuthorizeByIssuerUseCase authorizeByIssuerUseCase(CompiledIssuerRules rules) {
         return new AuthorizeByIssuerUseCase(rules);
     }
 
+    @Bean(destroyMethod = "close")
+    ExecutorService ledgerLookupExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "issuer.limits.windows.enabled", havingValue = "true", matchIfMissing = true)
+    SpendWindows spendWindows(Clock clock,
+                              @Value("${issuer.limits.windows.zone:America/Sao_Paulo}") ZoneId zone,
+                              @Value("${issuer.limits.windows.idle-ttl:35d}") Duration idleTtl,
+                              MeterRegistry registry) {
+        var windows = new SpendWindows(clock, zone, idleTtl);
+        Gauge.builder("issuer.limits.windows.keys", windows, SpendWindows::size)
+                .description("User and PAN keys with tracked spend windows")
+                .register(registry);
+        return windows;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    @ConditionalOnProperty(name = "issuer.limits.windows.enabled", havingValue = "true", matchIfMissing = true)
+    ScheduledExecutorService spendWindowsEvictor(SpendWindows windows,
+                                                 @Value("${issuer.limits.windows.sweep-interval:1m}") Duration interval,
+                                                 MeterRegistry registry) {
+        var evicted = Counter.builder("issuer.limits.windows.evicted")
+                .description("Idle spend window keys removed")
+                .register(registry);
+        var scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("spend-windows-evictor").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> evicted.increment(windows.evictIdle()),
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+
+    /**
+     * {@code issuer.ids.node-id} entra no authCode: precisa ser diferente em cada instância, senão réplicas
+     * geram os mesmos códigos. Sem valor usa o nó 0 e, fora do {@code issuer.ledger.mode=embedded} (ledger em
+     * processo, sempre instância única), avisa no log.
+     */
+    @Bean
+    IdGenerator idGenerator(@Value("${issuer.ids.node-id:}") String nodeId,
+                            @Value("${issuer.ledger.mode:http}") String ledgerMode) {
+        if (!nodeId.isBlank()) return new IdGenerator(Integer.parseInt(nodeId.trim()));
+        if (!"embedded".equals(ledgerMode)) {
+            // réplicas sem ISSUER_NODE_ID próprio geram authCodes iguais
+            log.warn("issuer_node_id_missing node_id=0 ledger_mode={}", ledgerMode);
+        }
+        return new IdGenerator(0);
+    }
+
     @Bean
-    AuthorizeWithLimitsUseCase authorizeWithLimitsUseCase() {
-        return new AuthorizeWithLimitsUseCase();
+    AuthorizeWithLimitsUseCase authorizeWithLimitsUseCase(ExecutorService ledgerLookupExecutor,
+                                                          ObjectProvider<SpendWindows> spendWindows,
+                                                          IdGenerator idGenerator) {
+        return new AuthorizeWithLimitsUseCase(ledgerLookupExecutor, spendWindows.getIfAvailable(), idGenerator);
     }
 }
\ No newline at end of file
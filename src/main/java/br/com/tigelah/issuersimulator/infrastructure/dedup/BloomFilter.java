@@ -0,0 +1,59 @@
+package br.com.tigelah.issuersimulator.infrastructure.dedup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.UUID;
+
+/**
+ * Bloom filter de UUIDs, thread-safe e sem lock (OR atômico por palavra de 64 bits).
+ *
+ * <p>Os dois índices base vêm das metades do UUID já embaralhadas; os {@code k} bits seguem por
+ * double hashing ({@code h1 + i*h2}).
+ */
+final class BloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] words;
+    private final long bitMask;
+    private final int hashes;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        long size = Long.highestOneBit(Math.max(64, bits - 1)) << 1;
+        if (size / 64 > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("bloom_filter_too_large");
+        this.words = new long[(int) (size / 64)];
+        this.bitMask = size - 1;
+        this.hashes = Math.max(1, (int) Math.round((double) size / expectedInsertions * ln2));
+    }
+
+    void put(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            WORDS.getAndBitwiseOr(words, (int) (bit >>> 6), 1L << bit);
+        }
+    }
+
+    boolean mightContain(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if (((long) WORDS.getAcquire(words, (int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.tigelah.issuersimulator.infrastructure.dedup;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentDecisionEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice de decisões já emitidas, por {@code paymentId}, para tornar a reentrega idempotente.
+ *
+ * <ul>
+ *   <li>pré-filtro: dois {@link BloomFilter} em gerações ({@code current}/{@code previous}); quando
+ *   a geração atual recebe {@code maxEntries} inserções ela vira a anterior e a mais velha é
+ *   descartada. Negativo no filtro = pagamento novo, sem tocar no mapa;</li>
+ *   <li>mapa exato: cache Caffeine limitado a {@code maxEntries} guardando o evento emitido, que é
+ *   republicado como está (mesmo eventId e authCode).</li>
+ * </ul>
+ *
+ * <p>Pagamento que saiu do mapa é tratado como novo: o índice é um atalho, não a fonte de verdade.
+ *
+ * <p>O índice vive só na memória desta instância. Cobre a reentrega dentro do mesmo processo (retry do
+ * container, lote abortado); não cobre restart nem rebalance: a partição que chega de outra instância,
+ * ou depois de um restart, começa sem histórico, e um pagamento já decidido lá é decidido de novo (novo
+ * eventId e authCode). Para esses casos a garantia vem do modo {@code transactional}, em que decisão e
+ * offset comitam juntos e nada é reprocessado depois do commit.
+ */
+public class DecisionDedup {
+
+    /** Estimativa de bytes por entrada do mapa (nó do Caffeine + UUID + evento com strings). */
+    static final long BYTES_PER_ENTRY = 320;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final boolean enabled;
+    private final long maxEntries;
+    private final Cache<UUID, PaymentDecisionEvent> decisions;
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter falsePositives;
+
+    public DecisionDedup(long maxEntries, MeterRegistry registry) {
+        this(true, maxEntries, registry);
+    }
+
+    private DecisionDedup(boolean enabled, long maxEntries, MeterRegistry registry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.decisions = Caffeine.newBuilder().maximumSize(maxEntries).recordStats().build();
+        this.current = enabled ? new BloomFilter(maxEntries, FALSE_POSITIVE_RATE) : null;
+        this.previous = current;
+
+        this.hits = lookups(registry, "duplicate");
+        this.misses = lookups(registry, "new");
+        this.falsePositives = lookups(registry, "filter_false_positive");
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(registry, decisions, "issuer.dedup");
+            Gauge.builder("issuer.dedup.memory", this, DecisionDedup::estimatedBytes)
+                    .description("Estimated heap used by the dedup filter and decision map")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+    }
+
+    /** Índice que nunca encontra nada, para quando a deduplicação está desligada. */
+    public static DecisionDedup disabled() {
+        return new DecisionDedup(false, 1, new CompositeMeterRegistry());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Decisão já emitida para o pagamento, ou {@code null}. */
+    public PaymentDecisionEvent find(UUID paymentId) {
+        if (!enabled) return null;
+        var cur = current;
+        var prev = previous;
+        if (!cur.mightContain(paymentId) && (prev == cur || !prev.mightContain(paymentId))) {
+            misses.increment();
+            return null;
+        }
+        var decision = decisions.getIfPresent(paymentId);
+        if (decision != null) {
+            hits.increment();
+        } else {
+            falsePositives.increment();
+            misses.increment();
+        }
+        return decision;
+    }
+
+    public void remember(PaymentDecisionEvent decision) {
+        if (!enabled) return;
+        decisions.put(decision.paymentId(), decision);
+        current.put(decision.paymentId());
+        if (insertions.incrementAndGet() >= maxEntries) rotate();
+    }
+
+    public long estimatedBytes() {
+        if (!enabled) return 0;
+        long filters = current.sizeInBytes() + (previous == current ? 0 : previous.sizeInBytes());
+        return filters + decisions.estimatedSize() * BYTES_PER_ENTRY;
+    }
+
+    private synchronized void rotate() {
+        if (insertions.get() < maxEntries) return;
+        previous = current;
+        current = new BloomFilter(maxEntries, FALSE_POSITIVE_RATE);
+        insertions.set(0);
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("issuer.dedup.lookups")
+                .description("Dedup index lookups by result")
+                .tag("result", result)
+                .register(registry);
+    }
+}
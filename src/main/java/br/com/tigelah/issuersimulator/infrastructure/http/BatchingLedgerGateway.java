@@ -0,0 +1,75 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Transforma consultas unitárias de pagamentos processados ao mesmo tempo em consultas em lote
+ * ({@link LedgerGateway#getAvailableCredits}, {@link LedgerGateway#getUserLimits},
+ * {@link LedgerGateway#getPanLimits}): uma chamada por janela de {@code window} ou a cada {@code maxSize}
+ * chaves, em vez de uma por pagamento. Ver {@link MicroBatcher}.
+ *
+ * <p>Conta ausente da resposta falha com {@code account_not_found}, como no ledger embarcado; usuário ou
+ * PAN ausente é "sem regra". O lote leva um {@code correlationId} próprio, já que mistura pagamentos.
+ */
+public class BatchingLedgerGateway implements LedgerGateway {
+
+    static final String BATCH_CORRELATION_ID = "micro_batch";
+
+    private final LedgerGateway delegate;
+    private final MicroBatcher<UUID, AvailableCredit> credit;
+    private final MicroBatcher<String, LimitRule> user;
+    private final MicroBatcher<String, LimitRule> pan;
+
+    public BatchingLedgerGateway(LedgerGateway delegate, Settings settings, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.credit = new MicroBatcher<>("available_credit", settings.window(), settings.maxSize(),
+                ids -> delegate.getAvailableCredits(ids, BATCH_CORRELATION_ID),
+                id -> { throw new IllegalStateException("account_not_found"); }, registry);
+        this.user = new MicroBatcher<>("user_limit", settings.window(), settings.maxSize(),
+                delegate::getUserLimits, id -> null, registry);
+        this.pan = new MicroBatcher<>("pan_limit", settings.window(), settings.maxSize(),
+                delegate::getPanLimits, hash -> null, registry);
+    }
+
+    @Override
+    public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
+        return credit.get(accountId);
+    }
+
+    @Override
+    public Optional<LimitRule> getUserLimit(String userId) {
+        return Optional.ofNullable(user.get(userId));
+    }
+
+    @Override
+    public Optional<LimitRule> getPanLimit(String panHash) {
+        return Optional.ofNullable(pan.get(panHash));
+    }
+
+    @Override
+    public Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        return delegate.getAvailableCredits(accountIds, correlationId);
+    }
+
+    @Override
+    public Map<String, LimitRule> getUserLimits(Collection<String> userIds) { return delegate.getUserLimits(userIds); }
+
+    @Override
+    public Map<String, LimitRule> getPanLimits(Collection<String> panHashes) { return delegate.getPanLimits(panHashes); }
+
+    public record Settings(Duration window, int maxSize) {
+        public Settings {
+            if (window.isNegative()) throw new IllegalArgumentException("batch_window_must_not_be_negative");
+            if (maxSize <= 0) throw new IllegalArgumentException("batch_max_size_must_be_positive");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Cache em processo para as regras de limite do ledger.
+ *
+ * <ul>
+ *   <li>TTL por entrada: regras encontradas vivem {@code ttl}; ausência de regra (404) vive
+ *   {@code negativeTtl} — é a resposta mais comum, então também é cacheada;</li>
+ *   <li>tamanho máximo com eviction (W-TinyLFU do Caffeine);</li>
+ *   <li>refresh-ahead: depois de {@code refreshAfter} a próxima leitura devolve o valor atual e
+ *   recarrega em background, então chaves quentes não travam na expiração.</li>
+ * </ul>
+ *
+ * <p>{@link #getAvailableCredit} não é cacheado: saldo muda a cada hold/capture.
+ */
+public class CachingLedgerGateway implements LedgerGateway {
+
+    private final LedgerGateway delegate;
+    private final LoadingCache<String, Optional<LimitRule>> userLimits;
+    private final LoadingCache<String, Optional<LimitRule>> panLimits;
+
+    public CachingLedgerGateway(LedgerGateway delegate, Settings settings, Executor refreshExecutor, MeterRegistry registry) {
+        this(delegate, settings, refreshExecutor, registry, Ticker.systemTicker());
+    }
+
+    CachingLedgerGateway(LedgerGateway delegate, Settings settings, Executor refreshExecutor,
+                         MeterRegistry registry, Ticker ticker) {
+        this.delegate = delegate;
+        this.userLimits = build(settings, refreshExecutor, ticker, delegate::getUserLimit);
+        this.panLimits = build(settings, refreshExecutor, ticker, delegate::getPanLimit);
+        CaffeineCacheMetrics.monitor(registry, userLimits, "ledger.limits.users");
+        CaffeineCacheMetrics.monitor(registry, panLimits, "ledger.limits.pan");
+    }
+
+    @Override
+    public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
+        return delegate.getAvailableCredit(accountId, correlationId);
+    }
+
+    @Override
+    public Optional<LimitRule> getUserLimit(String userId) { return userLimits.get(userId); }
+
+    @Override
+    public Optional<LimitRule> getPanLimit(String panHash) { return panLimits.get(panHash); }
+
+    @Override
+    public Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        return delegate.getAvailableCredits(accountIds, correlationId);
+    }
+
+    @Override
+    public Map<String, LimitRule> getUserLimits(Collection<String> userIds) { return delegate.getUserLimits(userIds); }
+
+    @Override
+    public Map<String, LimitRule> getPanLimits(Collection<String> panHashes) { return delegate.getPanLimits(panHashes); }
+
+    private static LoadingCache<String, Optional<LimitRule>> build(Settings settings, Executor executor, Ticker ticker,
+                                                                   Function<String, Optional<LimitRule>> loader) {
+        return Caffeine.newBuilder()
+                .maximumSize(settings.maxSize())
+                .expireAfter(new RuleExpiry(settings.ttl(), settings.negativeTtl()))
+                .refreshAfterWrite(settings.refreshAfter())
+                .executor(executor)
+                .ticker(ticker)
+                .recordStats()
+                .build(loader::apply);
+    }
+
+    public record Settings(Duration ttl, Duration negativeTtl, Duration refreshAfter, long maxSize) {
+        public Settings {
+            if (refreshAfter.compareTo(ttl) >= 0) throw new IllegalArgumentException("refresh_after_must_be_lower_than_ttl");
+        }
+    }
+
+    private record RuleExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<LimitRule>> {
+        @Override
+        public long expireAfterCreate(String key, Optional<LimitRule> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<LimitRule> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<LimitRule> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
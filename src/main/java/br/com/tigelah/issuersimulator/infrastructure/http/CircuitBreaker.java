@@ -0,0 +1,162 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker por contagem: olha os últimos {@code windowSize} resultados e abre quando a taxa de
+ * falha passa de {@code failureRate} (com pelo menos {@code minCalls} na janela). Aberto, recusa tudo
+ * por {@code openDuration}; depois deixa passar {@code halfOpenCalls} chamadas de teste. Todas com
+ * sucesso fecham o circuito, qualquer falha reabre.
+ *
+ * <p>Cada permissão de {@link #tryAcquire()} carrega a fase em que foi dada (geração + estado); o
+ * resultado só conta se a fase ainda é a mesma. Assim um sucesso atrasado de antes da abertura não
+ * fecha o circuito meio-aberto, nem uma falha antiga entra na janela de um circuito já refechado.
+ *
+ * <p>O caminho comum (fechado) não trava: {@link #tryAcquire()} lê um campo volátil e o resultado entra
+ * na janela circular com operações atômicas. Transições e as chamadas de teste do meio-aberto são raras
+ * e ficam sob {@code synchronized}.
+ */
+public final class CircuitBreaker {
+
+    /** Devolvido por {@link #tryAcquire()} quando a chamada não pode seguir. */
+    public static final long REJECTED = -1;
+
+    public enum State {
+        CLOSED(0), OPEN(1), HALF_OPEN(2);
+
+        private static final State[] BY_CODE = values();
+
+        private final int code;
+
+        State(int code) { this.code = code; }
+
+        /** Valor do gauge: 0 fechado, 1 aberto, 2 meio-aberto. */
+        public int code() { return code; }
+    }
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // janela do estado fechado: 1 = falha
+    private final AtomicIntegerArray failures;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    // geração << 2 | código do estado; muda a cada transição
+    private volatile long phase = State.CLOSED.code;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(int windowSize, int minCalls, double failureRate, Duration openDuration, int halfOpenCalls) {
+        this(windowSize, minCalls, failureRate, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minCalls, double failureRate, Duration openDuration, int halfOpenCalls,
+                   LongSupplier nanoClock) {
+        if (windowSize <= 0 || minCalls <= 0 || halfOpenCalls <= 0 || failureRate <= 0 || failureRate > 1) {
+            throw new IllegalArgumentException("circuit_breaker_settings_invalid");
+        }
+        this.windowSize = windowSize;
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRate = failureRate;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.failures = new AtomicIntegerArray(windowSize);
+    }
+
+    /**
+     * Permissão para a chamada, ou {@link #REJECTED}. Quem recebe uma permissão deve passá-la a
+     * {@link #onSuccess(long)}, {@link #onFailure(long)} ou {@link #release(long)}.
+     */
+    public long tryAcquire() {
+        long current = phase;
+        if (stateOf(current) == State.CLOSED) return current;
+        synchronized (this) {
+            current = phase;
+            if (stateOf(current) == State.CLOSED) return current;
+            if (stateOf(current) == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) return REJECTED;
+                current = transition(State.HALF_OPEN);
+                trialsStarted = 0;
+                trialsSucceeded = 0;
+            }
+            if (trialsStarted >= halfOpenCalls) return REJECTED;
+            trialsStarted++;
+            return current;
+        }
+    }
+
+    public void onSuccess(long permit) {
+        record(permit, false);
+    }
+
+    public void onFailure(long permit) {
+        record(permit, true);
+    }
+
+    /** Permissão de {@link #tryAcquire()} que não chegou a virar chamada (ex.: bulkhead cheio). */
+    public synchronized void release(long permit) {
+        if (permit == phase && stateOf(permit) == State.HALF_OPEN && trialsStarted > 0) trialsStarted--;
+    }
+
+    public State state() {
+        return stateOf(phase);
+    }
+
+    private void record(long permit, boolean failure) {
+        if (permit != phase) return; // resposta de uma fase anterior
+        if (stateOf(permit) == State.HALF_OPEN) {
+            recordTrial(permit, failure);
+            return;
+        }
+        long call = calls.getAndIncrement();
+        int outcome = failure ? 1 : 0;
+        int previous = failures.getAndSet((int) (call % windowSize), outcome);
+        int failedNow = failed.addAndGet(outcome - previous);
+        long recorded = Math.min(call + 1, windowSize);
+        if (recorded >= minCalls && failedNow >= failureRate * recorded) trip(permit);
+    }
+
+    private synchronized void recordTrial(long permit, boolean failure) {
+        if (permit != phase) return;
+        if (failure) open();
+        else if (++trialsSucceeded >= halfOpenCalls) close();
+    }
+
+    private synchronized void trip(long permit) {
+        if (permit == phase) open();
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        transition(State.OPEN);
+    }
+
+    // só sai do meio-aberto: ninguém grava na janela enquanto ela é zerada
+    private void close() {
+        for (int i = 0; i < windowSize; i++) failures.set(i, 0);
+        failed.set(0);
+        calls.set(0);
+        transition(State.CLOSED);
+    }
+
+    private long transition(State next) {
+        long updated = ((phase >>> 2) + 1) << 2 | next.code;
+        phase = updated;
+        return updated;
+    }
+
+    private static State stateOf(long phase) {
+        return State.BY_CODE[(int) (phase & 3)];
+    }
+}
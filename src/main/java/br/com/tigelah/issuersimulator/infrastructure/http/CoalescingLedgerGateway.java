@@ -0,0 +1,113 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight: chamadas simultâneas para a mesma chave compartilham uma única requisição ao ledger.
+ * A primeira thread (líder) faz a chamada na própria thread; as que chegam enquanto ela está em voo
+ * esperam o mesmo {@link CompletableFuture} — resultado ou exceção. Terminada a chamada a chave sai do
+ * mapa, então nada é reaproveitado depois (isso é papel do {@link CachingLedgerGateway}).
+ *
+ * <p>A espera é um {@code CompletableFuture.get()}, que estaciona threads virtuais sem prender a
+ * carrier; funciona igual para threads do listener e do {@code ledgerLookupExecutor}.
+ *
+ * <p>No saldo a chave é só a conta: quem pega carona recebe a resposta pedida com o
+ * {@code correlationId} do líder. Chamadas economizadas: {@code issuer.ledger.coalesced{operation}}.
+ */
+public class CoalescingLedgerGateway implements LedgerGateway {
+
+    private final LedgerGateway delegate;
+    private final Flights<UUID, AvailableCredit> credit;
+    private final Flights<String, Optional<LimitRule>> user;
+    private final Flights<String, Optional<LimitRule>> pan;
+
+    public CoalescingLedgerGateway(LedgerGateway delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.credit = new Flights<>(registry, "available_credit");
+        this.user = new Flights<>(registry, "user_limit");
+        this.pan = new Flights<>(registry, "pan_limit");
+    }
+
+    @Override
+    public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
+        return credit.call(accountId, () -> delegate.getAvailableCredit(accountId, correlationId));
+    }
+
+    @Override
+    public Optional<LimitRule> getUserLimit(String userId) {
+        return user.call(userId, () -> delegate.getUserLimit(userId));
+    }
+
+    @Override
+    public Optional<LimitRule> getPanLimit(String panHash) {
+        return pan.call(panHash, () -> delegate.getPanLimit(panHash));
+    }
+
+    @Override
+    public Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        return delegate.getAvailableCredits(accountIds, correlationId);
+    }
+
+    @Override
+    public Map<String, LimitRule> getUserLimits(Collection<String> userIds) { return delegate.getUserLimits(userIds); }
+
+    @Override
+    public Map<String, LimitRule> getPanLimits(Collection<String> panHashes) { return delegate.getPanLimits(panHashes); }
+
+    private static final class Flights<K, V> {
+        private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+        private final Counter saved;
+
+        Flights(MeterRegistry registry, String operation) {
+            this.saved = Counter.builder("issuer.ledger.coalesced")
+                    .description("Ledger calls saved by joining an identical in-flight request")
+                    .tag("operation", operation)
+                    .register(registry);
+        }
+
+        V call(K key, Supplier<V> loader) {
+            var mine = new CompletableFuture<V>();
+            var leader = inFlight.putIfAbsent(key, mine);
+            if (leader != null) {
+                saved.increment();
+                return await(leader);
+            }
+            try {
+                V value = loader.get();
+                inFlight.remove(key, mine);
+                mine.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                inFlight.remove(key, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        private static <V> V await(CompletableFuture<V> flight) {
+            try {
+                return flight.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+                if (e.getCause() instanceof Error error) throw error;
+                throw new IllegalStateException("failed_to_call_ledger", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("ledger_call_interrupted", e);
+            }
+        }
+    }
+}
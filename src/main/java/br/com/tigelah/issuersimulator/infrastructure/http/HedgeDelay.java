@@ -0,0 +1,69 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Atraso do hedge: o percentil {@code percentile} das latências recentes, limitado a
+ * [{@code min}, {@code max}]. Amostras entram num {@link Recorder} (sem lock); a cada {@code refresh} a
+ * primeira thread que passar recalcula, desde que haja {@code minSamples} acumuladas — com pouco
+ * tráfego a janela só cresce até ter amostras suficientes. Até a primeira janela completa vale {@code max}.
+ */
+final class HedgeDelay {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final double percentile;
+    private final long minNanos;
+    private final long maxNanos;
+    private final long refreshNanos;
+    private final long minSamples;
+
+    private final Recorder recorder = new Recorder(1_000, HIGHEST_TRACKABLE_NANOS, 2);
+    private final Histogram window = new Histogram(1_000, HIGHEST_TRACKABLE_NANOS, 2);
+    private final AtomicLong nextRefresh;
+    private Histogram interval;
+    private volatile long delayNanos;
+
+    HedgeDelay(double percentile, Duration min, Duration max, Duration refresh, long minSamples, long nowNanos) {
+        if (percentile <= 0 || percentile >= 100 || min.compareTo(max) > 0) {
+            throw new IllegalArgumentException("hedge_delay_settings_invalid");
+        }
+        this.percentile = percentile;
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        this.refreshNanos = refresh.toNanos();
+        this.minSamples = minSamples;
+        this.nextRefresh = new AtomicLong(nowNanos + refreshNanos);
+        this.delayNanos = maxNanos;
+    }
+
+    void record(long latencyNanos) {
+        recorder.recordValue(Math.min(Math.max(latencyNanos, 1_000), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    long delayNanos(long nowNanos) {
+        long due = nextRefresh.get();
+        if (nowNanos - due >= 0 && nextRefresh.compareAndSet(due, nowNanos + refreshNanos)) refresh();
+        return delayNanos;
+    }
+
+    /** Atraso atual, sem disparar recálculo. */
+    long currentNanos() {
+        return delayNanos;
+    }
+
+    // só a thread que ganhou o CAS chega aqui; synchronized cobre um refresh lento sobreposto ao próximo
+    private synchronized void refresh() {
+        interval = recorder.getIntervalHistogram(interval);
+        window.add(interval);
+        if (window.getTotalCount() < minSamples) return;
+        long value = window.getValueAtPercentile(percentile);
+        delayNanos = Math.min(Math.max(value, minNanos), maxNanos);
+        window.reset();
+    }
+}
@@ -1,47 +1,91 @@
 package br.com.tigelah.issuersimulator.infrastructure.http;
 
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
-public class LedgerClient {
+public class LedgerClient implements LedgerGateway {
 
-    private final RestTemplate http;
+    private final RestTemplate creditHttp;
+    private final RestTemplate limitsHttp;
     private final String baseUrl;
     private final ObjectMapper mapper;
 
     public LedgerClient(RestTemplate http, String baseUrl, ObjectMapper mapper) {
-        this.http = http;
+        this(http, http, baseUrl, mapper);
+    }
+
+    /** Um template por grupo de endpoints, para que cada um tenha seu próprio timeout. */
+    public LedgerClient(RestTemplate creditHttp, RestTemplate limitsHttp, String baseUrl, ObjectMapper mapper) {
+        this.creditHttp = creditHttp;
+        this.limitsHttp = limitsHttp;
         this.baseUrl = baseUrl;
         this.mapper = mapper;
     }
 
+    // URIs como template: a métrica http.client.requests fica com tag uri de baixa cardinalidade
+    @Override
     public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
-        var url = baseUrl + "/accounts/" + accountId + "/available-credit";
-        var res = http.getForEntity(url, String.class);
+        var res = creditHttp.getForEntity(baseUrl + "/accounts/{accountId}/available-credit", String.class, accountId);
         return parseAvailable(res);
     }
 
-    public Optional<LimitRule> getUserLimit(String userId) { return getLimit("/limits/users/" + userId); }
-    public Optional<LimitRule> getPanLimit(String panHash) { return getLimit("/limits/pan/" + panHash); }
+    @Override
+    public Optional<LimitRule> getUserLimit(String userId) { return getLimit("/limits/users/{userId}", userId); }
+
+    @Override
+    public Optional<LimitRule> getPanLimit(String panHash) { return getLimit("/limits/pan/{panHash}", panHash); }
+
+    /**
+     * {@code POST /accounts/available-credit/bulk} com {@code {"accountIds":[...]}}; a resposta
+     * {@code {"accounts":[...]}} traz só as contas conhecidas.
+     */
+    @Override
+    public Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        var body = jsonBody(Map.of("accountIds", accountIds));
+        ResponseEntity<String> res;
+        try {
+            res = creditHttp.postForEntity(baseUrl + "/accounts/available-credit/bulk", body, String.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("failed_to_call_ledger", e);
+        }
+        try {
+            var credits = new HashMap<UUID, AvailableCredit>(accountIds.size() * 2);
+            for (var node : mapper.readTree(res.getBody()).path("accounts")) {
+                var credit = parseAvailable(node);
+                credits.put(credit.accountId(), credit);
+            }
+            return credits;
+        } catch (Exception e) {
+            throw new IllegalStateException("failed_to_parse_available_credit", e);
+        }
+    }
+
+    /** {@code POST /limits/users/bulk} com {@code {"keys":[...]}}; a resposta {@code {"rules":[...]}} omite quem não tem regra. */
+    @Override
+    public Map<String, LimitRule> getUserLimits(Collection<String> userIds) { return getLimits("/limits/users/bulk", userIds); }
+
+    /** {@code POST /limits/pan/bulk}, no mesmo formato de {@link #getUserLimits}. */
+    @Override
+    public Map<String, LimitRule> getPanLimits(Collection<String> panHashes) { return getLimits("/limits/pan/bulk", panHashes); }
 
-    private Optional<LimitRule> getLimit(String path) {
+    private Optional<LimitRule> getLimit(String pathTemplate, String key) {
         try {
-            var res = http.getForEntity(baseUrl + path, String.class);
+            var res = limitsHttp.getForEntity(baseUrl + pathTemplate, String.class, key);
             if (!res.getStatusCode().is2xxSuccessful() || res.getBody() == null) return Optional.empty();
-            var root = mapper.readTree(res.getBody());
-            return Optional.of(new LimitRule(
-                    root.path("scopeType").asText(),
-                    root.path("scopeKey").asText(),
-                    root.path("currency").asText("BRL"),
-                    root.path("creditLimitCents").asLong(0),
-                    root.path("dailyLimitCents").asLong(0),
-                    root.path("monthlyLimitCents").asLong(0)
-            ));
+            return Optional.of(parseRule(mapper.readTree(res.getBody())));
         } catch (HttpClientErrorException.NotFound nf) {
             return Optional.empty();
         } catch (Exception e) {
@@ -49,21 +93,57 @@ public class LedgerClient {
         }
     }
 
+    private Map<String, LimitRule> getLimits(String path, Collection<String> keys) {
+        try {
+            var res = limitsHttp.postForEntity(baseUrl + path, jsonBody(Map.of("keys", keys)), String.class);
+            var rules = new HashMap<String, LimitRule>(keys.size() * 2);
+            if (res.getBody() == null) return rules;
+            for (var node : mapper.readTree(res.getBody()).path("rules")) {
+                var rule = parseRule(node);
+                rules.put(rule.scopeKey(), rule);
+            }
+            return rules;
+        } catch (Exception e) {
+            throw new IllegalStateException("failed_to_call_ledger", e);
+        }
+    }
+
+    private HttpEntity<String> jsonBody(Object body) {
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return new HttpEntity<>(mapper.writeValueAsString(body), headers);
+        } catch (Exception e) {
+            throw new IllegalStateException("failed_to_serialize_ledger_request", e);
+        }
+    }
+
+    private static LimitRule parseRule(JsonNode root) {
+        return new LimitRule(
+                root.path("scopeType").asText(),
+                root.path("scopeKey").asText(),
+                root.path("currency").asText("BRL"),
+                root.path("creditLimitCents").asLong(0),
+                root.path("dailyLimitCents").asLong(0),
+                root.path("monthlyLimitCents").asLong(0)
+        );
+    }
+
     private AvailableCredit parseAvailable(ResponseEntity<String> res) {
         try {
-            var root = mapper.readTree(res.getBody());
-            return new AvailableCredit(
-                    UUID.fromString(root.path("accountId").asText()),
-                    root.path("availableCents").asLong(),
-                    root.path("currency").asText("BRL"),
-                    root.path("holdsCents").asLong(0),
-                    root.path("capturedCents").asLong(0)
-            );
+            return parseAvailable(mapper.readTree(res.getBody()));
         } catch (Exception e) {
             throw new IllegalStateException("failed_to_parse_available_credit", e);
         }
     }
 
-    public record AvailableCredit(UUID accountId, long availableCents, String currency, long holdsCents, long capturedCents) {}
-    public record LimitRule(String scopeType, String scopeKey, String currency, long creditLimitCents, long dailyLimitCents, long monthlyLimitCents) {}
+    private static AvailableCredit parseAvailable(JsonNode root) {
+        return new AvailableCredit(
+                UUID.fromString(root.path("accountId").asText()),
+                root.path("availableCents").asLong(),
+                root.path("currency").asText("BRL"),
+                root.path("holdsCents").asLong(0),
+                root.path("capturedCents").asLong(0)
+        );
+    }
 }
@@ -0,0 +1,140 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.IdleConnectionEvictor;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transporte HTTP dedicado ao ledger.
+ *
+ * <p>Um único pool keep-alive (Apache HttpClient 5) limitado em conexões totais e por rota, com
+ * connect/read timeouts explícitos e descompressão gzip/deflate transparente (o client envia
+ * {@code Accept-Encoding} por padrão). Cada endpoint recebe sua própria request factory sobre o
+ * mesmo pool, o que permite timeouts diferentes para crédito disponível e regras de limite.
+ *
+ * <p>Métricas: ocupação do pool ({@code httpcomponents.httpclient.pool.*}, tag {@code httpclient=ledger})
+ * e tempo de espera por uma conexão livre ({@code ledger.http.pool.wait}).
+ */
+public class LedgerHttpTransport implements AutoCloseable {
+
+    private final PoolingHttpClientConnectionManager pool;
+    private final CloseableHttpClient client;
+    private final IdleConnectionEvictor evictor;
+    private final Settings settings;
+
+    public LedgerHttpTransport(Settings settings, MeterRegistry registry) {
+        this.settings = settings;
+        this.pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.maxConnections())
+                .setMaxConnPerRoute(settings.maxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(settings.connectTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .setTimeToLive(TimeValue.of(settings.connectionTtl()))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, "ledger").bindTo(registry);
+        var waitTimer = Timer.builder("ledger.http.pool.wait")
+                .description("Time spent waiting for a pooled ledger connection")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        // o pool é nosso (o client só enxerga o wrapper com timer), então o evictor também
+        this.client = HttpClients.custom()
+                .setConnectionManager(new TimedLeaseConnectionManager(pool, waitTimer))
+                .setConnectionManagerShared(true)
+                .build();
+        this.evictor = new IdleConnectionEvictor(pool, TimeValue.of(settings.idleEviction()));
+        this.evictor.start();
+    }
+
+    /** Request factory sobre o pool compartilhado, com read timeout próprio do endpoint. */
+    public ClientHttpRequestFactory requestFactory(Duration readTimeout) {
+        var factory = new HttpComponentsClientHttpRequestFactory(client);
+        factory.setConnectionRequestTimeout(settings.poolWaitTimeout());
+        factory.setReadTimeout(readTimeout);
+        return factory;
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdown();
+        client.close(CloseMode.GRACEFUL);
+        pool.close(CloseMode.GRACEFUL);
+    }
+
+    public record Settings(int maxConnections,
+                           int maxConnectionsPerRoute,
+                           Duration connectTimeout,
+                           Duration poolWaitTimeout,
+                           Duration connectionTtl,
+                           Duration idleEviction) { }
+
+    /** Mede quanto tempo cada requisição espera na fila do pool até obter uma conexão. */
+    private record TimedLeaseConnectionManager(HttpClientConnectionManager delegate, Timer waitTimer)
+            implements HttpClientConnectionManager {
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            var lease = delegate.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return lease.get(timeout);
+                    } finally {
+                        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() { return lease.cancel(); }
+            };
+        }
+
+        @Override
+        public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+            delegate.release(endpoint, newState, validDuration);
+        }
+
+        @Override
+        public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+            delegate.connect(endpoint, connectTimeout, context);
+        }
+
+        @Override
+        public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+            delegate.upgrade(endpoint, context);
+        }
+
+        @Override
+        public void close(CloseMode closeMode) { delegate.close(closeMode); }
+
+        @Override
+        public void close() throws IOException { delegate.close(); }
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Junta chaves pedidas por threads diferentes numa única consulta em lote.
+ *
+ * <p>Quem abre o lote (líder) espera até {@code window} ou até o lote chegar a {@code maxSize} chaves,
+ * fecha o lote e faz a consulta na própria thread; os demais só esperam o resultado da sua chave. Não há
+ * timer nem executor próprio: cada lote custa a espera de quem o abriu. Chaves repetidas no mesmo lote
+ * viram uma só.
+ *
+ * <p>Chave ausente na resposta vai para {@code onMissing} (que pode devolver {@code null} ou lançar);
+ * falha da consulta é repassada a todas as chaves do lote.
+ *
+ * <p>Métricas por {@code operation}: {@code issuer.ledger.batch.size} e
+ * {@code issuer.ledger.batch.flush{trigger=window|size}}.
+ */
+final class MicroBatcher<K, V> {
+
+    private final long windowNanos;
+    private final int maxSize;
+    private final Function<List<K>, Map<K, V>> bulk;
+    private final Function<K, V> onMissing;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch<K, V> open;
+
+    private final DistributionSummary size;
+    private final Counter byWindow;
+    private final Counter bySize;
+
+    MicroBatcher(String operation, Duration window, int maxSize, Function<List<K>, Map<K, V>> bulk,
+                 Function<K, V> onMissing, MeterRegistry registry) {
+        if (maxSize <= 0) throw new IllegalArgumentException("batch_max_size_must_be_positive");
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.bulk = bulk;
+        this.onMissing = onMissing;
+        this.size = DistributionSummary.builder("issuer.ledger.batch.size")
+                .description("Distinct keys per bulk ledger call")
+                .tag("operation", operation)
+                .register(registry);
+        this.byWindow = flushCounter(registry, operation, "window");
+        this.bySize = flushCounter(registry, operation, "size");
+    }
+
+    V get(K key) {
+        Batch<K, V> batch;
+        CompletableFuture<V> future;
+        boolean leader;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) open = new Batch<>();
+            batch = open;
+            future = batch.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.futures.size() >= maxSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) lead(batch);
+        return await(future);
+    }
+
+    private void lead(Batch<K, V> batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // o lote segue: os outros participantes dependem desta thread
+            Thread.currentThread().interrupt();
+        }
+        boolean closedByWindow;
+        lock.lock();
+        try {
+            closedByWindow = open == batch;
+            if (closedByWindow) open = null;
+        } finally {
+            lock.unlock();
+        }
+        (closedByWindow ? byWindow : bySize).increment();
+        flush(batch.futures);
+    }
+
+    // depois de fechado o lote o mapa só é lido aqui; o lock acima publica as escritas dos participantes
+    private void flush(Map<K, CompletableFuture<V>> futures) {
+        size.record(futures.size());
+        Map<K, V> found;
+        try {
+            found = bulk.apply(List.copyOf(futures.keySet()));
+        } catch (RuntimeException | Error e) {
+            futures.values().forEach(f -> f.completeExceptionally(e));
+            return;
+        }
+        futures.forEach((key, future) -> {
+            var value = found.get(key);
+            if (value != null) {
+                future.complete(value);
+                return;
+            }
+            try {
+                future.complete(onMissing.apply(key));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException("failed_to_call_ledger", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ledger_call_interrupted", e);
+        }
+    }
+
+    private static Counter flushCounter(MeterRegistry registry, String operation, String trigger) {
+        return Counter.builder("issuer.ledger.batch.flush")
+                .description("Bulk ledger calls by what closed the batch")
+                .tag("operation", operation)
+                .tag("trigger", trigger)
+                .register(registry);
+    }
+
+    private static final class Batch<K, V> {
+        final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        final CountDownLatch full = new CountDownLatch(1);
+    }
+}
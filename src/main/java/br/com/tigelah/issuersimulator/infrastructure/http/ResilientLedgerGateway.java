@@ -0,0 +1,320 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Proteção de cauda para as chamadas ao ledger, em duas raias isoladas: saldo ({@code available_credit})
+ * e regras de limite ({@code limits}). Cada raia tem:
+ *
+ * <ul>
+ *   <li><b>bulkhead</b>: no máximo N chamadas simultâneas; sem vaga em {@code maxWait} a chamada falha com
+ *   {@code ledger_bulkhead_full}, então limites lentos não tomam as conexões do saldo (e vice-versa);</li>
+ *   <li><b>circuit breaker</b>: com o ledger falhando, recusa na hora com {@code ledger_circuit_open} em vez
+ *   de esperar o timeout (ver {@link CircuitBreaker}); 4xx não conta como falha;</li>
+ *   <li><b>hedge</b>: se a resposta não veio no percentil configurado das latências recentes, dispara uma
+ *   segunda chamada idêntica e usa a primeira que responder. Um orçamento ({@code maxRatio}) limita os
+ *   hedges a uma fração das chamadas, para não dobrar a carga num ledger já lento.</li>
+ * </ul>
+ *
+ * <p>As tentativas rodam no {@code executor} (threads virtuais); quem chama só espera o resultado. A
+ * tentativa perdedora não é cancelada — o timeout do RestTemplate a limita — e segura sua vaga até acabar.
+ *
+ * <p>Métricas por {@code lane}: {@code issuer.ledger.requests}, {@code issuer.ledger.hedge{result=sent|won}}
+ * (taxa de hedge = sent / requests), {@code issuer.ledger.hedge.delay}, {@code issuer.ledger.breaker.state}
+ * (0 fechado, 1 aberto, 2 meio-aberto), {@code issuer.ledger.bulkhead.in_use} e
+ * {@code issuer.ledger.rejected{reason=circuit_open|bulkhead_full}}.
+ *
+ * <p>{@code ledger_circuit_open} e {@code ledger_bulkhead_full} viram recusa {@code issuer_unavailable} em
+ * {@code AuthorizeWithLimitsUseCase}.
+ */
+public class ResilientLedgerGateway implements LedgerGateway {
+
+    private static final Duration HEDGE_REFRESH = Duration.ofSeconds(1);
+    private static final long HEDGE_MIN_SAMPLES = 100;
+    private static final long TOKEN = 1_000;
+    private static final long MAX_HEDGE_TOKENS = 10 * TOKEN;
+
+    private final LedgerGateway delegate;
+    private final Executor executor;
+    private final Lane credit;
+    private final Lane limits;
+
+    public ResilientLedgerGateway(LedgerGateway delegate, Settings settings, Executor executor, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.credit = new Lane("available_credit", settings.bulkhead().creditConcurrency(), settings, registry);
+        this.limits = new Lane("limits", settings.bulkhead().limitsConcurrency(), settings, registry);
+    }
+
+    @Override
+    public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
+        return credit.call(() -> delegate.getAvailableCredit(accountId, correlationId));
+    }
+
+    @Override
+    public Optional<LimitRule> getUserLimit(String userId) {
+        return limits.call(() -> delegate.getUserLimit(userId));
+    }
+
+    @Override
+    public Optional<LimitRule> getPanLimit(String panHash) {
+        return limits.call(() -> delegate.getPanLimit(panHash));
+    }
+
+    @Override
+    public Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        return credit.call(() -> delegate.getAvailableCredits(accountIds, correlationId));
+    }
+
+    @Override
+    public Map<String, LimitRule> getUserLimits(Collection<String> userIds) {
+        return limits.call(() -> delegate.getUserLimits(userIds));
+    }
+
+    @Override
+    public Map<String, LimitRule> getPanLimits(Collection<String> panHashes) {
+        return limits.call(() -> delegate.getPanLimits(panHashes));
+    }
+
+    CircuitBreaker.State breakerState(String lane) {
+        return (lane.equals(credit.name) ? credit : limits).breaker.state();
+    }
+
+    // 4xx é resposta do ledger (conta inexistente, requisição inválida): ele está saudável
+    private static boolean isLedgerFailure(Throwable error) {
+        for (var e = error; e != null; e = e.getCause()) {
+            if (e instanceof HttpClientErrorException) return false;
+        }
+        return true;
+    }
+
+    private final class Lane {
+        final String name;
+        final Semaphore bulkhead;
+        final int concurrency;
+        final long bulkheadWaitNanos;
+        final CircuitBreaker breaker;
+        final HedgeDelay hedgeDelay;
+        final boolean hedgeEnabled;
+        final long tokensPerCall;
+        final AtomicLong hedgeTokens = new AtomicLong(MAX_HEDGE_TOKENS);
+
+        final Counter requests;
+        final Counter hedgesSent;
+        final Counter hedgesWon;
+        final Counter circuitOpen;
+        final Counter bulkheadFull;
+
+        Lane(String name, int concurrency, Settings settings, MeterRegistry registry) {
+            var hedge = settings.hedge();
+            var breakerSettings = settings.breaker();
+            this.name = name;
+            this.concurrency = concurrency;
+            this.bulkhead = new Semaphore(concurrency);
+            this.bulkheadWaitNanos = settings.bulkhead().maxWait().toNanos();
+            this.breaker = new CircuitBreaker(breakerSettings.window(), breakerSettings.minCalls(),
+                    breakerSettings.failureRate(), breakerSettings.openDuration(), breakerSettings.halfOpenCalls());
+            this.hedgeEnabled = hedge.enabled();
+            this.hedgeDelay = new HedgeDelay(hedge.percentile(), hedge.minDelay(), hedge.maxDelay(),
+                    HEDGE_REFRESH, HEDGE_MIN_SAMPLES, System.nanoTime());
+            this.tokensPerCall = Math.round(hedge.maxRatio() * TOKEN);
+
+            this.requests = Counter.builder("issuer.ledger.requests")
+                    .description("Ledger requests before hedging")
+                    .tag("lane", name).register(registry);
+            this.hedgesSent = hedgeCounter(registry, name, "sent");
+            this.hedgesWon = hedgeCounter(registry, name, "won");
+            this.circuitOpen = rejectedCounter(registry, name, "circuit_open");
+            this.bulkheadFull = rejectedCounter(registry, name, "bulkhead_full");
+            Gauge.builder("issuer.ledger.breaker.state", breaker, b -> b.state().code())
+                    .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                    .tag("lane", name).register(registry);
+            Gauge.builder("issuer.ledger.bulkhead.in_use", this, l -> l.concurrency - l.bulkhead.availablePermits())
+                    .tag("lane", name).register(registry);
+            Gauge.builder("issuer.ledger.hedge.delay", hedgeDelay, d -> d.currentNanos() / 1e9)
+                    .baseUnit("seconds")
+                    .tag("lane", name).register(registry);
+        }
+
+        <T> T call(Supplier<T> operation) {
+            requests.increment();
+            long permit = breaker.tryAcquire();
+            if (permit == CircuitBreaker.REJECTED) {
+                circuitOpen.increment();
+                throw new IllegalStateException("ledger_circuit_open");
+            }
+            if (!acquire()) {
+                breaker.release(permit);
+                bulkheadFull.increment();
+                throw new IllegalStateException("ledger_bulkhead_full");
+            }
+            depositHedgeToken();
+
+            var race = new Race<T>(operation, permit);
+            if (!race.launch(false)) {
+                breaker.release(permit);
+                throw new IllegalStateException("ledger_executor_rejected");
+            }
+            try {
+                if (hedgeEnabled) {
+                    try {
+                        return race.result.get(hedgeDelay.delayNanos(System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException slow) {
+                        maybeHedge(race);
+                    }
+                }
+                return race.result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+                if (e.getCause() instanceof Error error) throw error;
+                throw new IllegalStateException("failed_to_call_ledger", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("ledger_call_interrupted", e);
+            }
+        }
+
+        // sem hedge com o circuito meio-aberto (as chamadas de teste são contadas) ou sem vaga/orçamento
+        private void maybeHedge(Race<?> race) {
+            if (race.result.isDone() || breaker.state() != CircuitBreaker.State.CLOSED) return;
+            if (!takeHedgeToken()) return;
+            if (!bulkhead.tryAcquire()) return;
+            if (race.launch(true)) hedgesSent.increment();
+        }
+
+        private boolean acquire() {
+            if (bulkheadWaitNanos <= 0) return bulkhead.tryAcquire();
+            try {
+                return bulkhead.tryAcquire(bulkheadWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void depositHedgeToken() {
+            if (!hedgeEnabled) return;
+            hedgeTokens.getAndUpdate(t -> Math.min(t + tokensPerCall, MAX_HEDGE_TOKENS));
+        }
+
+        private boolean takeHedgeToken() {
+            long tokens;
+            do {
+                tokens = hedgeTokens.get();
+                if (tokens < TOKEN) return false;
+            } while (!hedgeTokens.compareAndSet(tokens, tokens - TOKEN));
+            return true;
+        }
+
+        /** Tentativas da mesma chamada: a primeira que responde vence; só a última falha encerra. */
+        private final class Race<T> {
+            final CompletableFuture<T> result = new CompletableFuture<>();
+            final AtomicInteger running = new AtomicInteger();
+            // o breaker registra antes de liberar quem espera: a próxima chamada já vê o estado novo
+            final AtomicBoolean settled = new AtomicBoolean();
+            final Supplier<T> operation;
+            final long permit;
+
+            Race(Supplier<T> operation, long permit) {
+                this.operation = operation;
+                this.permit = permit;
+            }
+
+            /** Chamado com a vaga do bulkhead já tomada; devolve a vaga se o executor recusar. */
+            boolean launch(boolean hedge) {
+                running.incrementAndGet();
+                try {
+                    executor.execute(() -> attempt(hedge));
+                    return true;
+                } catch (RejectedExecutionException e) {
+                    running.decrementAndGet();
+                    bulkhead.release();
+                    return false;
+                }
+            }
+
+            private void attempt(boolean hedge) {
+                long start = System.nanoTime();
+                try {
+                    T value = operation.get();
+                    hedgeDelay.record(System.nanoTime() - start);
+                    if (settled.compareAndSet(false, true)) {
+                        breaker.onSuccess(permit);
+                        if (hedge) hedgesWon.increment();
+                        result.complete(value);
+                    }
+                } catch (RuntimeException | Error e) {
+                    if (running.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+                        if (isLedgerFailure(e)) breaker.onFailure(permit);
+                        else breaker.onSuccess(permit);
+                        result.completeExceptionally(e);
+                    }
+                } finally {
+                    bulkhead.release();
+                }
+            }
+        }
+    }
+
+    private static Counter hedgeCounter(MeterRegistry registry, String lane, String result) {
+        return Counter.builder("issuer.ledger.hedge")
+                .description("Hedged ledger requests")
+                .tag("lane", lane)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String lane, String reason) {
+        return Counter.builder("issuer.ledger.rejected")
+                .description("Ledger requests refused without calling the ledger")
+                .tag("lane", lane)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * @param bulkhead vagas simultâneas por raia e espera máxima por uma vaga (0 = falha na hora)
+     * @param hedge    percentil das latências recentes usado como atraso, limitado a [minDelay, maxDelay];
+     *                 {@code maxRatio} é a fração máxima de chamadas que ganham hedge
+     * @param breaker  janela de resultados, mínimo de chamadas, taxa de falha que abre, tempo aberto e
+     *                 chamadas de teste no meio-aberto
+     */
+    public record Settings(Bulkhead bulkhead, Hedge hedge, Breaker breaker) {
+        public record Bulkhead(int creditConcurrency, int limitsConcurrency, Duration maxWait) {
+            public Bulkhead {
+                if (creditConcurrency <= 0 || limitsConcurrency <= 0) throw new IllegalArgumentException("bulkhead_concurrency_must_be_positive");
+            }
+        }
+
+        public record Hedge(boolean enabled, double percentile, Duration minDelay, Duration maxDelay, double maxRatio) {
+            public Hedge {
+                if (maxRatio < 0 || maxRatio > 1) throw new IllegalArgumentException("hedge_max_ratio_must_be_between_0_and_1");
+            }
+        }
+
+        public record Breaker(int window, int minCalls, double failureRate, Duration openDuration, int halfOpenCalls) {}
+    }
+}
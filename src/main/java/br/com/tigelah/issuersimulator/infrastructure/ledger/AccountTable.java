@@ -0,0 +1,165 @@
+package br.com.tigelah.issuersimulator.infrastructure.ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Tabela hash de endereçamento aberto (sondagem linear) com chave UUID em dois {@code long}.
+ *
+ * <p>Chaves e valores ficam em arrays primitivos paralelos; nenhuma entrada é um objeto. Leituras
+ * são otimistas ({@link StampedLock#tryOptimisticRead()}) e só pegam o read lock se uma escrita
+ * concorrente invalidar o carimbo. Escritas (upsert, ajuste de saldo, resize) são serializadas.
+ *
+ * <p>A moeda é guardada como índice numa lista pequena de códigos; {@code 0} marca slot vazio.
+ */
+final class AccountTable {
+
+    static final int AVAILABLE = 0;
+    static final int HOLDS = 1;
+    static final int CAPTURED = 2;
+    private static final int VALUES = 3;
+
+    private final StampedLock lock = new StampedLock();
+    private final List<String> currencyCodes = new ArrayList<>();
+    private volatile String[] currencies = new String[] { null };
+
+    private long[] keys;       // [msb, lsb] por slot
+    private long[] values;     // [available, holds, captured] por slot
+    private int[] currencyIdx; // 0 = slot vazio
+    private int size;
+
+    AccountTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /** Lê a conta em {@code out} ({@code [available, holds, captured]}) e devolve a moeda, ou {@code null}. */
+    String get(long msb, long lsb, long[] out) {
+        long stamp = lock.tryOptimisticRead();
+        String currency = read(msb, lsb, out);
+        if (lock.validate(stamp)) return currency;
+
+        stamp = lock.readLock();
+        try {
+            return read(msb, lsb, out);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    void put(long msb, long lsb, String currency, long available, long holds, long captured) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(msb, lsb, true);
+            currencyIdx[slot] = currencyIndex(currency);
+            int v = slot * VALUES;
+            values[v + AVAILABLE] = available;
+            values[v + HOLDS] = holds;
+            values[v + CAPTURED] = captured;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Soma {@code delta} ao campo indicado. Devolve {@code false} se a conta não existe. */
+    boolean add(long msb, long lsb, int field, long delta) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotFor(msb, lsb, false);
+            if (slot < 0) return false;
+            values[slot * VALUES + field] += delta;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private String read(long msb, long lsb, long[] out) {
+        long[] k = keys;
+        long[] val = values;
+        int[] cur = currencyIdx;
+        String[] codes = currencies;
+        // leitura otimista no meio de um resize: arrays de gerações diferentes, o validate vai falhar
+        if (k.length != cur.length * 2 || val.length != cur.length * VALUES) return null;
+        int mask = cur.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        for (int probes = 0; probes <= mask; probes++, slot = (slot + 1) & mask) {
+            int c = cur[slot];
+            if (c == 0) return null;
+            if (k[slot * 2] == msb && k[slot * 2 + 1] == lsb) {
+                int v = slot * VALUES;
+                out[AVAILABLE] = val[v + AVAILABLE];
+                out[HOLDS] = val[v + HOLDS];
+                out[CAPTURED] = val[v + CAPTURED];
+                return c < codes.length ? codes[c] : null;
+            }
+        }
+        return null;
+    }
+
+    private int slotFor(long msb, long lsb, boolean insert) {
+        int mask = currencyIdx.length - 1;
+        int slot = hash(msb, lsb) & mask;
+        while (currencyIdx[slot] != 0) {
+            if (keys[slot * 2] == msb && keys[slot * 2 + 1] == lsb) return slot;
+            slot = (slot + 1) & mask;
+        }
+        if (!insert) return -1;
+        if ((size + 1) * 2 > currencyIdx.length) {
+            resize();
+            return slotFor(msb, lsb, true);
+        }
+        keys[slot * 2] = msb;
+        keys[slot * 2 + 1] = lsb;
+        size++;
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        int[] oldCurrency = currencyIdx;
+        allocate(oldCurrency.length << 1);
+        int mask = currencyIdx.length - 1;
+        for (int i = 0; i < oldCurrency.length; i++) {
+            if (oldCurrency[i] == 0) continue;
+            long msb = oldKeys[i * 2];
+            long lsb = oldKeys[i * 2 + 1];
+            int slot = hash(msb, lsb) & mask;
+            while (currencyIdx[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot * 2] = msb;
+            keys[slot * 2 + 1] = lsb;
+            currencyIdx[slot] = oldCurrency[i];
+            System.arraycopy(oldValues, i * VALUES, values, slot * VALUES, VALUES);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * 2];
+        values = new long[capacity * VALUES];
+        currencyIdx = new int[capacity];
+    }
+
+    private int currencyIndex(String currency) {
+        int idx = currencyCodes.indexOf(currency);
+        if (idx >= 0) return idx + 1;
+        currencyCodes.add(currency);
+        var codes = new String[currencyCodes.size() + 1];
+        for (int i = 0; i < currencyCodes.size(); i++) codes[i + 1] = currencyCodes.get(i);
+        currencies = codes;
+        return currencyCodes.size();
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
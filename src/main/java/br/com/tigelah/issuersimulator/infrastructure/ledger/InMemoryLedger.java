@@ -0,0 +1,130 @@
+package br.com.tigelah.issuersimulator.infrastructure.ledger;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ledger embarcado: responde crédito disponível e regras de limite em processo, sem HTTP.
+ *
+ * <p>Carrega um {@link LedgerSnapshot} no startup e aceita atualizações incrementais
+ * ({@link #putAccount}, {@link #adjustAvailable}, {@link #putUserLimit}, ...). Contas ficam numa
+ * {@link AccountTable} de chave primitiva; regras de limite, imutáveis, num mapa concorrente por chave.
+ *
+ * <p>Conta desconhecida falha como falharia o ledger HTTP ({@code account_not_found}).
+ */
+public class InMemoryLedger implements LedgerGateway, LedgerSnapshot.Sink {
+
+    private final AccountTable accounts;
+    private final ConcurrentHashMap<String, Optional<LimitRule>> userLimits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Optional<LimitRule>> panLimits = new ConcurrentHashMap<>();
+
+    public InMemoryLedger() {
+        this(1024);
+    }
+
+    public InMemoryLedger(int expectedAccounts) {
+        this.accounts = new AccountTable(expectedAccounts);
+    }
+
+    public static InMemoryLedger fromSnapshot(Path file) {
+        var ledger = new InMemoryLedger();
+        LedgerSnapshot.load(file, ledger);
+        return ledger;
+    }
+
+    @Override
+    public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
+        var values = new long[3];
+        var currency = accounts.get(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits(), values);
+        if (currency == null) throw new IllegalStateException("account_not_found");
+        return new AvailableCredit(accountId, values[AccountTable.AVAILABLE], currency,
+                values[AccountTable.HOLDS], values[AccountTable.CAPTURED]);
+    }
+
+    @Override
+    public Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        var credits = new HashMap<UUID, AvailableCredit>(accountIds.size() * 2);
+        var values = new long[3];
+        for (var accountId : accountIds) {
+            var currency = accounts.get(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits(), values);
+            if (currency == null) continue;
+            credits.put(accountId, new AvailableCredit(accountId, values[AccountTable.AVAILABLE], currency,
+                    values[AccountTable.HOLDS], values[AccountTable.CAPTURED]));
+        }
+        return credits;
+    }
+
+    @Override
+    public Optional<LimitRule> getUserLimit(String userId) {
+        return userLimits.getOrDefault(userId, Optional.empty());
+    }
+
+    @Override
+    public Optional<LimitRule> getPanLimit(String panHash) {
+        return panLimits.getOrDefault(panHash, Optional.empty());
+    }
+
+    // ---- atualizações incrementais ----
+
+    public void putAccount(AvailableCredit credit) {
+        var id = credit.accountId();
+        accounts.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), credit.currency(),
+                credit.availableCents(), credit.holdsCents(), credit.capturedCents());
+    }
+
+    /** Soma {@code deltaCents} ao disponível. Devolve {@code false} se a conta não existe. */
+    public boolean adjustAvailable(UUID accountId, long deltaCents) {
+        return accounts.add(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits(),
+                AccountTable.AVAILABLE, deltaCents);
+    }
+
+    public void putUserLimit(LimitRule rule) {
+        userLimits.put(rule.scopeKey(), Optional.of(rule));
+    }
+
+    public void putPanLimit(LimitRule rule) {
+        panLimits.put(rule.scopeKey(), Optional.of(rule));
+    }
+
+    public void removeUserLimit(String userId) {
+        userLimits.remove(userId);
+    }
+
+    public void removePanLimit(String panHash) {
+        panLimits.remove(panHash);
+    }
+
+    public int accountCount() {
+        return accounts.size();
+    }
+
+    public int limitCount() {
+        return userLimits.size() + panLimits.size();
+    }
+
+    // ---- carga do snapshot ----
+
+    @Override
+    public void account(long msb, long lsb, String currency, long available, long holds, long captured) {
+        accounts.put(msb, lsb, currency, available, holds, captured);
+    }
+
+    @Override
+    public void userLimit(LimitRule rule) {
+        putUserLimit(rule);
+    }
+
+    @Override
+    public void panLimit(LimitRule rule) {
+        putPanLimit(rule);
+    }
+}
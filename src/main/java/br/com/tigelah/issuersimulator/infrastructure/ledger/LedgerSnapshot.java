@@ -0,0 +1,143 @@
+package br.com.tigelah.issuersimulator.infrastructure.ledger;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Formato binário do snapshot do ledger embarcado (big-endian):
+ *
+ * <pre>
+ * header   : int magic "ISLG", int version, int accounts, int limits
+ * account  : long msb, long lsb, byte[3] currency, long available, long holds, long captured   (43 bytes)
+ * limit    : byte scope ('U' | 'P'), short keyLen, byte[keyLen] key (UTF-8), byte[3] currency,
+ *            long creditLimit, long dailyLimit, long monthlyLimit
+ * </pre>
+ *
+ * <p>Contas têm tamanho fixo e chave primitiva (UUID em dois longs); a leitura é feita direto do
+ * arquivo mapeado em memória, sem parse de texto.
+ */
+public final class LedgerSnapshot {
+
+    static final int MAGIC = 0x49534C47; // "ISLG"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ACCOUNT_BYTES = 16 + 3 + 24;
+    private static final byte USER = 'U';
+    private static final byte PAN = 'P';
+
+    private LedgerSnapshot() { }
+
+    /** Quem recebe o conteúdo do snapshot durante a carga. */
+    public interface Sink {
+        void account(long msb, long lsb, String currency, long available, long holds, long captured);
+        void userLimit(LimitRule rule);
+        void panLimit(LimitRule rule);
+    }
+
+    public static void load(Path file, Sink sink) {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+                throw new IllegalArgumentException("ledger_snapshot_invalid");
+            }
+            if (buf.getInt() != VERSION) throw new IllegalArgumentException("ledger_snapshot_version_not_supported");
+            int accounts = buf.getInt();
+            int limits = buf.getInt();
+
+            var currency = new byte[3];
+            for (int i = 0; i < accounts; i++) {
+                long msb = buf.getLong();
+                long lsb = buf.getLong();
+                buf.get(currency);
+                sink.account(msb, lsb, currencyOf(currency), buf.getLong(), buf.getLong(), buf.getLong());
+            }
+            for (int i = 0; i < limits; i++) {
+                byte scope = buf.get();
+                var key = new byte[buf.getShort() & 0xFFFF];
+                buf.get(key);
+                buf.get(currency);
+                var scopeKey = new String(key, StandardCharsets.UTF_8);
+                var rule = new LimitRule(scope == USER ? "USER" : "PAN", scopeKey, currencyOf(currency),
+                        buf.getLong(), buf.getLong(), buf.getLong());
+                if (scope == USER) sink.userLimit(rule);
+                else if (scope == PAN) sink.panLimit(rule);
+                else throw new IllegalArgumentException("ledger_snapshot_invalid");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed_to_read_ledger_snapshot", e);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("ledger_snapshot_truncated", e);
+        }
+    }
+
+    /** Grava o snapshot em arquivo temporário e troca atomicamente pelo destino. */
+    public static void write(Path file,
+                             Collection<AvailableCredit> accounts,
+                             Collection<LimitRule> userLimits,
+                             Collection<LimitRule> panLimits) {
+        long bytes = HEADER_BYTES + (long) ACCOUNT_BYTES * accounts.size();
+        for (var rule : userLimits) bytes += limitBytes(rule);
+        for (var rule : panLimits) bytes += limitBytes(rule);
+        if (bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("ledger_snapshot_too_large");
+
+        var buf = ByteBuffer.allocate((int) bytes);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(accounts.size()).putInt(userLimits.size() + panLimits.size());
+        for (var a : accounts) {
+            buf.putLong(a.accountId().getMostSignificantBits()).putLong(a.accountId().getLeastSignificantBits());
+            buf.put(currencyBytes(a.currency()));
+            buf.putLong(a.availableCents()).putLong(a.holdsCents()).putLong(a.capturedCents());
+        }
+        for (var rule : userLimits) putLimit(buf, USER, rule);
+        for (var rule : panLimits) putLimit(buf, PAN, rule);
+        buf.flip();
+
+        try {
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (var channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buf.hasRemaining()) channel.write(buf);
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed_to_write_ledger_snapshot", e);
+        }
+    }
+
+    private static int limitBytes(LimitRule rule) {
+        int keyLen = rule.scopeKey().getBytes(StandardCharsets.UTF_8).length;
+        if (keyLen > 0xFFFF) throw new IllegalArgumentException("ledger_snapshot_key_too_long");
+        return 1 + 2 + keyLen + 3 + 24;
+    }
+
+    private static void putLimit(ByteBuffer buf, byte scope, LimitRule rule) {
+        var key = rule.scopeKey().getBytes(StandardCharsets.UTF_8);
+        buf.put(scope).putShort((short) key.length).put(key);
+        buf.put(currencyBytes(rule.currency()));
+        buf.putLong(rule.creditLimitCents()).putLong(rule.dailyLimitCents()).putLong(rule.monthlyLimitCents());
+    }
+
+    private static byte[] currencyBytes(String currency) {
+        var bytes = currency.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length != 3) throw new IllegalArgumentException("currency_invalid");
+        return bytes;
+    }
+
+    private static String currencyOf(byte[] bytes) {
+        // quase sempre BRL: evita alocar uma String por registro na carga
+        if (bytes[0] == 'B' && bytes[1] == 'R' && bytes[2] == 'L') return "BRL";
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
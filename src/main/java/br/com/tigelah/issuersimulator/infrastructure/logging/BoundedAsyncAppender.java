@@ -0,0 +1,158 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appender assíncrono com fila limitada que nunca bloqueia quem loga.
+ *
+ * <p>Quem loga só prepara o evento e faz {@code offer}; encode e I/O rodam numa thread dedicada que
+ * repassa para os appenders anexados. Política de descarte:
+ * <ul>
+ *   <li>com menos de {@code discardThreshold} posições livres, eventos abaixo de WARN são descartados
+ *   ({@link #discarded()}) — sobra espaço para avisos, erros e linhas de decisão
+ *   ({@link LogMarkers#DECISION}), que o limiar não descarta;</li>
+ *   <li>fila cheia: o evento é descartado, seja qual for o nível ({@link #droppedFull()}).</li>
+ * </ul>
+ *
+ * <p>Diferente do {@code AsyncAppender} do logback, os descartes são contados; {@link LoggingMetrics}
+ * os publica junto com a profundidade da fila. No {@code stop} a fila é drenada por até
+ * {@code maxFlushTime} ms.
+ */
+public class BoundedAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder droppedFull = new LongAdder();
+    private int queueSize = 8192;
+    private int discardThreshold = -1;
+    private int maxFlushTime = 1000;
+    private volatile BlockingQueue<ILoggingEvent> queue;
+    private Thread worker;
+
+    @Override
+    public void start() {
+        if (isStarted()) return;
+        if (queueSize < 1) {
+            addError("queueSize must be positive");
+            return;
+        }
+        if (discardThreshold >= queueSize) {
+            // limiar do tamanho da fila descartaria todo INFO, mesmo com a fila vazia
+            addWarn("discardThreshold " + discardThreshold + " >= queueSize " + queueSize + "; using queueSize/5");
+            discardThreshold = -1;
+        }
+        if (discardThreshold < 0) discardThreshold = queueSize / 5;
+        queue = new ArrayBlockingQueue<>(queueSize);
+        worker = Thread.ofPlatform().name("log-appender-" + getName()).daemon().unstarted(this::drain);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        var q = queue;
+        if (q.remainingCapacity() < discardThreshold && !event.getLevel().isGreaterOrEqual(Level.WARN) && !isDecision(event)) {
+            discarded.increment();
+            return;
+        }
+        // MDC, thread e mensagem formatada precisam ser capturados ainda na thread de quem logou
+        event.prepareForDeferredProcessing();
+        if (!q.offer(event)) droppedFull.increment();
+    }
+
+    private static boolean isDecision(ILoggingEvent event) {
+        var markers = event.getMarkerList();
+        if (markers == null) return false;
+        for (var marker : markers) {
+            if (marker.contains(LogMarkers.DECISION)) return true;
+        }
+        return false;
+    }
+
+    private void drain() {
+        var q = queue;
+        try {
+            while (isStarted()) appenders.appendLoopOnAppenders(q.take());
+        } catch (InterruptedException e) {
+            // stop(): o que sobrou na fila ainda é escrito abaixo
+        }
+        var rest = new ArrayList<ILoggingEvent>(q.size());
+        q.drainTo(rest);
+        for (var event : rest) appenders.appendLoopOnAppenders(event);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) return;
+        super.stop();
+        worker.interrupt();
+        try {
+            worker.join(maxFlushTime);
+            if (worker.isAlive()) addWarn("Max flush time exceeded; " + queue.size() + " queued events lost");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    /** Eventos abaixo de WARN descartados com a fila acima do limiar. */
+    public long discarded() {
+        return discarded.sum();
+    }
+
+    /** Eventos perdidos com a fila cheia. */
+    public long droppedFull() {
+        return droppedFull.sum();
+    }
+
+    public int queueDepth() {
+        var q = queue;
+        return q == null ? 0 : q.size();
+    }
+
+    public int getQueueSize() { return queueSize; }
+
+    public void setQueueSize(int queueSize) { this.queueSize = queueSize; }
+
+    public int getDiscardThreshold() { return discardThreshold; }
+
+    /** Posições livres abaixo das quais INFO/DEBUG/TRACE são descartados; padrão (e fallback se >= fila): 20% da fila. */
+    public void setDiscardThreshold(int discardThreshold) { this.discardThreshold = discardThreshold; }
+
+    public int getMaxFlushTime() { return maxFlushTime; }
+
+    public void setMaxFlushTime(int maxFlushTime) { this.maxFlushTime = maxFlushTime; }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) { appenders.addAppender(appender); }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() { return appenders.iteratorForAppenders(); }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) { return appenders.getAppender(name); }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) { return appenders.isAttached(appender); }
+
+    @Override
+    public void detachAndStopAllAppenders() { appenders.detachAndStopAllAppenders(); }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) { return appenders.detachAppender(appender); }
+
+    @Override
+    public boolean detachAppender(String name) { return appenders.detachAppender(name); }
+}
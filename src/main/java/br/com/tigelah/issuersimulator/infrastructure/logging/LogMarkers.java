@@ -0,0 +1,16 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/** Markers com efeito no pipeline de log. */
+public final class LogMarkers {
+
+    /**
+     * Linha de decisão (recusas): o {@link BoundedAsyncAppender} não a descarta pelo limiar, só com a fila
+     * cheia. Sai no JSON em {@code tags}.
+     */
+    public static final Marker DECISION = MarkerFactory.getMarker("DECISION");
+
+    private LogMarkers() { }
+}
@@ -0,0 +1,31 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Payload de mensagem pronto para log: no máximo {@link #MAX_BYTES} bytes e sem dados de cartão.
+ *
+ * <p>Valores dos campos {@code pan}, {@code cvv}, {@code cardNumber} e {@code expiry} viram {@code ***}, e
+ * qualquer sequência de 12 ou mais dígitos fica só com os 4 últimos — inclusive quando o corte deixa o
+ * valor pela metade. Só é usado nos caminhos de erro, então regex aqui não pesa.
+ */
+public final class LogPayloads {
+
+    public static final int MAX_BYTES = 512;
+
+    private static final Pattern SENSITIVE_FIELD =
+            Pattern.compile("(\"(?:pan|cvv|cardNumber|expiry)\"\\s*:\\s*)(\"[^\"]*\"?|\\d+)");
+    private static final Pattern LONG_DIGITS = Pattern.compile("\\d{8,}(\\d{4})");
+
+    private LogPayloads() { }
+
+    public static String redacted(byte[] message) {
+        if (message == null) return "null";
+        int length = Math.min(message.length, MAX_BYTES);
+        var text = new String(message, 0, length, StandardCharsets.UTF_8);
+        text = SENSITIVE_FIELD.matcher(text).replaceAll("$1\"***\"");
+        text = LONG_DIGITS.matcher(text).replaceAll("****$1");
+        return message.length > MAX_BYTES ? text + "...(" + message.length + " bytes)" : text;
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+
+/**
+ * Publica o que a configuração de log descarta: para cada {@link BoundedAsyncAppender} do root,
+ * {@code issuer.logging.dropped{appender,reason=discarded|queue_full}} e {@code issuer.logging.queue.depth};
+ * para cada tipo do {@link SamplingTurboFilter}, {@code issuer.logging.sampled_out{type}}.
+ */
+public class LoggingMetrics implements MeterBinder {
+
+    private final LoggerContext context;
+
+    public LoggingMetrics(LoggerContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        var appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (!(appenders.next() instanceof BoundedAsyncAppender appender)) continue;
+            FunctionCounter.builder("issuer.logging.dropped", appender, BoundedAsyncAppender::discarded)
+                    .description("Log events dropped by the async appender")
+                    .tag("appender", appender.getName())
+                    .tag("reason", "discarded")
+                    .register(registry);
+            FunctionCounter.builder("issuer.logging.dropped", appender, BoundedAsyncAppender::droppedFull)
+                    .description("Log events dropped by the async appender")
+                    .tag("appender", appender.getName())
+                    .tag("reason", "queue_full")
+                    .register(registry);
+            Gauge.builder("issuer.logging.queue.depth", appender, BoundedAsyncAppender::queueDepth)
+                    .description("Log events waiting for the appender thread")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+        }
+        for (var filter : context.getTurboFilterList()) {
+            if (!(filter instanceof SamplingTurboFilter sampling)) continue;
+            var types = sampling.types();
+            for (int i = 0; i < types.size(); i++) {
+                int index = i;
+                FunctionCounter.builder("issuer.logging.sampled_out", sampling, f -> f.sampledOut(index))
+                        .description("Log events skipped by per-type sampling")
+                        .tag("type", types.get(i))
+                        .register(registry);
+            }
+        }
+    }
+}
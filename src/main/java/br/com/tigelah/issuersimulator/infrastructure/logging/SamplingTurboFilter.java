@@ -0,0 +1,89 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Amostragem de logs por tipo de evento, antes de o evento existir.
+ *
+ * <p>O tipo é a primeira palavra da mensagem ({@code issuer_authorized paymentId={} ...}). Para cada tipo
+ * configurado em {@code rates} ({@code tipo=N,...}) passa 1 a cada {@code N} eventos, em sequência — sem
+ * aleatoriedade. Como é um {@link TurboFilter}, o evento recusado não chega a ser montado.
+ *
+ * <p>Nunca amostra: WARN e acima, eventos com exceção e tipos fora da configuração (recusas, erros e
+ * eventos de negócio raros passam sempre). Os recusados ficam em {@link #sampledOut(int)}.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String[] types = new String[0];
+    private long[] every = new long[0];
+    private AtomicLong[] seen = new AtomicLong[0];
+    private LongAdder[] sampledOut = new LongAdder[0];
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || t != null || level.isGreaterOrEqual(Level.WARN)) return FilterReply.NEUTRAL;
+        // não conta como amostrado o que o nível do logger já descartaria
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) return FilterReply.NEUTRAL;
+        for (int i = 0; i < types.length; i++) {
+            var type = types[i];
+            if (!format.startsWith(type) || (format.length() > type.length() && format.charAt(type.length()) != ' ')) continue;
+            if (seen[i].getAndIncrement() % every[i] == 0) return FilterReply.NEUTRAL;
+            sampledOut[i].increment();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    /** {@code issuer_authorized=100,issuer_duplicate=10}: 1 a cada N eventos de cada tipo. */
+    public void setRates(String rates) {
+        var parsedTypes = new ArrayList<String>();
+        var parsedEvery = new ArrayList<Long>();
+        if (rates != null) {
+            for (var entry : rates.split(",")) {
+                if (entry.isBlank()) continue;
+                var parts = entry.split("=");
+                long n;
+                try {
+                    n = parts.length == 2 ? Long.parseLong(parts[1].trim()) : -1;
+                } catch (NumberFormatException e) {
+                    n = -1;
+                }
+                if (n < 1 || parts[0].isBlank()) {
+                    addError("Invalid log sampling entry: " + entry);
+                    continue;
+                }
+                parsedTypes.add(parts[0].trim());
+                parsedEvery.add(n);
+            }
+        }
+        int size = parsedTypes.size();
+        var newSeen = new AtomicLong[size];
+        var newSampledOut = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            newSeen[i] = new AtomicLong();
+            newSampledOut[i] = new LongAdder();
+        }
+        this.every = parsedEvery.stream().mapToLong(Long::longValue).toArray();
+        this.seen = newSeen;
+        this.sampledOut = newSampledOut;
+        this.types = parsedTypes.toArray(String[]::new);
+    }
+
+    /** Tipos amostrados, na ordem dos índices de {@link #sampledOut(int)}. */
+    public List<String> types() {
+        return List.of(types);
+    }
+
+    public long sampledOut(int index) {
+        return sampledOut[index].sum();
+    }
+}
@@ -0,0 +1,289 @@
+package br.com.tigelah.issuersimulator.infrastructure.messaging;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDecisionEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Codec binário versionado para {@link PaymentAuthorizedEvent} e {@link PaymentDeclinedEvent}.
+ *
+ * <pre>
+ * v1
+ *   byte    magic (0xD1)
+ *   byte    version (1)
+ *   byte    kind (1 = authorized, 2 = declined)
+ *   byte    presença dos campos anuláveis (bit 0 eventId .. bit 6 installments, ver FIELD_*)
+ *   [16]    eventId                          (msb, lsb big-endian)
+ *   varlong occurredAt.epochSecond (zigzag), varint occurredAt.nano
+ *   string  correlationId                    (varint tamanho em bytes + UTF-8)
+ *   string  type
+ *   [16]    paymentId
+ *   authorized: string authCode, varint installments (zigzag),
+ *               varlong interestCents, totalCents, installmentAmountCents (zigzag)
+ *   declined:   string reason
+ * </pre>
+ *
+ * <p>Campos novos entram no fim com uma nova versão; o decoder recusa versões que não conhece.
+ * {@link #encode} calcula o tamanho exato antes de escrever: uma única alocação por mensagem.
+ */
+public final class DecisionEventCodec {
+
+    public static final String CONTENT_TYPE = "application/vnd.tigelah.issuer-decision.v1";
+
+    static final byte MAGIC = (byte) 0xD1;
+    static final byte VERSION = 1;
+    private static final byte AUTHORIZED = 1;
+    private static final byte DECLINED = 2;
+
+    private static final int FIELD_EVENT_ID = 1;
+    private static final int FIELD_OCCURRED_AT = 1 << 1;
+    private static final int FIELD_CORRELATION_ID = 1 << 2;
+    private static final int FIELD_TYPE = 1 << 3;
+    private static final int FIELD_PAYMENT_ID = 1 << 4;
+    private static final int FIELD_TEXT = 1 << 5; // authCode ou reason
+    private static final int FIELD_INSTALLMENTS = 1 << 6;
+
+    private DecisionEventCodec() { }
+
+    public static byte[] encode(PaymentDecisionEvent event) {
+        return switch (event) {
+            case PaymentAuthorizedEvent a -> encodeAuthorized(a);
+            case PaymentDeclinedEvent d -> encodeDeclined(d);
+        };
+    }
+
+    public static PaymentDecisionEvent decode(byte[] bytes) {
+        try {
+            var in = new Reader(bytes);
+            if (in.readByte() != MAGIC) throw new IllegalArgumentException("decision_codec_invalid");
+            if (in.readByte() != VERSION) throw new IllegalArgumentException("decision_codec_version_not_supported");
+            byte kind = in.readByte();
+            int present = in.readByte() & 0xFF;
+
+            UUID eventId = (present & FIELD_EVENT_ID) != 0 ? in.readUuid() : null;
+            Instant occurredAt = (present & FIELD_OCCURRED_AT) != 0
+                    ? Instant.ofEpochSecond(in.readZigZagLong(), in.readVarInt()) : null;
+            String correlationId = (present & FIELD_CORRELATION_ID) != 0 ? in.readString() : null;
+            String type = (present & FIELD_TYPE) != 0 ? in.readString() : null;
+            UUID paymentId = (present & FIELD_PAYMENT_ID) != 0 ? in.readUuid() : null;
+            String text = (present & FIELD_TEXT) != 0 ? in.readString() : null;
+
+            PaymentDecisionEvent event = switch (kind) {
+                case AUTHORIZED -> {
+                    Integer installments = (present & FIELD_INSTALLMENTS) != 0 ? (int) in.readZigZagLong() : null;
+                    yield new PaymentAuthorizedEvent(eventId, occurredAt, correlationId, type, paymentId, text,
+                            installments, in.readZigZagLong(), in.readZigZagLong(), in.readZigZagLong());
+                }
+                case DECLINED -> new PaymentDeclinedEvent(eventId, occurredAt, correlationId, type, paymentId, text);
+                default -> throw new IllegalArgumentException("decision_codec_invalid");
+            };
+            if (in.pos != bytes.length) throw new IllegalArgumentException("decision_codec_invalid");
+            return event;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("decision_codec_truncated", e);
+        }
+    }
+
+    // ---- encode ----
+
+    private static byte[] encodeAuthorized(PaymentAuthorizedEvent e) {
+        int present = header(e.eventId(), e.occurredAt(), e.correlationId(), e.type(), e.paymentId(), e.authCode())
+                | (e.installments() != null ? FIELD_INSTALLMENTS : 0);
+        int size = 4 + commonSize(e.eventId(), e.occurredAt(), e.correlationId(), e.type(), e.paymentId(), e.authCode())
+                + (e.installments() != null ? varLongSize(zigZag(e.installments())) : 0)
+                + varLongSize(zigZag(e.interestCents()))
+                + varLongSize(zigZag(e.totalCents()))
+                + varLongSize(zigZag(e.installmentAmountCents()));
+
+        var out = new Writer(size);
+        out.header(AUTHORIZED, present);
+        out.common(e.eventId(), e.occurredAt(), e.correlationId(), e.type(), e.paymentId(), e.authCode());
+        if (e.installments() != null) out.writeVarLong(zigZag(e.installments()));
+        out.writeVarLong(zigZag(e.interestCents()));
+        out.writeVarLong(zigZag(e.totalCents()));
+        out.writeVarLong(zigZag(e.installmentAmountCents()));
+        return out.buf;
+    }
+
+    private static byte[] encodeDeclined(PaymentDeclinedEvent e) {
+        int present = header(e.eventId(), e.occurredAt(), e.correlationId(), e.type(), e.paymentId(), e.reason());
+        int size = 4 + commonSize(e.eventId(), e.occurredAt(), e.correlationId(), e.type(), e.paymentId(), e.reason());
+
+        var out = new Writer(size);
+        out.header(DECLINED, present);
+        out.common(e.eventId(), e.occurredAt(), e.correlationId(), e.type(), e.paymentId(), e.reason());
+        return out.buf;
+    }
+
+    private static int header(UUID eventId, Instant occurredAt, String correlationId, String type, UUID paymentId, String text) {
+        return (eventId != null ? FIELD_EVENT_ID : 0)
+                | (occurredAt != null ? FIELD_OCCURRED_AT : 0)
+                | (correlationId != null ? FIELD_CORRELATION_ID : 0)
+                | (type != null ? FIELD_TYPE : 0)
+                | (paymentId != null ? FIELD_PAYMENT_ID : 0)
+                | (text != null ? FIELD_TEXT : 0);
+    }
+
+    private static int commonSize(UUID eventId, Instant occurredAt, String correlationId, String type, UUID paymentId, String text) {
+        int size = 0;
+        if (eventId != null) size += 16;
+        if (occurredAt != null) size += varLongSize(zigZag(occurredAt.getEpochSecond())) + varLongSize(occurredAt.getNano());
+        if (correlationId != null) size += stringSize(correlationId);
+        if (type != null) size += stringSize(type);
+        if (paymentId != null) size += 16;
+        if (text != null) size += stringSize(text);
+        return size;
+    }
+
+    private static int stringSize(String s) {
+        int len = utf8Length(s);
+        return varLongSize(len) + len;
+    }
+
+    private static int utf8Length(String s) {
+        int len = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) len++;
+            else if (c < 0x800) len += 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                len += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) len++;
+            else len += 3;
+        }
+        return len;
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static int varLongSize(long v) {
+        int size = 1;
+        while ((v & ~0x7FL) != 0) {
+            v >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Writer {
+        final byte[] buf;
+        int pos;
+
+        Writer(int size) { this.buf = new byte[size]; }
+
+        void header(byte kind, int present) {
+            buf[pos++] = MAGIC;
+            buf[pos++] = VERSION;
+            buf[pos++] = kind;
+            buf[pos++] = (byte) present;
+        }
+
+        void common(UUID eventId, Instant occurredAt, String correlationId, String type, UUID paymentId, String text) {
+            if (eventId != null) writeUuid(eventId);
+            if (occurredAt != null) {
+                writeVarLong(zigZag(occurredAt.getEpochSecond()));
+                writeVarLong(occurredAt.getNano());
+            }
+            if (correlationId != null) writeString(correlationId);
+            if (type != null) writeString(type);
+            if (paymentId != null) writeUuid(paymentId);
+            if (text != null) writeString(text);
+        }
+
+        void writeUuid(UUID id) {
+            writeLong(id.getMostSignificantBits());
+            writeLong(id.getLeastSignificantBits());
+        }
+
+        void writeLong(long v) {
+            for (int shift = 56; shift >= 0; shift -= 8) buf[pos++] = (byte) (v >>> shift);
+        }
+
+        void writeVarLong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeString(String s) {
+            writeVarLong(utf8Length(s));
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    buf[pos++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // surrogate solto vira '?', como em String.getBytes(UTF_8)
+                    buf[pos++] = '?';
+                } else {
+                    buf[pos++] = (byte) (0xE0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+
+    private static final class Reader {
+        final byte[] buf;
+        int pos;
+
+        Reader(byte[] buf) { this.buf = buf; }
+
+        byte readByte() { return buf[pos++]; }
+
+        UUID readUuid() { return new UUID(readLong(), readLong()); }
+
+        long readLong() {
+            long v = 0;
+            for (int i = 0; i < 8; i++) v = (v << 8) | (buf[pos++] & 0xFF);
+            return v;
+        }
+
+        long readVarLong() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+            throw new IllegalArgumentException("decision_codec_invalid");
+        }
+
+        int readVarInt() {
+            long v = readVarLong();
+            if (v < 0 || v > Integer.MAX_VALUE) throw new IllegalArgumentException("decision_codec_invalid");
+            return (int) v;
+        }
+
+        long readZigZagLong() {
+            long v = readVarLong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        String readString() {
+            int len = readVarInt();
+            if (len > buf.length - pos) throw new IllegalArgumentException("decision_codec_truncated");
+            var s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+    }
+}
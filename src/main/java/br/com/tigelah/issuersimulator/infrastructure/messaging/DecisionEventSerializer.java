@@ -0,0 +1,63 @@
+package br.com.tigelah.issuersimulator.infrastructure.messaging;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentDecisionEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serializer de valor do producer com formato por tópico: tópicos em {@code binaryTopics} usam o
+ * {@link DecisionEventCodec} (com header {@code content-type}); os demais seguem em JSON, como antes.
+ *
+ * <p>{@code T} é o tipo de valor do producer; decisões são reconhecidas pelo tipo em tempo de execução.
+ * {@link #configure} repassa a configuração do producer ({@code spring.json.*}) ao {@link JsonSerializer}.
+ */
+public class DecisionEventSerializer<T> implements Serializer<T> {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private static final byte[] BINARY_CONTENT_TYPE = DecisionEventCodec.CONTENT_TYPE.getBytes(StandardCharsets.US_ASCII);
+
+    private final Set<String> binaryTopics;
+    private final Serializer<Object> json;
+
+    public DecisionEventSerializer(Set<String> binaryTopics) {
+        this(binaryTopics, new JsonSerializer<>());
+    }
+
+    DecisionEventSerializer(Set<String> binaryTopics, Serializer<Object> json) {
+        this.binaryTopics = Set.copyOf(binaryTopics);
+        this.json = json;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data instanceof PaymentDecisionEvent event && binaryTopics.contains(topic)) {
+            return DecisionEventCodec.encode(event);
+        }
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data instanceof PaymentDecisionEvent event && binaryTopics.contains(topic)) {
+            headers.add(CONTENT_TYPE_HEADER, BINARY_CONTENT_TYPE);
+            return DecisionEventCodec.encode(event);
+        }
+        return json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
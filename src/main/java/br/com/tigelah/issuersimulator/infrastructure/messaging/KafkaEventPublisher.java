@@ -3,21 +3,155 @@ package br.com.tigelah.issuersimulator.infrastructure.messaging;
 import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
 import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
 import br.com.tigelah.issuersimulator.application.ports.EventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica as decisões e só retorna depois do ack do broker, para que o offset de entrada nunca seja
+ * comitado antes do evento de saída estar gravado.
+ *
+ * <p>Envios em voo são limitados a {@code maxInFlight}: sem permissão livre, a thread que publica
+ * (listener ou virtual thread do modo paralelo) espera — é o backpressure sobre o consumo. O
+ * {@code max.block.ms} do producer faz o mesmo quando o {@code buffer.memory} enche.
+ *
+ * <p>Métricas: {@code issuer.publish.send{topic}} (latência até o ack),
+ * {@code issuer.publish.failures{topic}} e {@code issuer.publish.in_flight}.
+ */
 @Component
 public class KafkaEventPublisher implements EventPublisher {
     private final KafkaTemplate<String, Object> kafka;
-    public KafkaEventPublisher(KafkaTemplate<String, Object> kafka) { this.kafka = kafka; }
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final Duration ackTimeout;
+    private final Timer authorizedLatency;
+    private final Timer declinedLatency;
+    private final Counter authorizedFailures;
+    private final Counter declinedFailures;
+
+    public KafkaEventPublisher(KafkaTemplate<String, Object> kafka) {
+        this(kafka, 1_000, Duration.ofSeconds(30), new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public KafkaEventPublisher(KafkaTemplate<String, Object> kafka,
+                               @Value("${issuer.publisher.max-in-flight:1000}") int maxInFlight,
+                               @Value("${issuer.publisher.ack-timeout:30s}") Duration ackTimeout,
+                               MeterRegistry registry) {
+        this.kafka = kafka;
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+        this.ackTimeout = ackTimeout;
+        this.authorizedLatency = sendTimer(registry, Topics.PAYMENT_AUTHORIZED);
+        this.declinedLatency = sendTimer(registry, Topics.PAYMENT_DECLINED);
+        this.authorizedFailures = failureCounter(registry, Topics.PAYMENT_AUTHORIZED);
+        this.declinedFailures = failureCounter(registry, Topics.PAYMENT_DECLINED);
+        Gauge.builder("issuer.publish.in_flight", this, KafkaEventPublisher::inFlight)
+                .description("Events sent and not yet acknowledged by the broker")
+                .register(registry);
+    }
 
     @Override
     public void publishAuthorized(PaymentAuthorizedEvent event) {
-        kafka.send(Topics.PAYMENT_AUTHORIZED, event.paymentId().toString(), event);
+        await(sendAuthorized(event));
     }
 
     @Override
     public void publishDeclined(PaymentDeclinedEvent event) {
-        kafka.send(Topics.PAYMENT_DECLINED, event.paymentId().toString(), event);
+        await(sendDeclined(event));
+    }
+
+    @Override
+    public void publishAll(List<PaymentAuthorizedEvent> authorized, List<PaymentDeclinedEvent> declined) {
+        if (authorized.isEmpty() && declined.isEmpty()) return;
+        var pending = new ArrayList<CompletableFuture<Void>>(authorized.size() + declined.size());
+        for (var event : authorized) pending.add(sendAuthorized(event));
+        for (var event : declined) pending.add(sendDeclined(event));
+        // flush não espera o linger.ms; depois dele todos os futures já estão resolvidos
+        kafka.flush();
+        for (var future : pending) await(future);
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    private CompletableFuture<Void> sendAuthorized(PaymentAuthorizedEvent event) {
+        return send(Topics.PAYMENT_AUTHORIZED, event.paymentId().toString(), event, authorizedLatency, authorizedFailures);
+    }
+
+    private CompletableFuture<Void> sendDeclined(PaymentDeclinedEvent event) {
+        return send(Topics.PAYMENT_DECLINED, event.paymentId().toString(), event, declinedLatency, declinedFailures);
+    }
+
+    private CompletableFuture<Void> send(String topic, String key, Object event, Timer latency, Counter failures) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        long start = System.nanoTime();
+        try {
+            return kafka.send(topic, key, event).handle((result, error) -> {
+                permits.release();
+                if (error != null) {
+                    failures.increment();
+                    throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                }
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // falha síncrona do send (ex.: max.block.ms estourado, serialização)
+            permits.release();
+            failures.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void await(CompletableFuture<Void> future) {
+        try {
+            future.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("event_publish_interrupted", e);
+        } catch (ExecutionException e) {
+            var cause = e.getCause() instanceof CompletionException ce && ce.getCause() != null ? ce.getCause() : e.getCause();
+            throw new IllegalStateException("event_publish_failed", cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("event_publish_timeout", e);
+        }
+    }
+
+    private static Timer sendTimer(MeterRegistry registry, String topic) {
+        return Timer.builder("issuer.publish.send")
+                .description("Time from send to broker acknowledgement")
+                .tag("topic", topic)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter failureCounter(MeterRegistry registry, String topic) {
+        return Counter.builder("issuer.publish.failures")
+                .description("Events the broker did not acknowledge")
+                .tag("topic", topic)
+                .register(registry);
     }
 }
@@ -0,0 +1,58 @@
+package br.com.tigelah.issuersimulator.infrastructure.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link KafkaTransactionManager} que mede o commit e conta os aborts.
+ *
+ * <p>Métricas: {@code issuer.kafka.tx.commit{outcome}} (latência do {@code commitTransaction}, que
+ * inclui o flush dos eventos e dos offsets pendentes) e {@code issuer.kafka.tx.aborts}.
+ */
+public class MeteredKafkaTransactionManager<K, V> extends KafkaTransactionManager<K, V> {
+
+    private final Timer committed;
+    private final Timer commitFailed;
+    private final Counter aborts;
+
+    public MeteredKafkaTransactionManager(ProducerFactory<K, V> producerFactory, MeterRegistry registry) {
+        super(producerFactory);
+        this.committed = commitTimer(registry, "committed");
+        this.commitFailed = commitTimer(registry, "failed");
+        this.aborts = Counter.builder("issuer.kafka.tx.aborts")
+                .description("Kafka transactions rolled back; their records are redelivered")
+                .register(registry);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        long start = System.nanoTime();
+        try {
+            super.doCommit(status);
+            committed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            commitFailed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        aborts.increment();
+        super.doRollback(status);
+    }
+
+    private static Timer commitTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("issuer.kafka.tx.commit")
+                .description("Latency of Kafka transaction commits")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.tigelah.issuersimulator.infrastructure.metrics;
+
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Métricas do pipeline de decisão.
+ *
+ * <ul>
+ *   <li>{@code issuer.pipeline.stage{stage}}: timer com histograma de percentis por etapa
+ *   (parse, regras do emissor, limites, parcelamento, publicação);</li>
+ *   <li>{@code issuer.decisions{outcome,reason}}: contagem de decisões. O {@code reason} é fechado
+ *   em {@link #KNOWN_REASONS} (inclui os motivos de todas as {@link IssuerRule}); qualquer outro valor vira
+ *   {@code other}, mantendo a cardinalidade baixa.</li>
+ * </ul>
+ *
+ * <p>Todos os meters são registrados no construtor: o caminho quente só faz lookup em mapa e
+ * {@code record}, sem builders nem tags alocadas por chamada.
+ */
+@Component
+public class PipelineMetrics {
+
+    public enum Stage {
+        PARSE("parse"),
+        ISSUER_RULES("issuer_rules"),
+        LIMITS("limits"),
+        INSTALLMENTS("installments"),
+        PUBLISH("publish");
+
+        private final String tag;
+
+        Stage(String tag) { this.tag = tag; }
+    }
+
+    public static final Set<String> KNOWN_REASONS = Stream.concat(Stream.of(
+            "ok",
+            "risk_rejected",
+            "amount_invalid",
+            "amount_exceeded",
+            "insufficient_funds",
+            "limit_exceeded",
+            "issuer_unavailable",
+            "invalid_installments",
+            "installments_not_supported"
+    ), IssuerRule.reasons().stream()).collect(Collectors.toUnmodifiableSet());
+
+    private static final String OTHER = "other";
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<String, Counter> declined = new HashMap<>();
+    private final Counter authorized;
+    private final Counter failed;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        for (var stage : Stage.values()) {
+            stages.put(stage, Timer.builder("issuer.pipeline.stage")
+                    .description("Latency of each decision pipeline stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (var reason : KNOWN_REASONS) {
+            if ("ok".equals(reason)) continue;
+            declined.put(reason, decisionCounter(registry, "declined", reason));
+        }
+        declined.put(OTHER, decisionCounter(registry, "declined", OTHER));
+        this.authorized = decisionCounter(registry, "authorized", "ok");
+        this.failed = Counter.builder("issuer.pipeline.failures")
+                .description("Messages dropped because the pipeline threw")
+                .register(registry);
+    }
+
+    /** Instância que descarta tudo, para uso fora do contexto Spring (testes, benchmarks). */
+    public static PipelineMetrics noop() {
+        return new PipelineMetrics(new CompositeMeterRegistry());
+    }
+
+    public void record(Stage stage, long startNanos) {
+        stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void authorized() {
+        authorized.increment();
+    }
+
+    public void declined(String reason) {
+        var counter = declined.get(reason);
+        (counter != null ? counter : declined.get(OTHER)).increment();
+    }
+
+    public void failed() {
+        failed.increment();
+    }
+
+    private static Counter decisionCounter(MeterRegistry registry, String outcome, String reason) {
+        return Counter.builder("issuer.decisions")
+                .description("Issuer decisions by outcome and reason")
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.tigelah.issuersimulator.infrastructure.metrics;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timer por chamada ao ledger: {@code issuer.ledger.call{operation,outcome}}, com
+ * {@code operation} em available_credit/user_limit/pan_limit e {@code outcome} em
+ * found/not_found/error. Consultas em lote usam {@code operation} com sufixo {@code _bulk};
+ * nelas {@code found} é só "respondeu".
+ */
+public class TimedLedgerGateway implements LedgerGateway {
+
+    private final LedgerGateway delegate;
+    private final Timers credit;
+    private final Timers user;
+    private final Timers pan;
+    private final Timers creditBulk;
+    private final Timers userBulk;
+    private final Timers panBulk;
+
+    public TimedLedgerGateway(LedgerGateway delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.credit = new Timers(registry, "available_credit");
+        this.user = new Timers(registry, "user_limit");
+        this.pan = new Timers(registry, "pan_limit");
+        this.creditBulk = new Timers(registry, "available_credit_bulk");
+        this.userBulk = new Timers(registry, "user_limit_bulk");
+        this.panBulk = new Timers(registry, "pan_limit_bulk");
+    }
+
+    @Override
+    public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
+        long start = System.nanoTime();
+        try {
+            var result = delegate.getAvailableCredit(accountId, correlationId);
+            credit.found.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            credit.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<LimitRule> getUserLimit(String userId) {
+        long start = System.nanoTime();
+        try {
+            return user.recordLookup(delegate.getUserLimit(userId), start);
+        } catch (RuntimeException e) {
+            user.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<LimitRule> getPanLimit(String panHash) {
+        long start = System.nanoTime();
+        try {
+            return pan.recordLookup(delegate.getPanLimit(panHash), start);
+        } catch (RuntimeException e) {
+            pan.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<UUID, AvailableCredit> getAvailableCredits(Collection<UUID> accountIds, String correlationId) {
+        return timeBulk(creditBulk, () -> delegate.getAvailableCredits(accountIds, correlationId));
+    }
+
+    @Override
+    public Map<String, LimitRule> getUserLimits(Collection<String> userIds) {
+        return timeBulk(userBulk, () -> delegate.getUserLimits(userIds));
+    }
+
+    @Override
+    public Map<String, LimitRule> getPanLimits(Collection<String> panHashes) {
+        return timeBulk(panBulk, () -> delegate.getPanLimits(panHashes));
+    }
+
+    private static <T> T timeBulk(Timers timers, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            var result = call.get();
+            timers.found.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            timers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static final class Timers {
+        final Timer found;
+        final Timer notFound;
+        final Timer error;
+
+        Timers(MeterRegistry registry, String operation) {
+            this.found = timer(registry, operation, "found");
+            this.notFound = timer(registry, operation, "not_found");
+            this.error = timer(registry, operation, "error");
+        }
+
+        Optional<LimitRule> recordLookup(Optional<LimitRule> rule, long start) {
+            (rule.isPresent() ? found : notFound).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return rule;
+        }
+
+        private static Timer timer(MeterRegistry registry, String operation, String outcome) {
+            return Timer.builder("issuer.ledger.call")
+                    .description("Latency of ledger calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.tigelah.issuersimulator.infrastructure.rates;
+
+import br.com.tigelah.issuersimulator.domain.services.RateTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+
+/**
+ * Arquivo de taxas de parcelamento (CSV, uma linha por merchant):
+ *
+ * <pre>
+ * # comentário
+ * merchant,2,6,12
+ * *,0.020,0.060,0.120
+ * m1,0.015,0.050,
+ * </pre>
+ *
+ * <p>O cabeçalho lista os planos com juros; os planos permitidos são esses mais o à vista ({@code 1}).
+ * Célula vazia = plano indisponível para o merchant; a linha {@code *} é o fallback de quem não tem linha.
+ * Merchant repetido invalida o arquivo.
+ * A leitura é em streaming direto para o {@link RateTable.Builder}, sem mapa intermediário por merchant.
+ */
+public final class RateTableFile {
+
+    private RateTableFile() { }
+
+    public static RateTable load(Path file, long version) {
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader, version);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed_to_read_rate_table", e);
+        }
+    }
+
+    static RateTable read(BufferedReader reader, long version) throws IOException {
+        int[] plans = null;
+        RateTable.Builder builder = null;
+        int lineNumber = 0;
+        for (String line; (line = reader.readLine()) != null; ) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            var cells = line.split(",", -1);
+            if (plans == null) {
+                plans = header(cells, lineNumber);
+                var allowed = new HashSet<Integer>();
+                allowed.add(1);
+                for (int plan : plans) allowed.add(plan);
+                builder = RateTable.builder(allowed);
+                continue;
+            }
+            if (cells.length > plans.length + 1) throw invalid(lineNumber);
+            var merchantId = cells[0].strip();
+            if (merchantId.isEmpty()) throw invalid(lineNumber);
+            try {
+                builder.merchant(merchantId);
+            } catch (IllegalArgumentException e) {
+                throw invalid(lineNumber, e);
+            }
+            for (int i = 1; i < cells.length; i++) {
+                var cell = cells[i].strip();
+                if (cell.isEmpty()) continue;
+                try {
+                    builder.rate(merchantId, plans[i - 1], RateTable.toPpm(new BigDecimal(cell)));
+                } catch (NumberFormatException e) {
+                    throw invalid(lineNumber);
+                }
+            }
+        }
+        if (builder == null) throw new IllegalArgumentException("rate_table_header_missing");
+        return builder.build(version);
+    }
+
+    private static int[] header(String[] cells, int lineNumber) {
+        if (cells.length < 2 || !cells[0].strip().equalsIgnoreCase("merchant")) throw invalid(lineNumber);
+        var plans = new int[cells.length - 1];
+        for (int i = 1; i < cells.length; i++) {
+            try {
+                plans[i - 1] = Integer.parseInt(cells[i].strip());
+            } catch (NumberFormatException e) {
+                throw invalid(lineNumber);
+            }
+            if (plans[i - 1] < 2) throw invalid(lineNumber);
+        }
+        return plans;
+    }
+
+    private static IllegalArgumentException invalid(int lineNumber) {
+        return new IllegalArgumentException("rate_table_invalid: line " + lineNumber);
+    }
+
+    private static IllegalArgumentException invalid(int lineNumber, Exception cause) {
+        return new IllegalArgumentException("rate_table_invalid: line " + lineNumber, cause);
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.tigelah.issuersimulator.infrastructure.rates;
+
+import br.com.tigelah.issuersimulator.domain.services.RateTable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Tabela de taxas carregada de arquivo ({@link RateTableFile}) e trocada a quente.
+ *
+ * <p>Copy-on-write: a recarga monta uma {@link RateTable} nova inteira fora do caminho de leitura e só
+ * então publica a referência ({@code volatile}). Quem lê pega uma tabela completa, antiga ou nova, sem
+ * lock. Arquivo inválido na recarga mantém a tabela atual; no startup, falha.
+ *
+ * <p>{@link #reloadIfChanged()} compara data de modificação e tamanho do arquivo — é o que o agendador
+ * chama. Depois de ler, confere o arquivo de novo: se mudou durante a leitura (escrita em andamento), a
+ * tabela lida é descartada e a próxima rodada tenta outra vez. Isso pega a escrita que altera data ou
+ * tamanho; para não depender disso, publique o arquivo com rename atômico.
+ *
+ * <p>Métricas: {@code issuer.installments.rates.reload{outcome=success|failure}} (duração da carga) e
+ * os gauges {@code issuer.installments.rates.merchants}, {@code .plans} e {@code .version}.
+ */
+public final class ReloadableRateTable implements Supplier<RateTable> {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadableRateTable.class);
+
+    private final Path file;
+    private final BiFunction<Path, Long, RateTable> loader;
+    private final Timer loaded;
+    private final Timer failed;
+    private volatile RateTable current;
+    private FileStamp stamp;
+
+    public ReloadableRateTable(Path file, MeterRegistry registry) {
+        this(file, registry, RateTableFile::load);
+    }
+
+    ReloadableRateTable(Path file, MeterRegistry registry, BiFunction<Path, Long, RateTable> loader) {
+        this.file = file;
+        this.loader = loader;
+        this.loaded = reloadTimer(registry, "success");
+        this.failed = reloadTimer(registry, "failure");
+        this.stamp = FileStamp.of(file);
+        this.current = load(1);
+        Gauge.builder("issuer.installments.rates.merchants", this, t -> t.get().merchantCount())
+                .description("Merchants with their own rate row, fallback included")
+                .register(registry);
+        Gauge.builder("issuer.installments.rates.plans", this, t -> t.get().planCount())
+                .description("Allowed installment plans")
+                .register(registry);
+        Gauge.builder("issuer.installments.rates.version", this, t -> t.get().version())
+                .description("Rate table version in use, incremented on every reload")
+                .register(registry);
+    }
+
+    @Override
+    public RateTable get() {
+        return current;
+    }
+
+    /** Recarrega se o arquivo mudou desde a última carga; {@code true} se publicou uma tabela nova. */
+    public synchronized boolean reloadIfChanged() {
+        FileStamp now;
+        try {
+            now = FileStamp.of(file);
+        } catch (UncheckedIOException e) {
+            log.warn("rate_table_reload_failed file={}", file, e);
+            return false;
+        }
+        if (now.equals(stamp)) return false;
+        RateTable table;
+        try {
+            table = load(current.version() + 1);
+        } catch (RuntimeException e) {
+            if (!unchangedSince(now)) return false; // escrita em andamento: tenta de novo quando assentar
+            // mantém a tabela atual; o mesmo arquivo não é tentado de novo até mudar
+            stamp = now;
+            log.warn("rate_table_reload_failed file={}", file, e);
+            return false;
+        }
+        if (!unchangedSince(now)) {
+            log.info("rate_table_reload_deferred file={} reason=changed_while_reading", file);
+            return false;
+        }
+        current = table;
+        stamp = now;
+        log.info("rate_table_reloaded file={} version={} merchants={}", file, table.version(), table.merchantCount());
+        return true;
+    }
+
+    private boolean unchangedSince(FileStamp before) {
+        try {
+            return FileStamp.of(file).equals(before);
+        } catch (UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    private RateTable load(long version) {
+        long start = System.nanoTime();
+        try {
+            var table = loader.apply(file, version);
+            loaded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return table;
+        } catch (RuntimeException e) {
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer reloadTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("issuer.installments.rates.reload")
+                .description("Rate table file load duration")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record FileStamp(long modifiedMillis, long size) {
+        static FileStamp of(Path file) {
+            try {
+                var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed_to_read_rate_table", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.tigelah.issuersimulator.application.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    void ids_are_unique_across_threads() throws Exception {
+        var ids = new IdGenerator(7);
+        Set<String> authCodes = ConcurrentHashMap.newKeySet();
+        Set<UUID> eventIds = ConcurrentHashMap.newKeySet();
+        int threads = 16;
+        int perThread = 50_000;
+        var start = new CountDownLatch(1);
+        var workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    authCodes.add(ids.authCode());
+                    eventIds.add(ids.eventId());
+                }
+            }));
+        }
+        start.countDown();
+        for (var worker : workers) worker.join();
+
+        assertEquals(threads * perThread, authCodes.size());
+        assertEquals(threads * perThread, eventIds.size());
+    }
+
+    @Test
+    void auth_code_is_fixed_width_with_node_time_and_sequence() {
+        var ids = new IdGenerator(37, () -> NOW);
+
+        var first = ids.authCode();
+        var second = ids.authCode();
+
+        assertEquals(IdGenerator.AUTH_CODE_LENGTH, first.length());
+        assertTrue(first.matches("SIM[0-9A-Z]{12}"), first);
+        assertEquals("SIM11", first.substring(0, 5));
+        long seconds = Long.parseLong(first.substring(5, 11), 36);
+        assertEquals(NOW / 1000 - IdGenerator.AUTH_EPOCH_SECOND, seconds);
+        assertEquals(0, Long.parseLong(first.substring(11), 36));
+        assertEquals(1, Long.parseLong(second.substring(11), 36));
+        assertEquals("SIM00", new IdGenerator(0, () -> NOW).authCode().substring(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(IdGenerator.MAX_NODE_ID + 1));
+    }
+
+    @Test
+    void auth_code_borrows_the_next_second_instead_of_repeating() {
+        var clock = new AtomicLong(NOW);
+        var ids = new IdGenerator(1, clock::get);
+        var seen = new HashSet<String>();
+
+        for (long i = 0; i <= IdGenerator.MAX_SEQUENCE + 10; i++) assertTrue(seen.add(ids.authCode()));
+        // relógio volta: continua a partir do segundo adiantado
+        clock.set(NOW - 60_000);
+        for (int i = 0; i < 10; i++) assertTrue(seen.add(ids.authCode()));
+    }
+
+    @Test
+    void event_ids_are_uuid_v7_and_increase_within_a_thread() {
+        var clock = new AtomicLong(NOW);
+        var ids = new IdGenerator(0, clock::get);
+
+        UUID previous = null;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) clock.set(NOW - 1_000);
+            if (i == 7_000) clock.set(NOW + 5);
+            var id = ids.eventId();
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            if (previous != null) assertTrue(compareUnsigned(previous, id) < 0, "ids must increase");
+            previous = id;
+        }
+        var first = new IdGenerator(0, () -> NOW).eventId();
+        assertEquals(NOW, first.getMostSignificantBits() >>> 16);
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
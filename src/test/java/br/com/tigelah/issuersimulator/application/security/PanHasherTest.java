@@ -0,0 +1,82 @@
+package br.com.tigelah.issuersimulator.application.security;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PanHasherTest {
+
+    @Test
+    void plain_mode_matches_legacy_hex_format() throws Exception {
+        for (var pan : new String[]{"4111111111111111", "5555555555554444", "", "1234 5678", "cartão-ñ"}) {
+            assertEquals(legacySha256(pan), PanHasher.sha256(pan));
+            assertEquals(legacySha256(pan), PanHasher.plain().hash(new StringBuilder(pan)));
+
+            var bytes = pan.getBytes(StandardCharsets.UTF_8);
+            assertEquals(legacySha256(pan), PanHasher.plain().hash(bytes, 0, bytes.length));
+
+            var chars = ("xx" + pan + "yy").toCharArray();
+            assertEquals(legacySha256(pan), PanHasher.plain().hash(chars, 2, pan.length()));
+        }
+    }
+
+    @Test
+    void hash_into_writes_hex_without_string() throws Exception {
+        var out = new char[70];
+        PanHasher.plain().hashInto("4111111111111111", out, 3);
+        assertEquals(legacySha256("4111111111111111"), new String(out, 3, 64));
+    }
+
+    @Test
+    void hmac_mode_matches_jdk_mac_and_differs_from_plain() throws Exception {
+        var key = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+        var hasher = PanHasher.hmac(key);
+
+        var mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        var expected = toHex(mac.doFinal("4111111111111111".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(expected, hasher.hash("4111111111111111"));
+        assertEquals(expected, hasher.hash("4111111111111111"));
+        assertNotEquals(PanHasher.sha256("4111111111111111"), expected);
+    }
+
+    @Test
+    void rejects_short_hmac_key() {
+        assertThrows(IllegalArgumentException.class, () -> PanHasher.hmac(new byte[8]));
+    }
+
+    @Test
+    void is_safe_across_threads() throws Exception {
+        var results = new ConcurrentHashMap<String, String>();
+        try (var pool = Executors.newFixedThreadPool(8)) {
+            IntStream.range(0, 2_000).forEach(i -> pool.submit(() -> {
+                var pan = "4111" + String.format("%012d", i);
+                results.put(pan, PanHasher.sha256(pan));
+            }));
+        }
+        assertEquals(2_000, results.size());
+        assertEquals(2_000, new HashSet<>(results.values()).size());
+        for (var e : results.entrySet()) assertEquals(legacySha256(e.getKey()), e.getValue());
+    }
+
+    private static String legacySha256(String pan) throws Exception {
+        var md = MessageDigest.getInstance("SHA-256");
+        return toHex(md.digest(pan.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String toHex(byte[] bytes) {
+        var sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(String.format("%02x", b));
+        return sb.toString();
+    }
+}
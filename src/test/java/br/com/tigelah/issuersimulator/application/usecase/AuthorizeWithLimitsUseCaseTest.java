@@ -1,22 +1,39 @@
 package br.com.tigelah.issuersimulator.application.usecase;
 
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.domain.services.SpendWindows;
 import br.com.tigelah.issuersimulator.infrastructure.http.LedgerClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class AuthorizeWithLimitsUseCaseTest {
 
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
 
     @Test
     void declines_when_daily_limit_exceeded() {
-        var uc = new AuthorizeWithLimitsUseCase();
-        var rule = new LedgerClient.LimitRule("USER","u1","BRL", 0, 10, 0);
+        var uc = new AuthorizeWithLimitsUseCase(executor);
+        var rule = new LedgerGateway.LimitRule("USER","u1","BRL", 0, 10, 0);
         LedgerClient ledger = new FakeLedger(100, Optional.of(rule), Optional.empty());
 
         var d = uc.execute(UUID.randomUUID(), 11, "u1", "", ledger);
@@ -26,7 +43,7 @@ class AuthorizeWithLimitsUseCaseTest {
 
     @Test
     void approves_when_within_limits_and_credit() {
-        var uc = new AuthorizeWithLimitsUseCase();
+        var uc = new AuthorizeWithLimitsUseCase(executor);
         LedgerClient ledger = new FakeLedger(100, Optional.empty(), Optional.empty());
 
         var d = uc.execute(UUID.randomUUID(), 10, "u1", "h1", ledger);
@@ -56,12 +73,13 @@ class AuthorizeWithLimitsUseCaseTest {
     @Test
     void approves_and_generates_auth_code_when_ok() {
         var ledger = mock(LedgerClient.class);
-        var available = mock(LedgerClient.AvailableCredit.class);
+        var available = mock(LedgerGateway.AvailableCredit.class);
         when(available.availableCents()).thenReturn(10_000L);
+        when(ledger.getAvailableCredit(any(), anyString())).thenReturn(available);
         when(ledger.getUserLimit(anyString())).thenReturn(Optional.empty());
         when(ledger.getPanLimit(anyString())).thenReturn(Optional.empty());
 
-        var uc = new AuthorizeWithLimitsUseCase();
+        var uc = new AuthorizeWithLimitsUseCase(executor);
         var out = uc.execute(UUID.randomUUID(), 1000, "u1", "h1", ledger);
 
         assertTrue(out.authorized());
@@ -73,15 +91,112 @@ class AuthorizeWithLimitsUseCaseTest {
     @Test
     void declines_when_insufficient_funds() {
         var ledger = mock(LedgerClient.class);
-        var available = mock(LedgerClient.AvailableCredit.class);
+        var available = mock(LedgerGateway.AvailableCredit.class);
         when(available.availableCents()).thenReturn(500L);
         when(ledger.getAvailableCredit(any(), anyString())).thenReturn(available);
 
-        var uc = new AuthorizeWithLimitsUseCase();
+        var uc = new AuthorizeWithLimitsUseCase(executor);
         var out = uc.execute(UUID.randomUUID(), 1000, "u1", "h1", ledger);
 
         assertFalse(out.authorized());
         assertEquals("insufficient_funds", out.reason());
         assertNull(out.authCode());
     }
+
+    @Test
+    void starts_ledger_lookups_concurrently() {
+        var started = new CountDownLatch(3);
+        var ledger = new FakeLedger(100, Optional.empty(), Optional.empty()) {
+            @Override public AvailableCredit getAvailableCredit(UUID accountId, String correlationId) {
+                awaitAll(started);
+                return super.getAvailableCredit(accountId, correlationId);
+            }
+            @Override public Optional<LimitRule> getUserLimit(String userId) { awaitAll(started); return super.getUserLimit(userId); }
+            @Override public Optional<LimitRule> getPanLimit(String panHash) { awaitAll(started); return super.getPanLimit(panHash); }
+        };
+
+        var d = new AuthorizeWithLimitsUseCase(executor).execute(UUID.randomUUID(), 10, "u1", "h1", ledger);
+
+        assertTrue(d.authorized());
+        assertEquals(0, started.getCount());
+    }
+
+    @Test
+    void user_rule_wins_over_pan_rule() {
+        var userRule = new LedgerGateway.LimitRule("USER", "u1", "BRL", 0, 50, 0);
+        var panRule = new LedgerGateway.LimitRule("PAN", "h1", "BRL", 0, 5, 0);
+        LedgerClient ledger = new FakeLedger(100, Optional.of(userRule), Optional.of(panRule));
+
+        var d = new AuthorizeWithLimitsUseCase(executor).execute(UUID.randomUUID(), 10, "u1", "h1", ledger);
+
+        assertTrue(d.authorized());
+    }
+
+    @Test
+    void propagates_ledger_failure() {
+        var ledger = mock(LedgerClient.class);
+        when(ledger.getAvailableCredit(any(), anyString())).thenThrow(new IllegalStateException("failed_to_call_ledger"));
+
+        var uc = new AuthorizeWithLimitsUseCase(executor);
+        var ex = assertThrows(IllegalStateException.class, () -> uc.execute(UUID.randomUUID(), 10, "u1", "h1", ledger));
+        assertEquals("failed_to_call_ledger", ex.getMessage());
+    }
+
+    @Test
+    void declines_as_issuer_unavailable_when_gateway_refuses_the_call() {
+        var ledger = mock(LedgerClient.class);
+        when(ledger.getAvailableCredit(any(), anyString())).thenReturn(new LedgerGateway.AvailableCredit(UUID.randomUUID(), 100, "BRL", 0, 0));
+        when(ledger.getUserLimit(anyString())).thenThrow(new IllegalStateException("ledger_circuit_open"));
+
+        var d = new AuthorizeWithLimitsUseCase(executor).execute(UUID.randomUUID(), 10, "u1", "h1", ledger);
+        assertFalse(d.authorized());
+        assertEquals("issuer_unavailable", d.reason());
+
+        when(ledger.getAvailableCredit(any(), anyString())).thenThrow(new IllegalStateException("ledger_bulkhead_full"));
+        assertEquals("issuer_unavailable", new AuthorizeWithLimitsUseCase(executor).execute(UUID.randomUUID(), 10, "u1", "h1", ledger).reason());
+    }
+
+    private static void awaitAll(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            if (!latch.await(2, TimeUnit.SECONDS)) throw new IllegalStateException("lookups_not_concurrent");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void daily_limit_applies_to_cumulative_spend_when_windows_enabled() {
+        var clock = Clock.fixed(Instant.parse("2030-01-01T12:00:00Z"), ZoneOffset.UTC);
+        var windows = new SpendWindows(clock, ZoneOffset.UTC, Duration.ofDays(35));
+        var uc = new AuthorizeWithLimitsUseCase(Runnable::run, windows);
+        var rule = new LedgerGateway.LimitRule("USER", "u1", "BRL", 0, 100, 0);
+        LedgerClient ledger = new FakeLedger(1_000, Optional.of(rule), Optional.empty());
+
+        assertTrue(uc.execute(UUID.randomUUID(), 60, "u1", "", ledger).authorized());
+        var second = uc.execute(UUID.randomUUID(), 60, "u1", "", ledger);
+        assertFalse(second.authorized());
+        assertEquals("limit_exceeded", second.reason());
+        assertTrue(uc.execute(UUID.randomUUID(), 40, "u1", "", ledger).authorized());
+
+        // outro usuário tem a própria janela
+        assertTrue(uc.execute(UUID.randomUUID(), 60, "u2", "", ledger).authorized());
+    }
+
+    @Test
+    void released_authorization_frees_its_window_amount() {
+        var clock = Clock.fixed(Instant.parse("2030-01-01T12:00:00Z"), ZoneOffset.UTC);
+        var windows = new SpendWindows(clock, ZoneOffset.UTC, Duration.ofDays(35));
+        var uc = new AuthorizeWithLimitsUseCase(Runnable::run, windows);
+        var rule = new LedgerGateway.LimitRule("PAN", "h1", "BRL", 0, 0, 100);
+        LedgerClient ledger = new FakeLedger(1_000, Optional.empty(), Optional.of(rule));
+
+        var first = uc.execute(UUID.randomUUID(), 80, "", "h1", ledger);
+        assertTrue(first.authorized());
+        first.release();
+
+        assertEquals(0, windows.monthlySpent(SpendWindows.Scope.PAN, "h1"));
+        assertTrue(uc.execute(UUID.randomUUID(), 80, "", "h1", ledger).authorized());
+    }
 }
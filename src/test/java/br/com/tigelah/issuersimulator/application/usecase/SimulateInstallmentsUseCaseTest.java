@@ -0,0 +1,107 @@
+package br.com.tigelah.issuersimulator.application.usecase;
+
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase.Item;
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase.Settings;
+import br.com.tigelah.issuersimulator.domain.model.InstallmentBreakdown;
+import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import br.com.tigelah.issuersimulator.domain.services.RateTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulateInstallmentsUseCaseTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicReference<RateTable> table = new AtomicReference<>(table(1, 20_000));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void returns_every_plan_with_a_rate_for_the_merchant() {
+        var useCase = useCase(new Settings(100, 1000, 64));
+
+        var simulation = useCase.execute("m1", 10_000);
+
+        assertEquals(1, simulation.rateTableVersion());
+        assertEquals(new InstallmentBreakdown(1, 10_000, 0, 10_000, 10_000), simulation.plans().get(0));
+        assertEquals(new InstallmentBreakdown(2, 10_000, 150, 10_150, 5_075), simulation.plans().get(1));
+        // m1 não tem taxa para 6x; 12x vem da própria linha
+        assertEquals(3, simulation.plans().size());
+        assertEquals(12, simulation.plans().get(2).installments());
+
+        var fallback = useCase.execute("other", 10_000).plans();
+        assertEquals(4, fallback.size());
+        assertEquals(200, fallback.get(1).interestCents());
+    }
+
+    @Test
+    void caches_by_merchant_amount_and_table_version() {
+        var useCase = useCase(new Settings(100, 1000, 64));
+
+        useCase.execute("other", 10_000);
+        useCase.execute("other", 10_000);
+        assertEquals(1, registry.get("cache.gets").tag("cache", "installments.simulations").tag("result", "hit")
+                .functionCounter().count());
+
+        table.set(table(2, 30_000));
+        var reloaded = useCase.execute("other", 10_000);
+
+        assertEquals(2, reloaded.rateTableVersion());
+        assertEquals(300, reloaded.plans().get(1).interestCents());
+    }
+
+    @Test
+    void bulk_keeps_item_order_across_parallel_chunks() {
+        var useCase = useCase(new Settings(0, 1000, 7));
+        var items = new ArrayList<Item>();
+        for (int i = 1; i <= 500; i++) items.add(new Item(i % 2 == 0 ? "m1" : "other", i * 100L));
+
+        var bulk = useCase.executeAll(items);
+
+        assertEquals(500, bulk.results().size());
+        for (int i = 0; i < 500; i++) {
+            var item = items.get(i);
+            var result = bulk.results().get(i);
+            assertEquals(item.merchantId(), result.merchantId());
+            assertEquals(item.amountCents(), result.amountCents());
+            assertEquals(useCase.execute(item.merchantId(), item.amountCents()).plans(), result.plans());
+        }
+    }
+
+    @Test
+    void rejects_invalid_items_and_oversized_bulks() {
+        var useCase = useCase(new Settings(100, 2, 64));
+
+        assertEquals("amount_invalid",
+                assertThrows(IllegalArgumentException.class, () -> useCase.execute("m1", 0)).getMessage());
+        assertEquals("merchant_id_required",
+                assertThrows(IllegalArgumentException.class, () -> useCase.execute(" ", 100)).getMessage());
+        var tooMany = new ArrayList<Item>();
+        for (int i = 0; i < 3; i++) tooMany.add(new Item("m1", 100));
+        assertEquals("too_many_items",
+                assertThrows(IllegalArgumentException.class, () -> useCase.executeAll(tooMany)).getMessage());
+    }
+
+    private SimulateInstallmentsUseCase useCase(Settings settings) {
+        return new SimulateInstallmentsUseCase(new InstallmentCalculator(table::get), executor, settings, registry);
+    }
+
+    private static RateTable table(long version, long fallbackTwo) {
+        return RateTable.builder(Set.of(1, 2, 6, 12))
+                .rate("*", 2, fallbackTwo).rate("*", 6, 60_000).rate("*", 12, 120_000)
+                .rate("m1", 2, 15_000).rate("m1", 12, 100_000)
+                .build(version);
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.tigelah.issuersimulator.domain.services;
+
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule;
+import br.com.tigelah.issuersimulator.domain.model.IssuerRule.Dimension;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledIssuerRulesTest {
+
+    private final CompiledIssuerRules rules = CompiledIssuerRules.compile(1_000_000, IssuerRule.parseList(
+            "merchant:m13:block, mcc:7995:block, currency:usd:cap=200000, bin:411111:cap=50000, "
+                    + "bin:41111122:block, merchant:m7:cap=1000, merchant:m7:cap=5000"));
+
+    @Test
+    void keeps_simple_rules_behaviour() {
+        assertEquals("risk_rejected", rules.authorize(10, false).reason());
+        assertEquals("amount_invalid", rules.authorize(0, true).reason());
+        assertEquals("amount_exceeded", rules.authorize(1_000_001, true).reason());
+        var approved = rules.authorize(10, true, "m1", "5812", "BRL", "550000");
+        assertTrue(approved.approved());
+        assertEquals("ISSUER_OK", approved.authCode());
+    }
+
+    @Test
+    void blocks_and_caps_per_dimension() {
+        assertEquals("merchant_blocked", rules.authorize(10, true, "m13", null, "BRL", null).reason());
+        assertEquals("mcc_blocked", rules.authorize(10, true, "m1", "7995", "BRL", null).reason());
+        assertEquals("currency_amount_exceeded", rules.authorize(200_001, true, "m1", null, "USD", null).reason());
+        assertTrue(rules.authorize(200_000, true, "m1", null, "USD", null).approved());
+        // entre dois tetos da mesma chave vale o menor
+        assertEquals("merchant_amount_exceeded", rules.authorize(1_001, true, "m7", null, "BRL", null).reason());
+    }
+
+    @Test
+    void currency_matches_regardless_of_case_on_either_side() {
+        var lowercase = CompiledIssuerRules.compile(1_000_000, IssuerRule.parseList("currency:usd:block"));
+
+        assertEquals("currency_blocked", lowercase.authorize(10, true, "m1", null, "usd", null).reason());
+        assertEquals("currency_blocked", lowercase.authorize(10, true, "m1", null, "Usd", null).reason());
+        assertEquals("currency_blocked", lowercase.authorize(10, true, "m1", null, "USD", null).reason());
+        assertEquals("currency_amount_exceeded", rules.authorize(200_001, true, "m1", null, "usd", null).reason());
+        assertTrue(lowercase.authorize(10, true, "m1", null, "brl", null).approved());
+        assertTrue(lowercase.authorize(10, true, "m1", null, null, null).approved());
+    }
+
+    @Test
+    void matches_bin_prefixes_of_every_configured_length() {
+        assertEquals("bin_blocked", rules.authorize(10, true, "m1", null, "BRL", "41111122").reason());
+        assertEquals("bin_amount_exceeded", rules.authorize(50_001, true, "m1", null, "BRL", "41111199").reason());
+        assertTrue(rules.authorize(50_001, true, "m1", null, "BRL", "411112").approved());
+        assertTrue(rules.authorize(50_001, true, "m1", null, "BRL", "41x111").approved());
+        assertTrue(rules.authorize(50_001, true, "m1", null, "BRL", "4111").approved());
+    }
+
+    @Test
+    void counts_hits_per_rule() {
+        rules.authorize(10, true, "m13", null, "BRL", null);
+        rules.authorize(10, true, "m13", null, "BRL", null);
+        rules.authorize(2_000_000, true, "m13", null, "BRL", null);
+        rules.authorize(10, true, "m1", null, "BRL", null);
+
+        var ids = rules.ruleIds();
+        assertEquals(CompiledIssuerRules.GLOBAL_CAP_ID, ids.get(0));
+        assertEquals(2, rules.hits(ids.indexOf("merchant:m13:block")));
+        assertEquals(1, rules.hits(0));
+        assertEquals(0, rules.hits(ids.indexOf("mcc:7995:block")));
+    }
+
+    @Test
+    void evaluates_cheap_dimensions_first_and_skips_empty_ones() {
+        assertEquals(List.of(Dimension.CURRENCY, Dimension.MERCHANT, Dimension.MCC, Dimension.BIN), rules.evaluationOrder());
+
+        // mesmo custo: a dimensão com mais bloqueios vai antes
+        var mccHeavy = CompiledIssuerRules.compile(1_000, IssuerRule.parseList(
+                "merchant:m1:block, mcc:7995:block, mcc:7801:block"));
+        assertEquals(List.of(Dimension.MCC, Dimension.MERCHANT), mccHeavy.evaluationOrder());
+
+        var onlyMerchants = CompiledIssuerRules.compile(1_000, List.of(IssuerRule.block(Dimension.MERCHANT, "m1")));
+        assertEquals(List.of(Dimension.MERCHANT), onlyMerchants.evaluationOrder());
+    }
+
+    @Test
+    void rejects_invalid_specs() {
+        assertThrows(IllegalArgumentException.class, () -> IssuerRule.parseList("merchant:m1"));
+        assertThrows(IllegalArgumentException.class, () -> IssuerRule.parseList("country:BR:block"));
+        assertThrows(IllegalArgumentException.class, () -> IssuerRule.parseList("bin:41ab11:block"));
+        assertThrows(IllegalArgumentException.class, () -> IssuerRule.parseList("mcc:5812:cap=0"));
+        assertTrue(IssuerRule.parseList("  ").isEmpty());
+    }
+}
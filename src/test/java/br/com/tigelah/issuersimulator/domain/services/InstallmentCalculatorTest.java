@@ -4,8 +4,10 @@ import br.com.tigelah.issuersimulator.domain.model.InstallmentBreakdown;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Map;
 import java.util.Set;
+import java.util.SplittableRandom;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -146,4 +148,65 @@ class InstallmentCalculatorTest {
         assertEquals(1001, b.totalCents());
         assertEquals(501, b.installmentAmountCents());
     }
+
+    @Test
+    void rejects_rates_beyond_ppm_precision() {
+        var ex = assertThrows(IllegalArgumentException.class, () -> new InstallmentCalculator(
+                Set.of(1, 2),
+                Map.of("*", Map.of(2, new BigDecimal("0.0000001")))
+        ));
+        assertEquals("rate_precision_not_supported", ex.getMessage());
+    }
+
+    @Test
+    void fixed_point_interest_matches_big_decimal_half_up_across_long_range() {
+        var random = new SplittableRandom(42);
+        long[] edges = {0, 1, -1, 499_999, 500_000, 999_999, 1_000_000, 1_000_001, -499_999, -500_000, -1_000_001,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1};
+        long[] rates = {0, 1, 5, 15_000, 20_000, 60_000, 120_000, 333_333, 500_000, 999_999, 1_000_000, 2_500_000, -15_000};
+
+        for (long ratePpm : rates) {
+            for (long amount : edges) assertSameInterest(amount, ratePpm);
+        }
+        for (int i = 0; i < 200_000; i++) {
+            long amount = switch (i % 3) {
+                case 0 -> random.nextLong();
+                case 1 -> random.nextLong(-100_000_000_000L, 100_000_000_000L);
+                default -> random.nextLong(0, 10_000_000L);
+            };
+            assertSameInterest(amount, random.nextLong(-2_000_000, 5_000_000));
+        }
+    }
+
+    @Test
+    void breakdown_matches_big_decimal_reference() {
+        var rates = Map.of(
+                "*", Map.of(2, new BigDecimal("0.020"), 6, new BigDecimal("0.060"), 12, new BigDecimal("0.120")),
+                "m1", Map.of(2, new BigDecimal("0.015"), 6, new BigDecimal("0.050"), 12, new BigDecimal("0.1234"))
+        );
+        var calc = new InstallmentCalculator(Set.of(1, 2, 6, 12), rates);
+        var random = new SplittableRandom(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            long amount = random.nextLong(1, 1_000_000_000L);
+            int plan = new int[]{2, 6, 12}[random.nextInt(3)];
+            var merchant = random.nextBoolean() ? "m1" : "other";
+            var rate = rates.getOrDefault(merchant, rates.get("*")).get(plan);
+
+            long interest = BigDecimal.valueOf(amount).multiply(rate).setScale(0, RoundingMode.HALF_UP).longValue();
+            long total = amount + interest;
+            var b = calc.calculate(merchant, amount, plan);
+
+            assertEquals(interest, b.interestCents());
+            assertEquals(total, b.totalCents());
+            assertEquals((total + plan - 1) / plan, b.installmentAmountCents());
+        }
+    }
+
+    private static void assertSameInterest(long amount, long ratePpm) {
+        var rate = BigDecimal.valueOf(ratePpm, 6);
+        long expected = BigDecimal.valueOf(amount).multiply(rate).setScale(0, RoundingMode.HALF_UP).longValue();
+        assertEquals(expected, InstallmentCalculator.interestCents(amount, ratePpm),
+                () -> "amount=" + amount + " ratePpm=" + ratePpm);
+    }
 }
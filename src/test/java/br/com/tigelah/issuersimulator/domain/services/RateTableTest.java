@@ -0,0 +1,61 @@
+package br.com.tigelah.issuersimulator.domain.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateTableTest {
+
+    @Test
+    void finds_every_merchant_of_a_large_table() {
+        var builder = RateTable.builder(Set.of(1, 2, 6, 12));
+        builder.rate("*", 2, 20_000);
+        for (int i = 0; i < 50_000; i++) {
+            builder.rate("m" + i, 2, i).rate("m" + i, 12, 100_000 + i);
+        }
+        var table = builder.build(7);
+
+        assertEquals(50_001, table.merchantCount());
+        assertEquals(4, table.planCount());
+        assertEquals(7, table.version());
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(i, table.ratePpm("m" + i, 2));
+            assertEquals(100_000 + i, table.ratePpm("m" + i, 12));
+            assertEquals(RateTable.NO_RATE, table.ratePpm("m" + i, 6));
+        }
+        assertEquals(20_000, table.ratePpm("unknown", 2));
+        assertEquals(RateTable.NO_RATE, table.ratePpm("unknown", 12));
+    }
+
+    @Test
+    void rejects_a_merchant_row_opened_twice() {
+        var builder = RateTable.builder(Set.of(1, 2)).merchant("m1").rate("m1", 2, 15_000);
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> builder.merchant("m1"));
+        assertEquals("merchant_duplicated", ex.getMessage());
+        assertEquals(15_000, builder.build(1).ratePpm("m1", 2));
+    }
+
+    @Test
+    void without_fallback_row_unknown_merchant_has_no_rate() {
+        var table = RateTable.builder(Set.of(1, 2)).rate("m1", 2, 15_000).build(1);
+
+        assertEquals(15_000, table.ratePpm("m1", 2));
+        assertEquals(RateTable.NO_RATE, table.ratePpm("m2", 2));
+        assertEquals(RateTable.NO_RATE, table.ratePpm(null, 2));
+    }
+
+    @Test
+    void ignores_plans_outside_allowed_and_rejects_rates_out_of_range() {
+        var builder = RateTable.builder(Set.of(1, 2)).rate("m1", 6, 60_000);
+        var table = builder.build(1);
+
+        assertFalse(table.isAllowed(6));
+        assertEquals(RateTable.NO_RATE, table.ratePpm("m1", 6));
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> builder.rate("m1", 2, 1L << 40));
+        assertEquals("rate_out_of_range", ex.getMessage());
+    }
+}
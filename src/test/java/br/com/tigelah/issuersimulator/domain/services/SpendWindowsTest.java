@@ -0,0 +1,124 @@
+package br.com.tigelah.issuersimulator.domain.services;
+
+import br.com.tigelah.issuersimulator.domain.services.SpendWindows.Scope;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpendWindowsTest {
+
+    @Test
+    void accumulates_per_key_until_the_daily_limit() {
+        var clock = new MutableClock("2030-03-10T10:00:00Z");
+        var windows = new SpendWindows(clock, ZoneOffset.UTC, Duration.ofDays(35));
+
+        assertNotNull(windows.tryReserve(Scope.USER, "u1", 400, 1_000, 0));
+        assertNotNull(windows.tryReserve(Scope.USER, "u1", 600, 1_000, 0));
+        assertNull(windows.tryReserve(Scope.USER, "u1", 1, 1_000, 0));
+        assertEquals(1_000, windows.dailySpent(Scope.USER, "u1"));
+
+        // mesma chave em outro escopo é outra janela
+        assertNotNull(windows.tryReserve(Scope.PAN, "u1", 1_000, 1_000, 0));
+    }
+
+    @Test
+    void daily_window_rolls_over_while_monthly_keeps_accumulating() {
+        var clock = new MutableClock("2030-03-10T23:59:00Z");
+        var windows = new SpendWindows(clock, ZoneOffset.UTC, Duration.ofDays(35));
+
+        assertNotNull(windows.tryReserve(Scope.USER, "u1", 900, 1_000, 1_500));
+        assertNull(windows.tryReserve(Scope.USER, "u1", 200, 1_000, 1_500));
+
+        clock.set("2030-03-11T00:00:01Z");
+        assertEquals(0, windows.dailySpent(Scope.USER, "u1"));
+        assertNotNull(windows.tryReserve(Scope.USER, "u1", 500, 1_000, 1_500));
+        assertEquals(1_400, windows.monthlySpent(Scope.USER, "u1"));
+        // diário ok, mensal estoura: nada fica reservado
+        assertNull(windows.tryReserve(Scope.USER, "u1", 200, 1_000, 1_500));
+        assertEquals(500, windows.dailySpent(Scope.USER, "u1"));
+
+        clock.set("2030-04-01T00:00:00Z");
+        assertEquals(0, windows.monthlySpent(Scope.USER, "u1"));
+    }
+
+    @Test
+    void day_boundary_follows_the_configured_zone() {
+        var clock = new MutableClock("2030-03-11T02:00:00Z"); // 23:00 de 10/03 em São Paulo
+        var windows = new SpendWindows(clock, ZoneId.of("America/Sao_Paulo"), Duration.ofDays(35));
+
+        assertNotNull(windows.tryReserve(Scope.USER, "u1", 100, 100, 0));
+        clock.set("2030-03-11T02:59:00Z");
+        assertNull(windows.tryReserve(Scope.USER, "u1", 1, 100, 0));
+        clock.set("2030-03-11T03:00:00Z");
+        assertNotNull(windows.tryReserve(Scope.USER, "u1", 100, 100, 0));
+    }
+
+    @Test
+    void release_returns_the_reserved_amount() {
+        var windows = new SpendWindows(new MutableClock("2030-03-10T10:00:00Z"), ZoneOffset.UTC, Duration.ofDays(35));
+        var reservation = windows.tryReserve(Scope.PAN, "h1", 700, 1_000, 5_000);
+        reservation.release();
+        assertEquals(0, windows.dailySpent(Scope.PAN, "h1"));
+        assertEquals(0, windows.monthlySpent(Scope.PAN, "h1"));
+    }
+
+    @Test
+    void evicts_only_idle_keys() {
+        var clock = new MutableClock("2030-03-10T10:00:00Z");
+        var windows = new SpendWindows(clock, ZoneOffset.UTC, Duration.ofHours(1));
+        windows.tryReserve(Scope.USER, "idle", 10, 0, 0);
+        clock.set("2030-03-10T10:45:00Z");
+        windows.tryReserve(Scope.USER, "active", 10, 0, 0);
+
+        clock.set("2030-03-10T11:30:00Z");
+        assertEquals(1, windows.evictIdle());
+        assertEquals(1, windows.size());
+        assertEquals(10, windows.dailySpent(Scope.USER, "active"));
+        assertEquals(0, windows.dailySpent(Scope.USER, "idle"));
+    }
+
+    @Test
+    void concurrent_reservations_never_exceed_the_limit() throws Exception {
+        var windows = new SpendWindows(new MutableClock("2030-03-10T10:00:00Z"), ZoneOffset.UTC, Duration.ofDays(35));
+        var approved = new AtomicInteger();
+        int threads = 16;
+        var start = new CountDownLatch(1);
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        if (windows.tryReserve(Scope.USER, "hot", 7, 10_000, 0) != null) approved.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+        assertEquals(10_000 / 7, approved.get());
+        assertEquals(10_000 / 7 * 7L, windows.dailySpent(Scope.USER, "hot"));
+    }
+
+    static final class MutableClock extends Clock {
+        private final AtomicLong millis = new AtomicLong();
+
+        MutableClock(String instant) { set(instant); }
+
+        void set(String instant) { millis.set(Instant.parse(instant).toEpochMilli()); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public long millis() { return millis.get(); }
+        @Override public Instant instant() { return Instant.ofEpochMilli(millis()); }
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.tigelah.issuersimulator.entrypoints.http;
+
+import br.com.tigelah.issuersimulator.application.usecase.SimulateInstallmentsUseCase;
+import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import br.com.tigelah.issuersimulator.domain.services.RateTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class InstallmentsControllerTest {
+
+    private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new InstallmentsController(
+            new SimulateInstallmentsUseCase(
+                    new InstallmentCalculator(RateTable.builder(Set.of(1, 2, 6)).rate("*", 2, 20_000).rate("*", 6, 60_000).build(3)),
+                    Runnable::run, new SimulateInstallmentsUseCase.Settings(100, 10, 2), new SimpleMeterRegistry())))
+            .build();
+
+    @Test
+    void returns_all_plans_for_merchant_and_amount() throws Exception {
+        mvc.perform(get("/installments/simulations").param("merchantId", "m1").param("amountCents", "10000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rateTableVersion").value(3))
+                .andExpect(jsonPath("$.plans.length()").value(3))
+                .andExpect(jsonPath("$.plans[1].installments").value(2))
+                .andExpect(jsonPath("$.plans[1].interestCents").value(200))
+                .andExpect(jsonPath("$.plans[2].installmentAmountCents").value(1767));
+    }
+
+    @Test
+    void bulk_returns_results_in_request_order() throws Exception {
+        mvc.perform(post("/installments/simulations/bulk").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"items":[{"merchantId":"a","amountCents":100},{"merchantId":"b","amountCents":200},
+                                  {"merchantId":"c","amountCents":300}]}
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.length()").value(3))
+                .andExpect(jsonPath("$.results[2].merchantId").value("c"))
+                .andExpect(jsonPath("$.results[2].plans[1].interestCents").value(6));
+    }
+
+    @Test
+    void invalid_input_is_a_bad_request() throws Exception {
+        mvc.perform(get("/installments/simulations").param("merchantId", "m1").param("amountCents", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("amount_invalid"));
+        mvc.perform(post("/installments/simulations/bulk").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("items_required"));
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.tigelah.issuersimulator.entrypoints.kafka;
+
+import br.com.tigelah.issuersimulator.infrastructure.config.KafkaConfig;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.KafkaEventPublisher;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "issuer.consumer.mode=record",
+        "issuer.consumer.retry.initial-interval=10ms",
+        "issuer.consumer.retry.max-interval=20ms",
+        "issuer.ledger.mode=embedded",
+        "kafka.consumer.group-id=issuer-retry-test",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}"
+})
+@EmbeddedKafka(
+        kraft = true,
+        partitions = 1,
+        topics = { Topics.PAYMENT_RISK_APPROVED, Topics.PAYMENT_RISK_REJECTED, Topics.PAYMENT_AUTHORIZED, Topics.PAYMENT_DECLINED },
+        brokerProperties = "group.initial.rebalance.delay.ms=0"
+)
+@DirtiesContext
+class ConsumerRetryTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    /** O handler padrão do Spring Kafka desiste depois de 10 tentativas e comita o offset. */
+    private static final int DEFAULT_HANDLER_ATTEMPTS = 10;
+
+    @Autowired EmbeddedKafkaBroker broker;
+    @Autowired ObjectMapper mapper;
+    @Autowired DefaultErrorHandler errorHandler;
+    @Autowired @Qualifier(KafkaConfig.BATCH_LISTENER_FACTORY)
+    ConcurrentKafkaListenerContainerFactory<Object, Object> batchFactory;
+    @MockitoSpyBean KafkaEventPublisher publisher;
+
+    @Test
+    void publish_failure_outlasting_default_retries_keeps_the_offset_uncommitted() throws Exception {
+        var outage = new AtomicBoolean(true);
+        var attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            attempts.incrementAndGet();
+            if (outage.get()) throw new IllegalStateException("event_publish_failed");
+            return invocation.callRealMethod();
+        }).when(publisher).publishDeclined(any());
+
+        var paymentId = UUID.randomUUID();
+        try (var producer = new KafkaProducer<>(KafkaTestUtils.producerProps(broker), new StringSerializer(), new StringSerializer())) {
+            producer.send(new ProducerRecord<>(Topics.PAYMENT_RISK_REJECTED, paymentId.toString(), """
+                    {"type":"payment.risk.rejected","paymentId":"%s"}
+                    """.formatted(paymentId))).get();
+        }
+
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (attempts.get() <= DEFAULT_HANDLER_ATTEMPTS + 2 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertTrue(attempts.get() > DEFAULT_HANDLER_ATTEMPTS + 2, "attempts: " + attempts.get());
+        assertNull(committed(Topics.PAYMENT_RISK_REJECTED), "offset committed during the outage");
+
+        outage.set(false);
+        assertEquals(List.of(paymentId), readDeclined(paymentId));
+        awaitCommittedOffset(Topics.PAYMENT_RISK_REJECTED, 1);
+    }
+
+    @Test
+    void batch_factory_uses_the_same_error_handler() {
+        var container = batchFactory.createContainer(Topics.PAYMENT_RISK_APPROVED);
+        assertSame(errorHandler, container.getCommonErrorHandler());
+    }
+
+    private List<UUID> readDeclined(UUID paymentId) throws Exception {
+        var props = KafkaTestUtils.consumerProps("reader-" + UUID.randomUUID(), "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (var consumer = new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of(Topics.PAYMENT_DECLINED));
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                for (var record : consumer.poll(Duration.ofMillis(200))) {
+                    var found = UUID.fromString(mapper.readTree(record.value()).get("paymentId").asText());
+                    if (found.equals(paymentId)) return List.of(found);
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private OffsetAndMetadata committed(String topic) {
+        var props = KafkaTestUtils.consumerProps("issuer-retry-test", "false", broker);
+        try (var consumer = new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer())) {
+            var partition = new TopicPartition(topic, 0);
+            return consumer.committed(Set.of(partition)).get(partition);
+        }
+    }
+
+    private void awaitCommittedOffset(String topic, long atLeast) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        long offset = -1;
+        while (System.nanoTime() < deadline) {
+            var committed = committed(topic);
+            offset = committed == null ? -1 : committed.offset();
+            if (offset >= atLeast) return;
+            Thread.sleep(100);
+        }
+        throw new AssertionError("committed offset for " + topic + " is " + offset);
+    }
+}
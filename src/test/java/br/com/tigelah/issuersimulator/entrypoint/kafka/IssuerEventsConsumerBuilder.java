@@ -0,0 +1,86 @@
+package br.com.tigelah.issuersimulator.entrypoints.kafka;
+
+import br.com.tigelah.issuersimulator.application.ids.IdGenerator;
+import br.com.tigelah.issuersimulator.application.ports.EventPublisher;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.security.PanHasher;
+import br.com.tigelah.issuersimulator.application.usecase.AuthorizeByIssuerUseCase;
+import br.com.tigelah.issuersimulator.application.usecase.AuthorizeWithLimitsUseCase;
+import br.com.tigelah.issuersimulator.application.usecase.CalculateInstallmentsUseCase;
+import br.com.tigelah.issuersimulator.infrastructure.dedup.DecisionDedup;
+import br.com.tigelah.issuersimulator.infrastructure.metrics.PipelineMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Clock;
+
+/**
+ * Monta o {@link IssuerEventsConsumer} nos testes. O pipeline é obrigatório; o resto tem padrão de teste:
+ * hash sem pepper, métricas desligadas, dedup desligado e {@link IdGenerator#standalone()}.
+ */
+final class IssuerEventsConsumerBuilder {
+
+    private final ObjectMapper mapper;
+    private final AuthorizeByIssuerUseCase useCase;
+    private final LedgerGateway ledger;
+    private final AuthorizeWithLimitsUseCase limitsUseCase;
+    private final CalculateInstallmentsUseCase installmentsUseCase;
+    private final EventPublisher publisher;
+    private final Clock clock;
+    private PanHasher panHasher = PanHasher.plain();
+    private PipelineMetrics metrics = PipelineMetrics.noop();
+    private KeyOrderedDispatcher dispatcher;
+    private DecisionDedup dedup = DecisionDedup.disabled();
+    private IdGenerator ids = IdGenerator.standalone();
+
+    private IssuerEventsConsumerBuilder(ObjectMapper mapper, AuthorizeByIssuerUseCase useCase, LedgerGateway ledger,
+                                        AuthorizeWithLimitsUseCase limitsUseCase,
+                                        CalculateInstallmentsUseCase installmentsUseCase,
+                                        EventPublisher publisher, Clock clock) {
+        this.mapper = mapper;
+        this.useCase = useCase;
+        this.ledger = ledger;
+        this.limitsUseCase = limitsUseCase;
+        this.installmentsUseCase = installmentsUseCase;
+        this.publisher = publisher;
+        this.clock = clock;
+    }
+
+    static IssuerEventsConsumerBuilder consumer(ObjectMapper mapper, AuthorizeByIssuerUseCase useCase,
+                                                LedgerGateway ledger, AuthorizeWithLimitsUseCase limitsUseCase,
+                                                CalculateInstallmentsUseCase installmentsUseCase,
+                                                EventPublisher publisher, Clock clock) {
+        return new IssuerEventsConsumerBuilder(mapper, useCase, ledger, limitsUseCase, installmentsUseCase, publisher, clock);
+    }
+
+    IssuerEventsConsumerBuilder panHasher(PanHasher panHasher) {
+        this.panHasher = panHasher;
+        return this;
+    }
+
+    IssuerEventsConsumerBuilder metrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    IssuerEventsConsumerBuilder dispatcher(KeyOrderedDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        return this;
+    }
+
+    IssuerEventsConsumerBuilder dedup(DecisionDedup dedup) {
+        this.dedup = dedup;
+        return this;
+    }
+
+    IssuerEventsConsumerBuilder ids(IdGenerator ids) {
+        this.ids = ids;
+        return this;
+    }
+
+    /** Sem dispatcher informado, usa um em virtual threads (só o modo {@code parallel} o usa). */
+    IssuerEventsConsumer build() {
+        return new IssuerEventsConsumer(mapper, panHasher, useCase, ledger, limitsUseCase, installmentsUseCase,
+                publisher, clock, metrics,
+                dispatcher != null ? dispatcher : KeyOrderedDispatcher.virtualThreads(256), dedup, ids);
+    }
+}
@@ -3,24 +3,40 @@ package br.com.tigelah.issuersimulator.entrypoints.kafka;
 import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
 import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
 import br.com.tigelah.issuersimulator.application.ports.EventPublisher;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
 import br.com.tigelah.issuersimulator.application.usecase.AuthorizeByIssuerUseCase;
 import br.com.tigelah.issuersimulator.application.usecase.AuthorizeWithLimitsUseCase;
 import br.com.tigelah.issuersimulator.application.usecase.CalculateInstallmentsUseCase;
 import br.com.tigelah.issuersimulator.domain.services.SimpleIssuerRules;
 import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import br.com.tigelah.issuersimulator.domain.services.SpendWindows;
+import br.com.tigelah.issuersimulator.infrastructure.dedup.DecisionDedup;
 import br.com.tigelah.issuersimulator.infrastructure.http.LedgerClient;
+import br.com.tigelah.issuersimulator.infrastructure.metrics.PipelineMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.Duration;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static br.com.tigelah.issuersimulator.entrypoints.kafka.IssuerEventsConsumerBuilder.consumer;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -53,7 +69,7 @@ class IssuerEventsConsumerTest {
             @Override public void publishDeclined(PaymentDeclinedEvent event) { decRef.set(event); }
         };
 
-        var consumer = new IssuerEventsConsumer(mapper, issuerUc, ledger, limitsUc, installmentsUc, publisher, clock);
+        var consumer = consumer(mapper, issuerUc, ledger, limitsUc, installmentsUc, publisher, clock).build();
 
         var paymentId = UUID.randomUUID();
         var accountId = UUID.randomUUID();
@@ -78,7 +94,7 @@ class IssuerEventsConsumerTest {
         }
         """.formatted(UUID.randomUUID(), paymentId, accountId);
 
-        consumer.onMessage(msg);
+        consumer.onMessage(msg.getBytes(StandardCharsets.UTF_8));
 
         assertNull(decRef.get());
         assertNotNull(authRef.get());
@@ -110,7 +126,7 @@ class IssuerEventsConsumerTest {
             @Override public void publishDeclined(PaymentDeclinedEvent event) { decRef.set(event); }
         };
 
-        var consumer = new IssuerEventsConsumer(mapper, issuerUc, ledger, limitsUc, installmentsUc, publisher, clock);
+        var consumer = consumer(mapper, issuerUc, ledger, limitsUc, installmentsUc, publisher, clock).build();
 
         var msg = """
         {
@@ -130,10 +146,295 @@ class IssuerEventsConsumerTest {
         }
         """.formatted(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
 
-        consumer.onMessage(msg);
+        consumer.onMessage(msg.getBytes(StandardCharsets.UTF_8));
 
         assertNull(authRef.get());
         assertNotNull(decRef.get());
         assertEquals("invalid_installments", decRef.get().reason());
     }
+
+    @Test
+    void batch_mode_publishes_all_decisions_at_once() {
+        var mapper = new ObjectMapper().findAndRegisterModules();
+        var clock = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+        var issuerUc = new AuthorizeByIssuerUseCase(new SimpleIssuerRules(999999));
+        var ledger = mock(LedgerClient.class);
+
+        var limitsUc = mock(AuthorizeWithLimitsUseCase.class);
+        when(limitsUc.execute(any(), anyLong(), anyString(), anyString(), any()))
+                .thenReturn(new AuthorizeWithLimitsUseCase.LimitDecision(true, "ok", "SIM123"));
+
+        var calc = new InstallmentCalculator(Set.of(1,2,6,12), Map.of("*", Map.of(2, new BigDecimal("0.02"))));
+        var installmentsUc = new CalculateInstallmentsUseCase(calc);
+
+        var calls = new ArrayList<String>();
+        var authorized = new ArrayList<PaymentAuthorizedEvent>();
+        var declined = new ArrayList<PaymentDeclinedEvent>();
+        EventPublisher publisher = new EventPublisher() {
+            @Override public void publishAuthorized(PaymentAuthorizedEvent event) { calls.add("single"); }
+            @Override public void publishDeclined(PaymentDeclinedEvent event) { calls.add("single"); }
+            @Override public void publishAll(List<PaymentAuthorizedEvent> a, List<PaymentDeclinedEvent> d) {
+                calls.add("all");
+                authorized.addAll(a);
+                declined.addAll(d);
+            }
+        };
+
+        var consumer = consumer(mapper, issuerUc, ledger, limitsUc, installmentsUc, publisher, clock).build();
+
+        var approved = """
+        {"type":"payment.risk.approved","paymentId":"%s","correlationId":"c1","merchantId":"m1",
+         "amountCents":1000,"installments":2,"accountId":"%s","userId":"u1","panHash":"h1"}
+        """.formatted(UUID.randomUUID(), UUID.randomUUID());
+        var rejected = """
+        {"type":"payment.risk.rejected","paymentId":"%s","correlationId":"c2"}
+        """.formatted(UUID.randomUUID());
+
+        consumer.onBatch(List.of(
+                new ConsumerRecord<>("payment.risk.approved", 0, 0L, "k1", approved.getBytes(StandardCharsets.UTF_8)),
+                new ConsumerRecord<>("payment.risk.rejected", 0, 1L, "k2", rejected.getBytes(StandardCharsets.UTF_8)),
+                new ConsumerRecord<>("payment.risk.approved", 0, 2L, "k3", "not-json".getBytes(StandardCharsets.UTF_8))
+        ));
+
+        assertEquals(List.of("all"), calls);
+        assertEquals(1, authorized.size());
+        assertEquals(1, declined.size());
+        assertEquals("risk_rejected", declined.get(0).reason());
+        assertEquals(2, authorized.get(0).installments());
+    }
+
+    @Test
+    void records_stage_timers_and_decisions_by_reason() {
+        var mapper = new ObjectMapper().findAndRegisterModules();
+        var clock = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+        var registry = new SimpleMeterRegistry();
+
+        var limitsUc = mock(AuthorizeWithLimitsUseCase.class);
+        when(limitsUc.execute(any(), anyLong(), anyString(), anyString(), any()))
+                .thenReturn(new AuthorizeWithLimitsUseCase.LimitDecision(true, "ok", "SIM123"));
+        var calc = new InstallmentCalculator(Set.of(1,2,6,12), Map.of("*", Map.of(2, new BigDecimal("0.02"))));
+
+        EventPublisher publisher = new EventPublisher() {
+            @Override public void publishAuthorized(PaymentAuthorizedEvent event) { }
+            @Override public void publishDeclined(PaymentDeclinedEvent event) { }
+        };
+
+        var consumer = consumer(mapper, new AuthorizeByIssuerUseCase(new SimpleIssuerRules(999999)),
+                mock(LedgerClient.class), limitsUc, new CalculateInstallmentsUseCase(calc), publisher, clock)
+                .metrics(new PipelineMetrics(registry))
+                .build();
+
+        var approved = """
+        {"type":"payment.risk.approved","paymentId":"%s","merchantId":"m1","amountCents":1000,
+         "installments":%d,"accountId":"%s","userId":"u1","panHash":"h1"}
+        """;
+        consumer.onMessage(approved.formatted(UUID.randomUUID(), 2, UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        consumer.onMessage(approved.formatted(UUID.randomUUID(), 5, UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        consumer.onMessage("""
+        {"type":"payment.risk.rejected","paymentId":"%s"}
+        """.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        consumer.onMessage("{".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1.0, registry.get("issuer.decisions").tags("outcome", "authorized", "reason", "ok").counter().count());
+        assertEquals(1.0, registry.get("issuer.decisions").tags("outcome", "declined", "reason", "invalid_installments").counter().count());
+        assertEquals(1.0, registry.get("issuer.decisions").tags("outcome", "declined", "reason", "risk_rejected").counter().count());
+        assertEquals(1.0, registry.get("issuer.pipeline.failures").counter().count());
+        assertEquals(3, registry.get("issuer.pipeline.stage").tag("stage", "parse").timer().count());
+        assertEquals(2, registry.get("issuer.pipeline.stage").tag("stage", "limits").timer().count());
+        assertEquals(2, registry.get("issuer.pipeline.stage").tag("stage", "installments").timer().count());
+        assertEquals(3, registry.get("issuer.pipeline.stage").tag("stage", "publish").timer().count());
+    }
+
+    @Test
+    void unknown_decline_reasons_collapse_into_other() {
+        var registry = new SimpleMeterRegistry();
+        var metrics = new PipelineMetrics(registry);
+
+        metrics.declined("some_new_reason");
+        metrics.declined("another_one");
+
+        assertEquals(2.0, registry.get("issuer.decisions").tags("outcome", "declined", "reason", "other").counter().count());
+    }
+
+    @Test
+    void issuer_rule_reasons_have_their_own_counter() {
+        var registry = new SimpleMeterRegistry();
+        var metrics = new PipelineMetrics(registry);
+
+        metrics.declined("merchant_blocked");
+        metrics.declined("bin_amount_exceeded");
+
+        assertEquals(1.0, registry.get("issuer.decisions").tags("outcome", "declined", "reason", "merchant_blocked").counter().count());
+        assertEquals(1.0, registry.get("issuer.decisions").tags("outcome", "declined", "reason", "bin_amount_exceeded").counter().count());
+        assertEquals(0.0, registry.get("issuer.decisions").tags("outcome", "declined", "reason", "other").counter().count());
+        assertTrue(PipelineMetrics.KNOWN_REASONS.containsAll(List.of(
+                "merchant_blocked", "mcc_blocked", "currency_blocked", "bin_blocked",
+                "merchant_amount_exceeded", "mcc_amount_exceeded", "currency_amount_exceeded", "bin_amount_exceeded")));
+    }
+
+    @Test
+    void parallel_mode_keeps_order_per_account_and_acks_every_record() throws Exception {
+        var mapper = new ObjectMapper().findAndRegisterModules();
+        var clock = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+        // primeira chamada de cada conta é lenta: sem ordenação por chave, a segunda passaria na frente
+        var calls = new ConcurrentHashMap<UUID, AtomicInteger>();
+        var limitsUc = mock(AuthorizeWithLimitsUseCase.class);
+        when(limitsUc.execute(any(), anyLong(), anyString(), anyString(), any())).thenAnswer(inv -> {
+            UUID account = inv.getArgument(0);
+            if (calls.computeIfAbsent(account, a -> new AtomicInteger()).getAndIncrement() == 0) Thread.sleep(50);
+            return new AuthorizeWithLimitsUseCase.LimitDecision(true, "ok", "SIM123");
+        });
+        var calc = new InstallmentCalculator(Set.of(1), Map.of());
+
+        var published = new CopyOnWriteArrayList<UUID>();
+        EventPublisher publisher = new EventPublisher() {
+            @Override public void publishAuthorized(PaymentAuthorizedEvent event) { published.add(event.paymentId()); }
+            @Override public void publishDeclined(PaymentDeclinedEvent event) { published.add(event.paymentId()); }
+        };
+
+        var dispatcher = KeyOrderedDispatcher.virtualThreads(16);
+        var consumer = consumer(mapper, new AuthorizeByIssuerUseCase(new SimpleIssuerRules(999999)),
+                mock(LedgerClient.class), limitsUc, new CalculateInstallmentsUseCase(calc), publisher, clock)
+                .dispatcher(dispatcher)
+                .build();
+
+        var accounts = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        var expectedByAccount = new ConcurrentHashMap<UUID, List<UUID>>();
+        var acks = new AtomicInteger();
+        Acknowledgment ack = acks::incrementAndGet;
+        long offset = 0;
+        for (int round = 0; round < 2; round++) {
+            for (var account : accounts) {
+                var paymentId = UUID.randomUUID();
+                expectedByAccount.computeIfAbsent(account, a -> new ArrayList<>()).add(paymentId);
+                var json = """
+                {"type":"payment.risk.approved","paymentId":"%s","amountCents":1000,
+                 "accountId":"%s","userId":"u1","panHash":"h1"}
+                """.formatted(paymentId, account);
+                consumer.onRecord(new ConsumerRecord<>("payment.risk.approved", 0, offset++, null,
+                        json.getBytes(StandardCharsets.UTF_8)), ack);
+            }
+        }
+        consumer.onRecord(new ConsumerRecord<>("payment.risk.approved", 0, offset++, null,
+                "not-json".getBytes(StandardCharsets.UTF_8)), ack);
+
+        assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+        dispatcher.close();
+
+        assertEquals(offset, acks.get());
+        assertEquals(6, published.size());
+        for (var expected : expectedByAccount.values()) {
+            assertTrue(published.indexOf(expected.get(0)) < published.indexOf(expected.get(1)));
+        }
+    }
+
+    @Test
+    void redelivered_payment_republishes_original_decision_without_calling_ledger_again() {
+        var mapper = new ObjectMapper().findAndRegisterModules();
+        var clock = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+        var limitsUc = mock(AuthorizeWithLimitsUseCase.class);
+        when(limitsUc.execute(any(), anyLong(), anyString(), anyString(), any()))
+                .thenReturn(new AuthorizeWithLimitsUseCase.LimitDecision(true, "ok", "SIM1"))
+                .thenReturn(new AuthorizeWithLimitsUseCase.LimitDecision(true, "ok", "SIM2"));
+        var calc = new InstallmentCalculator(Set.of(1), Map.of());
+
+        var published = new ArrayList<PaymentAuthorizedEvent>();
+        EventPublisher publisher = new EventPublisher() {
+            @Override public void publishAuthorized(PaymentAuthorizedEvent event) { published.add(event); }
+            @Override public void publishDeclined(PaymentDeclinedEvent event) { fail("unexpected decline"); }
+        };
+
+        var consumer = consumer(mapper, new AuthorizeByIssuerUseCase(new SimpleIssuerRules(999999)),
+                mock(LedgerClient.class), limitsUc, new CalculateInstallmentsUseCase(calc), publisher, clock)
+                .dispatcher(KeyOrderedDispatcher.virtualThreads(1))
+                .dedup(new DecisionDedup(100, new SimpleMeterRegistry()))
+                .build();
+
+        var json = """
+        {"type":"payment.risk.approved","paymentId":"%s","amountCents":1000,
+         "accountId":"%s","userId":"u1","panHash":"h1"}
+        """.formatted(UUID.randomUUID(), UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        consumer.onMessage(json);
+        consumer.onMessage(json);
+
+        assertEquals(2, published.size());
+        assertSame(published.get(0), published.get(1));
+        assertEquals("SIM1", published.get(1).authCode());
+        verify(limitsUc, times(1)).execute(any(), anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void publish_failure_is_not_acknowledged() throws Exception {
+        var mapper = new ObjectMapper().findAndRegisterModules();
+        var clock = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+        var attempts = new AtomicInteger();
+        EventPublisher flaky = new EventPublisher() {
+            @Override public void publishAuthorized(PaymentAuthorizedEvent event) { }
+            @Override public void publishDeclined(PaymentDeclinedEvent event) {
+                if (attempts.incrementAndGet() <= 2) throw new IllegalStateException("event_publish_failed");
+            }
+        };
+        var dispatcher = KeyOrderedDispatcher.virtualThreads(4);
+        var consumer = consumer(mapper, new AuthorizeByIssuerUseCase(new SimpleIssuerRules(999999)),
+                mock(LedgerClient.class), mock(AuthorizeWithLimitsUseCase.class),
+                new CalculateInstallmentsUseCase(new InstallmentCalculator(Set.of(1), Map.of())), flaky, clock)
+                .dispatcher(dispatcher)
+                .build();
+        var rejected = """
+        {"type":"payment.risk.rejected","paymentId":"%s"}
+        """.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+
+        // record: a falha sobe para o container, que não comita o offset
+        assertThrows(IllegalStateException.class, () -> consumer.onMessage(rejected));
+
+        // parallel: repete até o ack e só então confirma o registro
+        var acks = new AtomicInteger();
+        consumer.onRecord(new ConsumerRecord<>("payment.risk.rejected", 0, 0, null, rejected), acks::incrementAndGet);
+        assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+        dispatcher.close();
+        assertEquals(3, attempts.get());
+        assertEquals(1, acks.get());
+    }
+
+    @Test
+    void failed_publish_does_not_leave_the_spend_reserved_twice() {
+        for (var dedup : List.of(DecisionDedup.disabled(), new DecisionDedup(100, new SimpleMeterRegistry()))) {
+            var mapper = new ObjectMapper().findAndRegisterModules();
+            var clock = Clock.fixed(Instant.parse("2030-01-01T12:00:00Z"), ZoneOffset.UTC);
+            var windows = new SpendWindows(clock, ZoneOffset.UTC, Duration.ofDays(35));
+            var limitsUc = new AuthorizeWithLimitsUseCase(Runnable::run, windows);
+            var ledger = mock(LedgerClient.class);
+            when(ledger.getAvailableCredit(any(), anyString())).thenReturn(new LedgerGateway.AvailableCredit(UUID.randomUUID(), 10_000, "BRL", 0, 0));
+            when(ledger.getUserLimit("u1")).thenReturn(Optional.of(new LedgerGateway.LimitRule("USER", "u1", "BRL", 0, 5_000, 0)));
+
+            var attempts = new AtomicInteger();
+            var published = new ArrayList<PaymentAuthorizedEvent>();
+            EventPublisher flaky = new EventPublisher() {
+                @Override public void publishAuthorized(PaymentAuthorizedEvent event) {
+                    if (attempts.incrementAndGet() == 1) throw new IllegalStateException("event_publish_failed");
+                    published.add(event);
+                }
+                @Override public void publishDeclined(PaymentDeclinedEvent event) { fail("unexpected decline: " + event.reason()); }
+            };
+            var consumer = consumer(mapper, new AuthorizeByIssuerUseCase(new SimpleIssuerRules(999999)), ledger, limitsUc,
+                    new CalculateInstallmentsUseCase(new InstallmentCalculator(Set.of(1), Map.of())), flaky, clock)
+                    .dispatcher(KeyOrderedDispatcher.virtualThreads(1))
+                    .dedup(dedup)
+                    .build();
+            var json = """
+            {"type":"payment.risk.approved","paymentId":"%s","amountCents":1000,
+             "accountId":"%s","userId":"u1","installments":1}
+            """.formatted(UUID.randomUUID(), UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+
+            assertThrows(IllegalStateException.class, () -> consumer.onMessage(json));
+            consumer.onMessage(json);
+
+            assertEquals(1, published.size());
+            assertEquals(1000, windows.dailySpent(SpendWindows.Scope.USER, "u1"), "dedup enabled: " + dedup.isEnabled());
+        }
+    }
 }
\ No newline at end of file
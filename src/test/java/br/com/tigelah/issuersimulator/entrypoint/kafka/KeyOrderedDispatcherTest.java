@@ -0,0 +1,97 @@
+package br.com.tigelah.issuersimulator.entrypoints.kafka;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedDispatcherTest {
+
+    @Test
+    void keeps_order_within_the_same_key() throws Exception {
+        try (var dispatcher = KeyOrderedDispatcher.virtualThreads(64)) {
+            var seen = Collections.synchronizedList(new ArrayList<Integer>());
+            for (int i = 0; i < 200; i++) {
+                int n = i;
+                dispatcher.dispatch("acc-1", () -> {
+                    if (n % 7 == 0) sleep(1);
+                    seen.add(n);
+                });
+            }
+            assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+            for (int i = 0; i < 200; i++) assertEquals(i, seen.get(i));
+            assertEquals(0, dispatcher.pendingKeys());
+        }
+    }
+
+    @Test
+    void runs_different_keys_concurrently() throws Exception {
+        try (var dispatcher = KeyOrderedDispatcher.virtualThreads(64)) {
+            int keys = 32;
+            var allStarted = new CountDownLatch(keys);
+            var release = new CountDownLatch(1);
+            for (int i = 0; i < keys; i++) {
+                dispatcher.dispatch("acc-" + i, () -> {
+                    allStarted.countDown();
+                    await(release);
+                });
+            }
+            // só completa se todas as chaves estiverem rodando ao mesmo tempo
+            assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+            assertEquals(keys, dispatcher.inFlight());
+            release.countDown();
+            assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    void blocks_dispatch_when_max_in_flight_is_reached() throws Exception {
+        try (var dispatcher = KeyOrderedDispatcher.virtualThreads(2)) {
+            var release = new CountDownLatch(1);
+            dispatcher.dispatch("a", () -> await(release));
+            dispatcher.dispatch("b", () -> await(release));
+
+            var thirdAccepted = new AtomicBoolean();
+            var producer = Thread.ofVirtual().start(() -> {
+                try {
+                    dispatcher.dispatch("c", () -> { });
+                    thirdAccepted.set(true);
+                } catch (InterruptedException ignored) { }
+            });
+
+            producer.join(100);
+            assertFalse(thirdAccepted.get());
+
+            release.countDown();
+            producer.join(5000);
+            assertTrue(thirdAccepted.get());
+            assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    void failing_task_does_not_stall_its_key() throws Exception {
+        try (var dispatcher = KeyOrderedDispatcher.virtualThreads(8)) {
+            List<String> seen = Collections.synchronizedList(new ArrayList<>());
+            dispatcher.dispatch("k", () -> { throw new IllegalStateException("boom"); });
+            dispatcher.dispatch("k", () -> seen.add("after"));
+            assertTrue(dispatcher.awaitIdle(Duration.ofSeconds(5)));
+            assertEquals(List.of("after"), seen);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try { Thread.sleep(millis); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try { latch.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+}
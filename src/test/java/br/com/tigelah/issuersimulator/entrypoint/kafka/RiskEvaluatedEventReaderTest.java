@@ -0,0 +1,105 @@
+package br.com.tigelah.issuersimulator.entrypoints.kafka;
+
+import br.com.tigelah.issuersimulator.application.security.PanHasher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskEvaluatedEventReaderTest {
+
+    private final RiskEvaluatedEventReader reader = new RiskEvaluatedEventReader(new ObjectMapper().getFactory());
+
+    @Test
+    void binds_all_fields_and_skips_unknown_ones() throws Exception {
+        var eventId = UUID.randomUUID();
+        var paymentId = UUID.randomUUID();
+        var accountId = UUID.randomUUID();
+        var json = """
+        {
+          "eventId":"%s",
+          "occurredAt":"2030-01-01T00:00:00Z",
+          "correlationId":"c1",
+          "type":"payment.risk.approved",
+          "paymentId":"%s",
+          "approved":false,
+          "reason":"score",
+          "extra":{"nested":[1,2,{"deep":true}]},
+          "tags":["a","b"],
+          "merchantId":"m1",
+          "amountCents":1999,
+          "currency":"BRL",
+          "installments":6,
+          "accountId":"%s",
+          "userId":"u1",
+          "panHash":"h1",
+          "panLast4":"1111",
+          "ignored":123
+        }
+        """.formatted(eventId, paymentId, accountId);
+
+        var e = reader.read(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(eventId, e.eventId());
+        assertEquals(Instant.parse("2030-01-01T00:00:00Z"), e.occurredAt());
+        assertEquals("c1", e.correlationId());
+        assertEquals("payment.risk.approved", e.type());
+        assertEquals(paymentId, e.paymentId());
+        assertFalse(e.approved());
+        assertEquals("score", e.reason());
+        assertEquals("m1", e.merchantId());
+        assertEquals(1999, e.amountCents());
+        assertEquals("BRL", e.currency());
+        assertEquals(6, e.installments());
+        assertEquals(accountId, e.accountId());
+        assertEquals("u1", e.userId());
+        assertEquals("h1", e.panHash());
+        assertEquals("1111", e.panLast4());
+    }
+
+    @Test
+    void applies_defaults_for_missing_fields() throws Exception {
+        var e = reader.read("{\"paymentId\":\"%s\"}".formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(e.approved());
+        assertEquals(1, e.installments());
+        assertEquals(0, e.amountCents());
+        assertEquals("", e.type());
+        assertEquals("", e.merchantId());
+        assertEquals("", e.userId());
+        assertEquals("", e.panHash());
+        assertNull(e.correlationId());
+        assertNull(e.accountId());
+    }
+
+    @Test
+    void hashes_raw_pan_only_when_pan_hash_absent() throws Exception {
+        var hashed = reader.read("{\"pan\":\"4111111111111111\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(PanHasher.sha256("4111111111111111"), hashed.panHash());
+
+        var given = reader.read("{\"pan\":\"4111111111111111\",\"panHash\":\"h1\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals("h1", given.panHash());
+    }
+
+    @Test
+    void reads_mcc_and_bin_or_takes_bin_from_raw_pan() throws Exception {
+        var given = reader.read("{\"mcc\":\"5812\",\"bin\":\"55554444\",\"pan\":\"4111111111111111\"}"
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals("5812", given.mcc());
+        assertEquals("55554444", given.bin());
+
+        var fromPan = reader.read("{\"pan\":\"4111 1111 1111 1111\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals("411111", fromPan.bin());
+        assertNull(fromPan.mcc());
+    }
+
+    @Test
+    void rejects_non_object_payload() {
+        assertThrows(Exception.class, () -> reader.read("[1,2]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(Exception.class, () -> reader.read("not-json".getBytes(StandardCharsets.UTF_8)));
+    }
+}
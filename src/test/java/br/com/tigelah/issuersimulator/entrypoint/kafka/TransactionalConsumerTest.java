@@ -0,0 +1,183 @@
+package br.com.tigelah.issuersimulator.entrypoints.kafka;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.infrastructure.ledger.InMemoryLedger;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.KafkaEventPublisher;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+        "issuer.consumer.mode=transactional",
+        "issuer.consumer.transactional.max-records=10",
+        "issuer.consumer.transactional.max-wait=50ms",
+        "issuer.ledger.mode=embedded",
+        "kafka.consumer.group-id=issuer-tx-test",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        // o primeiro InitProducerId espera o coordenador de transações do broker embarcado subir
+        "spring.kafka.producer.properties.max.block.ms=15000"
+})
+@EmbeddedKafka(
+        kraft = true,
+        partitions = 1,
+        topics = { Topics.PAYMENT_RISK_APPROVED, Topics.PAYMENT_RISK_REJECTED, Topics.PAYMENT_AUTHORIZED, Topics.PAYMENT_DECLINED },
+        brokerProperties = {
+                "transaction.state.log.replication.factor=1",
+                "transaction.state.log.min.isr=1",
+                "group.initial.rebalance.delay.ms=0"
+        }
+)
+@DirtiesContext
+class TransactionalConsumerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired EmbeddedKafkaBroker broker;
+    @Autowired InMemoryLedger ledger;
+    @Autowired MeterRegistry registry;
+    @Autowired ObjectMapper mapper;
+    @MockitoSpyBean KafkaEventPublisher publisher;
+
+    @Test
+    void commits_decisions_and_offsets_together() throws Exception {
+        var accountId = UUID.randomUUID();
+        ledger.putAccount(new AvailableCredit(accountId, 1_000_000, "BRL", 0, 0));
+
+        var approved = new ArrayList<UUID>();
+        var rejected = new ArrayList<UUID>();
+        try (var producer = producer()) {
+            for (int i = 0; i < 15; i++) {
+                var paymentId = UUID.randomUUID();
+                approved.add(paymentId);
+                producer.send(new ProducerRecord<>(Topics.PAYMENT_RISK_APPROVED, accountId.toString(), """
+                        {"type":"payment.risk.approved","paymentId":"%s","merchantId":"m1","amountCents":1000,
+                         "installments":1,"accountId":"%s","approved":true}
+                        """.formatted(paymentId, accountId)));
+            }
+            for (int i = 0; i < 10; i++) {
+                var paymentId = UUID.randomUUID();
+                rejected.add(paymentId);
+                producer.send(new ProducerRecord<>(Topics.PAYMENT_RISK_REJECTED, paymentId.toString(), """
+                        {"type":"payment.risk.rejected","paymentId":"%s"}
+                        """.formatted(paymentId)));
+            }
+        }
+
+        assertEquals(new HashSet<>(approved), readPaymentIds(Topics.PAYMENT_AUTHORIZED, "read_committed", Set.copyOf(approved), 15));
+        assertEquals(new HashSet<>(rejected), readPaymentIds(Topics.PAYMENT_DECLINED, "read_committed", Set.copyOf(rejected), 10));
+
+        assertTrue(registry.get("issuer.kafka.tx.commit").tag("outcome", "committed").timer().count() > 0);
+        awaitCommittedOffsets(Topics.PAYMENT_RISK_APPROVED, 15);
+        awaitCommittedOffsets(Topics.PAYMENT_RISK_REJECTED, 10);
+    }
+
+    @Test
+    void aborted_batch_is_invisible_to_committed_readers_and_redelivered() throws Exception {
+        double abortsBefore = registry.get("issuer.kafka.tx.aborts").counter().count();
+        // primeira entrega: os eventos são enviados dentro da transação e só depois a publicação falha
+        var failOnce = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            if (failOnce.getAndSet(false)) throw new IllegalStateException("event_publish_failed");
+            return null;
+        }).when(publisher).publishAll(anyList(), anyList());
+
+        var paymentIds = new HashSet<UUID>();
+        try (var producer = producer()) {
+            for (int i = 0; i < 5; i++) {
+                var paymentId = UUID.randomUUID();
+                paymentIds.add(paymentId);
+                producer.send(new ProducerRecord<>(Topics.PAYMENT_RISK_REJECTED, paymentId.toString(), """
+                        {"type":"payment.risk.rejected","paymentId":"%s"}
+                        """.formatted(paymentId)));
+            }
+        }
+
+        var committed = readAll(Topics.PAYMENT_DECLINED, "read_committed", paymentIds, 5);
+        assertEquals(5, committed.size(), "exactly one committed decision per payment");
+        assertEquals(paymentIds, Set.copyOf(committed));
+
+        // o lote abortado chegou ao log, mas só leitores read_uncommitted o enxergam
+        var uncommitted = readAll(Topics.PAYMENT_DECLINED, "read_uncommitted", paymentIds, 6);
+        assertTrue(uncommitted.size() > 5, "aborted sends are in the log: " + uncommitted.size());
+        assertTrue(registry.get("issuer.kafka.tx.aborts").counter().count() > abortsBefore);
+    }
+
+    private KafkaProducer<String, String> producer() {
+        return new KafkaProducer<>(KafkaTestUtils.producerProps(broker), new StringSerializer(), new StringSerializer());
+    }
+
+    private Set<UUID> readPaymentIds(String topic, String isolation, Set<UUID> expected, int count) throws Exception {
+        return new HashSet<>(readAll(topic, isolation, expected, count));
+    }
+
+    /** Lê {@code topic} desde o início até ver {@code count} eventos dos pagamentos esperados (ou estourar o tempo). */
+    private List<UUID> readAll(String topic, String isolation, Set<UUID> expected, int count) throws Exception {
+        var props = KafkaTestUtils.consumerProps("reader-" + UUID.randomUUID(), "false", broker);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, isolation);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        var found = new ArrayList<UUID>();
+        try (var consumer = new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer())) {
+            var partition = new TopicPartition(topic, 0);
+            consumer.assign(List.of(partition));
+            consumer.seekToBeginning(List.of(partition));
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            while (found.size() < count && System.nanoTime() < deadline) {
+                for (var record : consumer.poll(Duration.ofMillis(200))) {
+                    var paymentId = UUID.fromString(mapper.readTree(record.value()).get("paymentId").asText());
+                    if (expected.contains(paymentId)) found.add(paymentId);
+                }
+            }
+            // margem para pegar duplicatas que chegariam logo depois
+            for (var record : consumer.poll(Duration.ofMillis(500))) {
+                var paymentId = UUID.fromString(mapper.readTree(record.value()).get("paymentId").asText());
+                if (expected.contains(paymentId)) found.add(paymentId);
+            }
+        }
+        return found;
+    }
+
+    private void awaitCommittedOffsets(String topic, long atLeast) throws Exception {
+        var props = KafkaTestUtils.consumerProps("issuer-tx-test", "false", broker);
+        try (var consumer = new KafkaConsumer<>(props, new StringDeserializer(), new StringDeserializer())) {
+            var partition = new TopicPartition(topic, 0);
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            long offset = -1;
+            while (System.nanoTime() < deadline) {
+                var committed = consumer.committed(Set.of(partition)).get(partition);
+                offset = committed == null ? -1 : committed.offset();
+                if (offset >= atLeast) return;
+                Thread.sleep(100);
+            }
+            throw new AssertionError("committed offset for " + topic + " is " + offset);
+        }
+    }
+}
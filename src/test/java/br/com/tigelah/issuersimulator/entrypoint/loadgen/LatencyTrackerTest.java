@@ -0,0 +1,70 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyTrackerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void matches_decisions_by_payment_id_and_records_latency_from_intended_time() {
+        var tracker = new LatencyTracker();
+        var a = UUID.randomUUID();
+        var b = UUID.randomUUID();
+        tracker.sent(a, 0);
+        tracker.sent(b, 10 * MS);
+
+        assertTrue(tracker.received(b, 15 * MS));
+        assertTrue(tracker.received(a, 20 * MS));
+        assertFalse(tracker.received(UUID.randomUUID(), 30 * MS));
+
+        var histogram = tracker.histogram();
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(5_000, histogram.getMinValue(), 10);
+        assertEquals(20_000, histogram.getMaxValue(), 20);
+        assertEquals(2, tracker.matched());
+        assertEquals(1, tracker.unmatched());
+        assertEquals(0, tracker.outstanding());
+    }
+
+    @Test
+    void duplicate_sends_wait_for_one_decision_each() {
+        var tracker = new LatencyTracker();
+        var id = UUID.randomUUID();
+        tracker.sent(id, 0);
+        tracker.sent(id, 50 * MS);
+        assertEquals(2, tracker.outstanding());
+
+        assertTrue(tracker.received(id, 60 * MS));   // fecha o envio de t=0
+        assertTrue(tracker.received(id, 70 * MS));   // fecha o de t=50ms
+        assertFalse(tracker.received(id, 80 * MS));
+
+        var histogram = tracker.histogram();
+        assertEquals(60_000, histogram.getMaxValue(), 60);
+        assertEquals(20_000, histogram.getMinValue(), 20);
+    }
+
+    @Test
+    void warmup_sends_are_matched_but_not_recorded() {
+        var tracker = new LatencyTracker();
+        var warm = UUID.randomUUID();
+        var measured = UUID.randomUUID();
+        tracker.sent(warm, -10 * MS);
+        tracker.recordFrom(0);
+        tracker.sent(measured, 0);
+
+        assertTrue(tracker.received(warm, 1 * MS));
+        assertTrue(tracker.received(measured, 2 * MS));
+
+        assertEquals(1, tracker.histogram().getTotalCount());
+        assertEquals(2, tracker.matched());
+        assertEquals(2 * MS, tracker.lastRecordedNanos());
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.tigelah.issuersimulator.entrypoints.loadgen;
+
+import br.com.tigelah.issuersimulator.entrypoints.kafka.dto.RiskEvaluatedEvent;
+import br.com.tigelah.issuersimulator.infrastructure.config.JacksonConfig;
+import br.com.tigelah.issuersimulator.infrastructure.messaging.Topics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntheticEventGeneratorTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-15T12:00:00Z"), ZoneOffset.UTC);
+    private final ObjectMapper mapper = new JacksonConfig().objectMapper();
+
+    private LoadProfile profile(double duplicateRatio, double rejectedRatio) {
+        return LoadProfile.of(1000, Duration.ofSeconds(1), Duration.ZERO, 15_000, 1.0,
+                "1:70,2:10,6:15,12:5", 20, 50, duplicateRatio, rejectedRatio, 7);
+    }
+
+    @Test
+    void events_follow_the_profile() throws Exception {
+        var generator = new SyntheticEventGenerator(profile(0.0, 0.1), mapper, clock);
+        var installments = new HashMap<Integer, Integer>();
+        var merchants = new HashSet<String>();
+        var accounts = new HashSet<UUID>();
+        var amounts = new ArrayList<Long>();
+        int rejected = 0;
+
+        for (int i = 0; i < 20_000; i++) {
+            var event = generator.next();
+            assertFalse(event.duplicate());
+            var parsed = mapper.readValue(event.payload(), RiskEvaluatedEvent.class);
+            assertEquals(event.paymentId(), parsed.paymentId());
+            assertEquals(event.topic(), parsed.type());
+            if (Topics.PAYMENT_RISK_REJECTED.equals(event.topic())) rejected++;
+            installments.merge(parsed.installments(), 1, Integer::sum);
+            merchants.add(parsed.merchantId());
+            accounts.add(parsed.accountId());
+            amounts.add(parsed.amountCents());
+        }
+
+        assertEquals(Set.of(1, 2, 6, 12), installments.keySet());
+        assertEquals(0.70, installments.get(1) / 20_000.0, 0.02);
+        assertEquals(0.05, installments.get(12) / 20_000.0, 0.01);
+        assertEquals(0.10, rejected / 20_000.0, 0.01);
+        assertTrue(merchants.size() <= 20 && merchants.contains("m1"));
+        assertEquals(50, accounts.size());
+        assertTrue(accounts.contains(LoadProfile.accountId(0)));
+
+        amounts.sort(null);
+        // log-normal: a mediana amostral fica perto da mediana configurada
+        assertEquals(15_000, amounts.get(amounts.size() / 2), 1_000);
+    }
+
+    @Test
+    void duplicates_resend_a_recent_payload_byte_for_byte() {
+        var generator = new SyntheticEventGenerator(profile(0.2, 0.0), mapper, clock);
+        var payloads = new HashMap<UUID, byte[]>();
+        int duplicates = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            var event = generator.next();
+            if (event.duplicate()) {
+                duplicates++;
+                assertArrayEquals(payloads.get(event.paymentId()), event.payload());
+            } else {
+                assertFalse(payloads.containsKey(event.paymentId()));
+                payloads.put(event.paymentId(), event.payload());
+            }
+        }
+        assertEquals(0.2, duplicates / 10_000.0, 0.02);
+    }
+
+    @Test
+    void same_seed_same_sequence() {
+        var a = new SyntheticEventGenerator(profile(0.1, 0.1), mapper, clock);
+        var b = new SyntheticEventGenerator(profile(0.1, 0.1), mapper, clock);
+        for (int i = 0; i < 100; i++) assertArrayEquals(a.next().payload(), b.next().payload());
+    }
+
+    @Test
+    void rejects_invalid_mix() {
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.of(1000, Duration.ofSeconds(1), Duration.ZERO,
+                15_000, 1.0, "1:0", 1, 1, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.of(1000, Duration.ofSeconds(1), Duration.ZERO,
+                15_000, 1.0, "12", 1, 1, 0, 0, 1));
+    }
+}
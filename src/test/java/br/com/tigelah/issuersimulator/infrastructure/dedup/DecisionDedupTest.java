@@ -0,0 +1,66 @@
+package br.com.tigelah.issuersimulator.infrastructure.dedup;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionDedupTest {
+
+    @Test
+    void returns_the_remembered_decision_and_counts_hits() {
+        var registry = new SimpleMeterRegistry();
+        var dedup = new DecisionDedup(1_000, registry);
+        var decision = declined(UUID.randomUUID());
+
+        assertNull(dedup.find(decision.paymentId()));
+        dedup.remember(decision);
+        assertSame(decision, dedup.find(decision.paymentId()));
+
+        assertEquals(1.0, registry.get("issuer.dedup.lookups").tag("result", "duplicate").counter().count());
+        assertEquals(1.0, registry.get("issuer.dedup.lookups").tag("result", "new").counter().count());
+        assertTrue(registry.get("issuer.dedup.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void filter_rejects_almost_all_unknown_payments_without_touching_the_map() {
+        var registry = new SimpleMeterRegistry();
+        var dedup = new DecisionDedup(10_000, registry);
+        for (int i = 0; i < 10_000; i++) dedup.remember(declined(UUID.randomUUID()));
+
+        for (int i = 0; i < 10_000; i++) assertNull(dedup.find(UUID.randomUUID()));
+
+        double falsePositives = registry.get("issuer.dedup.lookups").tag("result", "filter_false_positive").counter().count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void stays_bounded_and_keeps_recent_decisions_across_filter_rotations() {
+        var dedup = new DecisionDedup(1_000, new SimpleMeterRegistry());
+        PaymentDeclinedEvent last = null;
+        for (int i = 0; i < 5_500; i++) {
+            last = declined(UUID.randomUUID());
+            dedup.remember(last);
+        }
+        assertSame(last, dedup.find(last.paymentId()));
+        // 2 filtros + no máximo ~1000 entradas no mapa
+        assertTrue(dedup.estimatedBytes() < 2 * 16_384 + 1_100 * DecisionDedup.BYTES_PER_ENTRY);
+    }
+
+    @Test
+    void disabled_index_never_matches() {
+        var dedup = DecisionDedup.disabled();
+        var decision = declined(UUID.randomUUID());
+        dedup.remember(decision);
+        assertNull(dedup.find(decision.paymentId()));
+        assertEquals(0, dedup.estimatedBytes());
+    }
+
+    private static PaymentDeclinedEvent declined(UUID paymentId) {
+        return new PaymentDeclinedEvent(UUID.randomUUID(), Instant.EPOCH, "c", "payment.declined", paymentId, "risk_rejected");
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import br.com.tigelah.issuersimulator.infrastructure.ledger.InMemoryLedger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchingLedgerGatewayTest {
+
+    private static final int ACCOUNTS = 40;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InMemoryLedger ledger = new InMemoryLedger();
+    private final List<UUID> accounts = new ArrayList<>();
+    private LedgerBulkStub stub;
+    private LedgerClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            var id = UUID.randomUUID();
+            accounts.add(id);
+            ledger.putAccount(new AvailableCredit(id, 1_000L * i, "BRL", i, 0));
+        }
+        ledger.putUserLimit(new LimitRule("USER", "u1", "BRL", 500, 0, 0));
+        ledger.putPanLimit(new LimitRule("PAN", "h1", "BRL", 0, 300, 0));
+        stub = new LedgerBulkStub(ledger);
+        var http = new RestTemplate();
+        client = new LedgerClient(http, stub.baseUrl(), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void bulk_endpoints_return_only_known_keys() {
+        var unknown = UUID.randomUUID();
+
+        var credits = client.getAvailableCredits(List.of(accounts.get(1), unknown), "c1");
+        assertEquals(1, credits.size());
+        assertEquals(1_000, credits.get(accounts.get(1)).availableCents());
+        assertEquals(1, credits.get(accounts.get(1)).holdsCents());
+
+        assertEquals(List.of("u1"), List.copyOf(client.getUserLimits(List.of("u1", "u2")).keySet()));
+        assertEquals(300, client.getPanLimits(List.of("h1")).get("h1").dailyLimitCents());
+    }
+
+    @Test
+    void unreachable_ledger_fails_bulk_calls_as_failed_to_call_ledger() {
+        stub.close();
+
+        var credits = assertThrows(IllegalStateException.class, () -> client.getAvailableCredits(accounts, "c1"));
+        assertEquals("failed_to_call_ledger", credits.getMessage());
+        var limits = assertThrows(IllegalStateException.class, () -> client.getUserLimits(List.of("u1")));
+        assertEquals("failed_to_call_ledger", limits.getMessage());
+    }
+
+    @Test
+    void concurrent_lookups_share_bulk_calls_per_window() throws Exception {
+        var gateway = new BatchingLedgerGateway(client, new BatchingLedgerGateway.Settings(Duration.ofMillis(50), 100), registry);
+
+        var results = runConcurrently(ACCOUNTS, i -> gateway.getAvailableCredit(accounts.get(i), "c" + i));
+
+        for (int i = 0; i < ACCOUNTS; i++) assertEquals(1_000L * i, results.get(i).get(5, TimeUnit.SECONDS).availableCents());
+        int bulkCalls = stub.requests("/accounts/available-credit/bulk");
+        assertTrue(bulkCalls >= 1 && bulkCalls < ACCOUNTS / 4, "chamadas em lote: " + bulkCalls);
+        assertEquals(0, stub.requests("/accounts/*"));
+        assertEquals((double) ACCOUNTS, registry.get("issuer.ledger.batch.size").tag("operation", "available_credit").summary().totalAmount());
+    }
+
+    @Test
+    void missing_keys_map_to_not_found_or_no_rule() {
+        var gateway = new BatchingLedgerGateway(client, new BatchingLedgerGateway.Settings(Duration.ZERO, 10), registry);
+
+        var e = assertThrows(IllegalStateException.class, () -> gateway.getAvailableCredit(UUID.randomUUID(), "c1"));
+        assertEquals("account_not_found", e.getMessage());
+        assertEquals(Optional.empty(), gateway.getUserLimit("u2"));
+        assertEquals(500, gateway.getUserLimit("u1").orElseThrow().creditLimitCents());
+        assertEquals(300, gateway.getPanLimit("h1").orElseThrow().dailyLimitCents());
+        assertEquals(1, stub.requests("/limits/pan/bulk"));
+    }
+
+    @Test
+    void full_batch_flushes_before_the_window() throws Exception {
+        var gateway = new BatchingLedgerGateway(client, new BatchingLedgerGateway.Settings(Duration.ofSeconds(30), 4), registry);
+
+        long start = System.nanoTime();
+        var results = runConcurrently(8, i -> gateway.getAvailableCredit(accounts.get(i), "c"));
+        for (var result : results) result.get(10, TimeUnit.SECONDS);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        assertEquals(2.0, registry.get("issuer.ledger.batch.flush").tags("operation", "available_credit", "trigger", "size").counter().count());
+    }
+
+    @Test
+    void bulk_failure_reaches_every_caller() throws Exception {
+        var failing = mock(LedgerGateway.class);
+        when(failing.getUserLimits(anyCollection())).thenThrow(new IllegalStateException("failed_to_call_ledger"));
+        var gateway = new BatchingLedgerGateway(failing, new BatchingLedgerGateway.Settings(Duration.ofMillis(50), 100), registry);
+
+        var results = runConcurrently(5, i -> gateway.getUserLimit("u" + i));
+
+        for (var result : results) {
+            var e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertEquals("failed_to_call_ledger", e.getCause().getMessage());
+        }
+        verify(failing, atMost(2)).getUserLimits(anyCollection());
+        verify(failing, never()).getUserLimit(anyString());
+    }
+
+    private interface Call<T> {
+        T apply(int i);
+    }
+
+    private static <T> List<Future<T>> runConcurrently(int callers, Call<T> call) {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var results = new ArrayList<Future<T>>();
+            for (int i = 0; i < callers; i++) {
+                int index = i;
+                results.add(executor.submit((Callable<T>) () -> call.apply(index)));
+            }
+            return results;
+        }
+    }
+}
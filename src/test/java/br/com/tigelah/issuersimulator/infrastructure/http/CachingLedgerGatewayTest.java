@@ -0,0 +1,94 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingLedgerGatewayTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LedgerGateway ledger = mock(LedgerGateway.class);
+    private final CachingLedgerGateway cache = new CachingLedgerGateway(
+            ledger,
+            new CachingLedgerGateway.Settings(Duration.ofMinutes(5), Duration.ofMinutes(1), Duration.ofMinutes(4), 100),
+            Runnable::run,
+            registry,
+            nanos::get
+    );
+
+    @Test
+    void caches_found_rules_until_ttl() {
+        var rule = new LedgerGateway.LimitRule("USER", "u1", "BRL", 0, 10, 0);
+        when(ledger.getUserLimit("u1")).thenReturn(Optional.of(rule));
+
+        assertEquals(Optional.of(rule), cache.getUserLimit("u1"));
+        assertEquals(Optional.of(rule), cache.getUserLimit("u1"));
+        verify(ledger, times(1)).getUserLimit("u1");
+
+        advance(Duration.ofMinutes(6));
+        cache.getUserLimit("u1");
+        verify(ledger, times(2)).getUserLimit("u1");
+    }
+
+    @Test
+    void caches_not_found_with_negative_ttl() {
+        when(ledger.getPanLimit("h1")).thenReturn(Optional.empty());
+
+        assertTrue(cache.getPanLimit("h1").isEmpty());
+        assertTrue(cache.getPanLimit("h1").isEmpty());
+        verify(ledger, times(1)).getPanLimit("h1");
+
+        advance(Duration.ofSeconds(61));
+        cache.getPanLimit("h1");
+        verify(ledger, times(2)).getPanLimit("h1");
+    }
+
+    @Test
+    void refreshes_ahead_of_expiry() {
+        var old = new LedgerGateway.LimitRule("USER", "u1", "BRL", 0, 10, 0);
+        var updated = new LedgerGateway.LimitRule("USER", "u1", "BRL", 0, 20, 0);
+        when(ledger.getUserLimit("u1")).thenReturn(Optional.of(old), Optional.of(updated));
+
+        cache.getUserLimit("u1");
+        advance(Duration.ofMinutes(4).plusSeconds(1));
+
+        cache.getUserLimit("u1");
+        assertEquals(Optional.of(updated), cache.getUserLimit("u1"));
+        verify(ledger, times(2)).getUserLimit("u1");
+    }
+
+    @Test
+    void available_credit_is_never_cached() {
+        var accountId = UUID.randomUUID();
+        when(ledger.getAvailableCredit(accountId, "c")).thenReturn(new LedgerGateway.AvailableCredit(accountId, 1, "BRL", 0, 0));
+
+        cache.getAvailableCredit(accountId, "c");
+        cache.getAvailableCredit(accountId, "c");
+
+        verify(ledger, times(2)).getAvailableCredit(accountId, "c");
+    }
+
+    @Test
+    void exports_hit_and_miss_counters() {
+        when(ledger.getUserLimit("u1")).thenReturn(Optional.empty());
+
+        cache.getUserLimit("u1");
+        cache.getUserLimit("u1");
+
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "ledger.limits.users", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "ledger.limits.users", "result", "miss").functionCounter().count());
+    }
+
+    private void advance(Duration d) {
+        nanos.addAndGet(d.toNanos());
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 0.5, Duration.ofSeconds(5), 2, nanos::get);
+
+    @Test
+    void opens_when_failure_rate_reaches_threshold() {
+        pass(true);
+        pass(false);
+        pass(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state(), "abaixo do mínimo de chamadas");
+
+        pass(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void half_open_after_open_duration_and_closes_on_successful_trials() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        long first = acquire();
+        long second = acquire();
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire(), "só halfOpenCalls chamadas de teste");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess(first);
+        breaker.onSuccess(second);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void failed_trial_reopens() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        breaker.onFailure(acquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void late_success_from_before_opening_does_not_close_half_open() {
+        long late = acquire();
+        open();
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        long trial = acquire();
+        breaker.onSuccess(late);
+        breaker.onSuccess(late);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state(), "resposta da fase fechada é ignorada");
+
+        breaker.onFailure(trial);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void late_failures_do_not_count_after_circuit_closes_again() {
+        var stale = new long[4];
+        for (int i = 0; i < stale.length; i++) stale[i] = acquire();
+        open();
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        breaker.onSuccess(acquire());
+        breaker.onSuccess(acquire());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        for (long permit : stale) breaker.onFailure(permit);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void released_trial_permit_can_be_taken_again() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+        long first = acquire();
+        acquire();
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        breaker.release(first);
+        assertNotEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void old_failures_slide_out_of_the_window() {
+        pass(false);
+        for (int i = 0; i < 9; i++) pass(true);
+
+        // a falha da primeira chamada já saiu da janela: 4 em 10, abaixo de 50%
+        for (int i = 0; i < 4; i++) pass(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+
+        pass(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) pass(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private long acquire() {
+        long permit = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, permit);
+        return permit;
+    }
+
+    private void pass(boolean success) {
+        long permit = acquire();
+        if (success) breaker.onSuccess(permit);
+        else breaker.onFailure(permit);
+    }
+}
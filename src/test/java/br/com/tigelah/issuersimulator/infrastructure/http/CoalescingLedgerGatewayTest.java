@@ -0,0 +1,108 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CoalescingLedgerGatewayTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LedgerGateway ledger = mock(LedgerGateway.class);
+    private final CoalescingLedgerGateway gateway = new CoalescingLedgerGateway(ledger, registry);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void concurrent_callers_share_one_request_across_platform_and_virtual_threads() throws Exception {
+        var rule = new LimitRule("USER", "u1", "BRL", 0, 10, 0);
+        when(ledger.getUserLimit("u1")).thenAnswer(inv -> {
+            release.await();
+            return Optional.of(rule);
+        });
+
+        var results = start(8, () -> gateway.getUserLimit("u1"));
+        awaitSaved("user_limit", 7);
+        release.countDown();
+
+        for (var result : results) assertEquals(Optional.of(rule), result.get(5, TimeUnit.SECONDS));
+        verify(ledger, times(1)).getUserLimit("u1");
+    }
+
+    @Test
+    void joiners_get_the_leader_failure_and_next_call_goes_to_the_ledger() throws Exception {
+        var account = UUID.randomUUID();
+        var credit = new AvailableCredit(account, 100, "BRL", 0, 0);
+        when(ledger.getAvailableCredit(eq(account), anyString()))
+                .thenAnswer(inv -> {
+                    release.await();
+                    throw new IllegalStateException("failed_to_call_ledger");
+                })
+                .thenReturn(credit);
+
+        var results = start(4, () -> gateway.getAvailableCredit(account, "c"));
+        awaitSaved("available_credit", 3);
+        release.countDown();
+
+        for (var result : results) {
+            var e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertEquals("failed_to_call_ledger", e.getCause().getMessage());
+        }
+        assertEquals(credit, gateway.getAvailableCredit(account, "c"));
+        verify(ledger, times(2)).getAvailableCredit(eq(account), anyString());
+    }
+
+    @Test
+    void different_keys_are_not_coalesced() {
+        when(ledger.getPanLimit(anyString())).thenReturn(Optional.empty());
+
+        gateway.getPanLimit("h1");
+        gateway.getPanLimit("h2");
+        gateway.getPanLimit("h1");
+
+        verify(ledger, times(2)).getPanLimit("h1");
+        verify(ledger, times(1)).getPanLimit("h2");
+        assertEquals(0.0, saved("pan_limit"));
+    }
+
+    // metade em threads de plataforma (como o listener), metade em virtuais (como o ledgerLookupExecutor)
+    private static <T> List<CompletableFuture<T>> start(int callers, Supplier<T> call) {
+        var results = new ArrayList<CompletableFuture<T>>();
+        for (int i = 0; i < callers; i++) {
+            var result = new CompletableFuture<T>();
+            Runnable task = () -> {
+                try {
+                    result.complete(call.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            };
+            if (i % 2 == 0) Thread.ofPlatform().start(task);
+            else Thread.ofVirtual().start(task);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private void awaitSaved(String operation, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (saved(operation) < expected && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(expected, saved(operation));
+    }
+
+    private double saved(String operation) {
+        return registry.get("issuer.ledger.coalesced").tag("operation", operation).counter().count();
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.infrastructure.ledger.InMemoryLedger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ledger HTTP local para testes: serve os endpoints unitários e os de lote a partir de um
+ * {@link InMemoryLedger} e conta as requisições por caminho.
+ */
+final class LedgerBulkStub implements AutoCloseable {
+
+    private final InMemoryLedger ledger;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final HttpServer server;
+
+    LedgerBulkStub(InMemoryLedger ledger) throws IOException {
+        this.ledger = ledger;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/accounts/available-credit/bulk", this::availableCredits);
+        server.createContext("/limits/users/bulk", exchange -> limits(exchange, true));
+        server.createContext("/limits/pan/bulk", exchange -> limits(exchange, false));
+        server.createContext("/accounts/", this::availableCredit);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    int requests(String path) {
+        var count = requests.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    private void availableCredits(HttpExchange exchange) throws IOException {
+        count(exchange);
+        var ids = new ArrayList<UUID>();
+        for (var id : mapper.readTree(exchange.getRequestBody()).path("accountIds")) ids.add(UUID.fromString(id.asText()));
+        respond(exchange, 200, Map.of("accounts", List.copyOf(ledger.getAvailableCredits(ids, "stub").values())));
+    }
+
+    private void limits(HttpExchange exchange, boolean users) throws IOException {
+        count(exchange);
+        var keys = new ArrayList<String>();
+        for (var key : mapper.readTree(exchange.getRequestBody()).path("keys")) keys.add(key.asText());
+        var rules = users ? ledger.getUserLimits(keys) : ledger.getPanLimits(keys);
+        respond(exchange, 200, Map.of("rules", List.copyOf(rules.values())));
+    }
+
+    private void availableCredit(HttpExchange exchange) throws IOException {
+        count(exchange);
+        var accountId = UUID.fromString(exchange.getRequestURI().getPath().split("/")[2]);
+        try {
+            respond(exchange, 200, ledger.getAvailableCredit(accountId, "stub"));
+        } catch (IllegalStateException notFound) {
+            respond(exchange, 404, Map.of("error", "account_not_found"));
+        }
+    }
+
+    private void count(HttpExchange exchange) {
+        var path = exchange.getRequestURI().getPath();
+        var key = path.endsWith("/bulk") ? path : path.substring(0, path.indexOf('/', 1) + 1) + "*";
+        requests.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        var bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerHttpTransportTest {
+
+    private HttpServer server;
+    private LedgerHttpTransport transport;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/accounts/", exchange -> {
+            var accountId = exchange.getRequestURI().getPath().split("/")[2];
+            var body = gzip("""
+                    {"accountId":"%s","availableCents":1500,"currency":"BRL"}""".formatted(accountId));
+            var acceptsGzip = String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+            assertTrue(acceptsGzip);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/limits/", exchange -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+
+        transport = new LedgerHttpTransport(new LedgerHttpTransport.Settings(
+                4, 4, Duration.ofMillis(200), Duration.ofMillis(200), Duration.ofMinutes(1), Duration.ofSeconds(30)), registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.close();
+        server.stop(0);
+    }
+
+    @Test
+    void reads_gzip_responses_through_pooled_client() {
+        var client = client(Duration.ofSeconds(1), Duration.ofSeconds(1));
+        var accountId = UUID.randomUUID();
+
+        var credit = client.getAvailableCredit(accountId, "c1");
+        client.getAvailableCredit(accountId, "c1");
+
+        assertEquals(accountId, credit.accountId());
+        assertEquals(1500, credit.availableCents());
+        assertEquals(2, registry.get("ledger.http.pool.wait").timer().count());
+        assertEquals(4.0, registry.get("httpcomponents.httpclient.pool.total.max").gauge().value());
+    }
+
+    @Test
+    void applies_per_endpoint_read_timeout() {
+        var client = client(Duration.ofSeconds(1), Duration.ofMillis(100));
+
+        var ex = assertThrows(IllegalStateException.class, () -> client.getUserLimit("u1"));
+        assertEquals("failed_to_call_ledger", ex.getMessage());
+        assertNotNull(client.getAvailableCredit(UUID.randomUUID(), "c1"));
+    }
+
+    private LedgerClient client(Duration creditTimeout, Duration limitsTimeout) {
+        var baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new LedgerClient(
+                new RestTemplate(transport.requestFactory(creditTimeout)),
+                new RestTemplate(transport.requestFactory(limitsTimeout)),
+                baseUrl,
+                new ObjectMapper());
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var gz = new GZIPOutputStream(out)) {
+            gz.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
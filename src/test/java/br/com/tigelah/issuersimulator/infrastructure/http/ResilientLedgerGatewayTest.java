@@ -0,0 +1,145 @@
+package br.com.tigelah.issuersimulator.infrastructure.http;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResilientLedgerGatewayTest {
+
+    private static final UUID ACCOUNT = UUID.randomUUID();
+    private static final AvailableCredit CREDIT = new AvailableCredit(ACCOUNT, 10_000, "BRL", 0, 0);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LedgerGateway ledger = mock(LedgerGateway.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void hedges_slow_call_and_returns_first_answer() {
+        var calls = new AtomicInteger();
+        when(ledger.getAvailableCredit(ACCOUNT, "c1")).thenAnswer(inv -> {
+            if (calls.incrementAndGet() == 1) release.await();
+            return CREDIT;
+        });
+        var gateway = gateway(settings(true, 1.0, 100));
+
+        long start = System.nanoTime();
+        assertEquals(CREDIT, gateway.getAvailableCredit(ACCOUNT, "c1"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "não esperou a primeira tentativa");
+
+        assertEquals(2, calls.get());
+        assertEquals(1.0, hedge("available_credit", "sent"));
+        assertEquals(1.0, hedge("available_credit", "won"));
+        assertEquals(1.0, registry.get("issuer.ledger.requests").tag("lane", "available_credit").counter().count());
+    }
+
+    @Test
+    void hedge_budget_caps_duplicate_requests() {
+        when(ledger.getUserLimit("u1")).thenAnswer(inv -> {
+            Thread.sleep(30);
+            return Optional.empty();
+        });
+        // orçamento inicial de 10 hedges, sem reposição
+        var gateway = gateway(settings(true, 0.0, 100));
+
+        for (int i = 0; i < 15; i++) assertTrue(gateway.getUserLimit("u1").isEmpty());
+
+        assertEquals(10.0, hedge("limits", "sent"));
+    }
+
+    @Test
+    void breaker_opens_and_fails_fast() {
+        when(ledger.getPanLimit("h1")).thenThrow(new IllegalStateException("failed_to_call_ledger"));
+        var gateway = gateway(settings(false, 0.0, 100));
+
+        for (int i = 0; i < 4; i++) {
+            var e = assertThrows(IllegalStateException.class, () -> gateway.getPanLimit("h1"));
+            assertEquals("failed_to_call_ledger", e.getMessage());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, gateway.breakerState("limits"));
+
+        var e = assertThrows(IllegalStateException.class, () -> gateway.getPanLimit("h1"));
+        assertEquals("ledger_circuit_open", e.getMessage());
+        verify(ledger, times(4)).getPanLimit("h1");
+        assertEquals(1.0, registry.get("issuer.ledger.breaker.state").tag("lane", "limits").gauge().value());
+        assertEquals(1.0, registry.get("issuer.ledger.rejected").tags("lane", "limits", "reason", "circuit_open").counter().count());
+
+        // raia isolada: o saldo continua passando
+        when(ledger.getAvailableCredit(ACCOUNT, "c1")).thenReturn(CREDIT);
+        assertEquals(CREDIT, gateway.getAvailableCredit(ACCOUNT, "c1"));
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.breakerState("available_credit"));
+    }
+
+    @Test
+    void client_errors_do_not_open_the_breaker() {
+        when(ledger.getAvailableCredit(ACCOUNT, "c1")).thenThrow(HttpClientErrorException.create(
+                HttpStatus.NOT_FOUND, "not found", null, null, null));
+        var gateway = gateway(settings(false, 0.0, 100));
+
+        for (int i = 0; i < 10; i++) {
+            assertThrows(HttpClientErrorException.class, () -> gateway.getAvailableCredit(ACCOUNT, "c1"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.breakerState("available_credit"));
+    }
+
+    @Test
+    void bulkhead_isolates_lanes() throws Exception {
+        var entered = new CountDownLatch(1);
+        when(ledger.getUserLimit("u1")).thenAnswer(inv -> {
+            entered.countDown();
+            release.await();
+            return Optional.empty();
+        });
+        when(ledger.getAvailableCredit(ACCOUNT, "c1")).thenReturn(CREDIT);
+        var gateway = gateway(settings(false, 0.0, 1));
+
+        var blocked = Thread.ofVirtual().start(() -> gateway.getUserLimit("u1"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        var e = assertThrows(IllegalStateException.class, () -> gateway.getUserLimit("u1"));
+        assertEquals("ledger_bulkhead_full", e.getMessage());
+        assertEquals(CREDIT, gateway.getAvailableCredit(ACCOUNT, "c1"));
+
+        release.countDown();
+        blocked.join(5_000);
+        assertTrue(gateway.getUserLimit("u1").isEmpty(), "vaga devolvida ao terminar");
+    }
+
+    private ResilientLedgerGateway gateway(ResilientLedgerGateway.Settings settings) {
+        return new ResilientLedgerGateway(ledger, settings, executor, registry);
+    }
+
+    private double hedge(String lane, String result) {
+        return registry.get("issuer.ledger.hedge").tags("lane", lane, "result", result).counter().count();
+    }
+
+    private static ResilientLedgerGateway.Settings settings(boolean hedge, double maxRatio, int concurrency) {
+        return new ResilientLedgerGateway.Settings(
+                new ResilientLedgerGateway.Settings.Bulkhead(concurrency, concurrency, Duration.ZERO),
+                new ResilientLedgerGateway.Settings.Hedge(hedge, 95, Duration.ofMillis(1), Duration.ofMillis(10), maxRatio),
+                new ResilientLedgerGateway.Settings.Breaker(10, 4, 0.5, Duration.ofMinutes(1), 1));
+    }
+}
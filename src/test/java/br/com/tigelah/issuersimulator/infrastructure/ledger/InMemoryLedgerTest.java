@@ -0,0 +1,109 @@
+package br.com.tigelah.issuersimulator.infrastructure.ledger;
+
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.AvailableCredit;
+import br.com.tigelah.issuersimulator.application.ports.LedgerGateway.LimitRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryLedgerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loads_accounts_and_limits_from_snapshot() {
+        var accounts = new ArrayList<AvailableCredit>();
+        for (int i = 0; i < 5_000; i++) {
+            accounts.add(new AvailableCredit(UUID.randomUUID(), i * 100L, i % 2 == 0 ? "BRL" : "USD", i, 2L * i));
+        }
+        var user = new LimitRule("USER", "u-1", "BRL", 50_000, 10_000, 30_000);
+        var pan = new LimitRule("PAN", "a".repeat(64), "BRL", 0, 5_000, 0);
+        Path file = dir.resolve("ledger.snapshot");
+        LedgerSnapshot.write(file, accounts, List.of(user), List.of(pan));
+
+        var ledger = InMemoryLedger.fromSnapshot(file);
+
+        assertEquals(5_000, ledger.accountCount());
+        assertEquals(2, ledger.limitCount());
+        for (var expected : accounts) {
+            assertEquals(expected, ledger.getAvailableCredit(expected.accountId(), "c"));
+        }
+        assertEquals(Optional.of(user), ledger.getUserLimit("u-1"));
+        assertEquals(Optional.of(pan), ledger.getPanLimit("a".repeat(64)));
+        assertEquals(Optional.empty(), ledger.getUserLimit("u-2"));
+    }
+
+    @Test
+    void unknown_account_fails_like_the_http_ledger() {
+        var ledger = new InMemoryLedger();
+        var ex = assertThrows(IllegalStateException.class, () -> ledger.getAvailableCredit(UUID.randomUUID(), "c"));
+        assertEquals("account_not_found", ex.getMessage());
+    }
+
+    @Test
+    void applies_incremental_updates() {
+        var ledger = new InMemoryLedger(4);
+        var id = UUID.randomUUID();
+        ledger.putAccount(new AvailableCredit(id, 1_000, "BRL", 0, 0));
+
+        assertTrue(ledger.adjustAvailable(id, -250));
+        assertFalse(ledger.adjustAvailable(UUID.randomUUID(), 10));
+        assertEquals(750, ledger.getAvailableCredit(id, "c").availableCents());
+
+        ledger.putAccount(new AvailableCredit(id, 5_000, "BRL", 10, 20));
+        assertEquals(new AvailableCredit(id, 5_000, "BRL", 10, 20), ledger.getAvailableCredit(id, "c"));
+        assertEquals(1, ledger.accountCount());
+
+        var rule = new LimitRule("USER", "u-1", "BRL", 100, 0, 0);
+        ledger.putUserLimit(rule);
+        assertEquals(Optional.of(rule), ledger.getUserLimit("u-1"));
+        ledger.removeUserLimit("u-1");
+        assertEquals(Optional.empty(), ledger.getUserLimit("u-1"));
+    }
+
+    @Test
+    void reads_stay_consistent_while_the_table_grows() throws Exception {
+        var ledger = new InMemoryLedger(2);
+        var stable = UUID.randomUUID();
+        ledger.putAccount(new AvailableCredit(stable, 42, "BRL", 1, 2));
+
+        var failure = new AtomicReference<Throwable>();
+        var done = new CountDownLatch(1);
+        var reader = Thread.ofPlatform().start(() -> {
+            try {
+                while (done.getCount() > 0) {
+                    assertEquals(42, ledger.getAvailableCredit(stable, "c").availableCents());
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        for (int i = 0; i < 50_000; i++) {
+            ledger.putAccount(new AvailableCredit(UUID.randomUUID(), i, "BRL", 0, 0));
+        }
+        done.countDown();
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(50_001, ledger.accountCount());
+    }
+
+    @Test
+    void rejects_files_that_are_not_snapshots() throws Exception {
+        Path file = dir.resolve("garbage");
+        Files.writeString(file, "{\"not\":\"a snapshot\"}");
+        var ex = assertThrows(IllegalArgumentException.class, () -> InMemoryLedger.fromSnapshot(file));
+        assertEquals("ledger_snapshot_invalid", ex.getMessage());
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedAsyncAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    BoundedAsyncAppenderTest() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @Test
+    void writes_events_on_the_appender_thread_and_flushes_on_stop() {
+        var sink = new Sink(null);
+        var async = async(sink, 100, 0);
+
+        for (int i = 0; i < 50; i++) async.doAppend(event(Level.INFO, "event " + i));
+        async.stop();
+
+        assertEquals(50, sink.events.size());
+        assertEquals("event 49", sink.events.get(49).getFormattedMessage());
+        assertTrue(sink.threads.stream().allMatch(name -> name.startsWith("log-appender-")));
+        assertEquals(0, async.discarded() + async.droppedFull());
+    }
+
+    @Test
+    void discards_info_above_threshold_and_counts_drops_when_full() throws Exception {
+        var release = new CountDownLatch(1);
+        var sink = new Sink(release);
+        var async = async(sink, 4, 2);
+
+        // o primeiro evento prende a thread do appender; depois disso a fila enche
+        async.doAppend(event(Level.INFO, "blocking"));
+        while (async.queueDepth() > 0) Thread.onSpinWait();
+        async.doAppend(event(Level.INFO, "info 1"));
+        async.doAppend(event(Level.INFO, "info 2"));
+        async.doAppend(event(Level.INFO, "info 3"));
+        // 1 posição livre, abaixo do limiar de 2: INFO é descartado, ERROR ainda entra
+        async.doAppend(event(Level.INFO, "info 4"));
+        async.doAppend(event(Level.ERROR, "error 1"));
+        async.doAppend(event(Level.ERROR, "error 2"));
+
+        assertEquals(1, async.discarded());
+        assertEquals(1, async.droppedFull());
+
+        var registry = new SimpleMeterRegistry();
+        var root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.addAppender(async);
+        new LoggingMetrics(context).bindTo(registry);
+        assertEquals(1, registry.get("issuer.logging.dropped").tag("reason", "queue_full").functionCounter().count());
+        assertEquals(1, registry.get("issuer.logging.dropped").tag("reason", "discarded").functionCounter().count());
+        assertEquals(4, registry.get("issuer.logging.queue.depth").gauge().value());
+
+        release.countDown();
+        async.stop();
+        assertEquals(List.of("blocking", "info 1", "info 2", "info 3", "error 1"),
+                sink.events.stream().map(ILoggingEvent::getFormattedMessage).toList());
+    }
+
+    @Test
+    void decision_lines_are_not_discarded_by_the_threshold() {
+        var release = new CountDownLatch(1);
+        var sink = new Sink(release);
+        var async = async(sink, 4, 2);
+
+        async.doAppend(event(Level.INFO, "blocking"));
+        while (async.queueDepth() > 0) Thread.onSpinWait();
+        async.doAppend(event(Level.INFO, "info 1"));
+        async.doAppend(event(Level.INFO, "info 2"));
+        async.doAppend(event(Level.INFO, "info 3"));
+        // 1 posição livre, abaixo do limiar: a recusa entra, o INFO comum não
+        var decision = event(Level.INFO, "issuer_declined 1");
+        decision.addMarker(LogMarkers.DECISION);
+        async.doAppend(decision);
+        async.doAppend(event(Level.INFO, "info 4"));
+
+        assertEquals(1, async.discarded());
+        assertEquals(0, async.droppedFull());
+
+        release.countDown();
+        async.stop();
+        assertEquals(List.of("blocking", "info 1", "info 2", "info 3", "issuer_declined 1"),
+                sink.events.stream().map(ILoggingEvent::getFormattedMessage).toList());
+    }
+
+    @Test
+    void threshold_not_below_queue_size_falls_back_to_a_fifth_of_the_queue() {
+        var async = async(new Sink(null), 100, 100);
+
+        assertEquals(20, async.getDiscardThreshold());
+        async.doAppend(event(Level.INFO, "kept"));
+        async.stop();
+        assertEquals(0, async.discarded());
+    }
+
+    private BoundedAsyncAppender async(Sink sink, int queueSize, int discardThreshold) {
+        sink.setContext(context);
+        sink.start();
+        var async = new BoundedAsyncAppender();
+        async.setContext(context);
+        async.setName("ASYNC");
+        async.setQueueSize(queueSize);
+        async.setDiscardThreshold(discardThreshold);
+        async.addAppender(sink);
+        async.start();
+        return async;
+    }
+
+    private LoggingEvent event(Level level, String message) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("test"), level, message, null, null);
+    }
+
+    private static final class Sink extends AppenderBase<ILoggingEvent> {
+        final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        Sink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+            if (release != null && events.size() == 1) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
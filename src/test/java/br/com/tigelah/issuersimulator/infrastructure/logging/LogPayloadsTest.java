@@ -0,0 +1,38 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogPayloadsTest {
+
+    @Test
+    void masks_card_fields_and_long_digit_runs() {
+        var payload = """
+                {"paymentId":"p1","pan":"4111111111111111","cvv":123,"note":"card 5500000000000004 used","amountCents":1000}""";
+
+        var logged = LogPayloads.redacted(payload.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("""
+                {"paymentId":"p1","pan":"***","cvv":"***","note":"card ****0004 used","amountCents":1000}""", logged);
+    }
+
+    @Test
+    void truncates_and_still_masks_a_value_cut_in_half() {
+        var prefix = "x".repeat(LogPayloads.MAX_BYTES - 12);
+        var payload = "{\"a\":\"" + prefix + "\",\"pan\":\"4111111111111111\"}";
+
+        var logged = LogPayloads.redacted(payload.getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(logged.contains("4111"));
+        assertTrue(logged.endsWith("...(" + payload.length() + " bytes)"));
+        assertTrue(logged.length() < payload.length());
+    }
+
+    @Test
+    void keeps_short_payloads_untouched() {
+        assertEquals("not-json", LogPayloads.redacted("not-json".getBytes(StandardCharsets.UTF_8)));
+    }
+}
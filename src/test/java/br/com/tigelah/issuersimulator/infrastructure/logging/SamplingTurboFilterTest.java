@@ -0,0 +1,68 @@
+package br.com.tigelah.issuersimulator.infrastructure.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final ch.qos.logback.classic.Logger logger = context.getLogger("test");
+
+    @Test
+    void keeps_one_in_n_events_of_each_sampled_type() {
+        var filter = filter("issuer_authorized=10, issuer_duplicate=2");
+
+        int passed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (decide(filter, Level.INFO, "issuer_authorized paymentId={}", null) == FilterReply.NEUTRAL) passed++;
+        }
+
+        assertEquals(10, passed);
+        assertEquals(List.of("issuer_authorized", "issuer_duplicate"), filter.types());
+        assertEquals(90, filter.sampledOut(0));
+        assertEquals(0, filter.sampledOut(1));
+    }
+
+    @Test
+    void never_samples_declines_warnings_errors_or_other_types() {
+        var filter = filter("issuer_authorized=1000");
+
+        for (int i = 0; i < 10; i++) {
+            decide(filter, Level.INFO, "issuer_authorized paymentId={}", null);
+            assertEquals(FilterReply.NEUTRAL, decide(filter, Level.INFO, "issuer_declined paymentId={} reason={}", null));
+            assertEquals(FilterReply.NEUTRAL, decide(filter, Level.WARN, "issuer_authorized paymentId={}", null));
+            assertEquals(FilterReply.NEUTRAL, decide(filter, Level.INFO, "issuer_authorized paymentId={}", new RuntimeException()));
+            assertEquals(FilterReply.NEUTRAL, decide(filter, Level.INFO, "issuer_authorized_late paymentId={}", null));
+        }
+        assertEquals(9, filter.sampledOut(0));
+    }
+
+    @Test
+    void ignores_events_below_the_logger_level_and_invalid_entries() {
+        logger.setLevel(Level.WARN);
+        var filter = filter("issuer_authorized=10,broken,other=0");
+
+        for (int i = 0; i < 10; i++) decide(filter, Level.INFO, "issuer_authorized paymentId={}", null);
+
+        assertEquals(List.of("issuer_authorized"), filter.types());
+        assertEquals(0, filter.sampledOut(0));
+    }
+
+    private SamplingTurboFilter filter(String rates) {
+        var filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setRates(rates);
+        filter.start();
+        return filter;
+    }
+
+    private FilterReply decide(SamplingTurboFilter filter, Level level, String format, Throwable t) {
+        return filter.decide(null, logger, level, format, new Object[] { "p1" }, t);
+    }
+}
@@ -0,0 +1,154 @@
+package br.com.tigelah.issuersimulator.infrastructure.messaging;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDecisionEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+import br.com.tigelah.issuersimulator.infrastructure.config.JacksonConfig;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionEventCodecTest {
+
+    static Stream<PaymentDecisionEvent> events() {
+        var now = Instant.parse("2030-01-01T12:34:56.789123456Z");
+        return Stream.of(
+                new PaymentAuthorizedEvent(UUID.randomUUID(), now, "corr-1", Topics.PAYMENT_AUTHORIZED,
+                        UUID.randomUUID(), "SIM123456", 12, 1299, 14289, 1191),
+                new PaymentAuthorizedEvent(UUID.randomUUID(), Instant.EPOCH, null, null,
+                        UUID.randomUUID(), null, null, 0, 0, 0),
+                new PaymentAuthorizedEvent(null, Instant.ofEpochSecond(-86_400, 1), "", "", null, "",
+                        -1, Long.MIN_VALUE, Long.MAX_VALUE, -42),
+                new PaymentDeclinedEvent(UUID.randomUUID(), now, "corr-2", Topics.PAYMENT_DECLINED,
+                        UUID.randomUUID(), "insufficient_funds"),
+                new PaymentDeclinedEvent(null, null, null, null, null, null),
+                new PaymentDeclinedEvent(UUID.randomUUID(), now, "ação-€-😀", Topics.PAYMENT_DECLINED,
+                        UUID.randomUUID(), "motivo \uD800 solto"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void round_trips_every_field(PaymentDecisionEvent event) {
+        var decoded = DecisionEventCodec.decode(DecisionEventCodec.encode(event));
+        if (event instanceof PaymentDeclinedEvent d && d.reason() != null && d.reason().contains("\uD800")) {
+            // surrogate solto não é UTF-8 válido: sai igual a String.getBytes(UTF_8)
+            assertEquals(new String(d.reason().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8),
+                    ((PaymentDeclinedEvent) decoded).reason());
+            return;
+        }
+        assertEquals(event, decoded);
+    }
+
+    @Test
+    void is_much_smaller_than_json() throws Exception {
+        var mapper = new JacksonConfig().objectMapper();
+        var event = new PaymentAuthorizedEvent(UUID.randomUUID(), Instant.parse("2030-01-01T00:00:00Z"), "c1",
+                Topics.PAYMENT_AUTHORIZED, UUID.randomUUID(), "SIM123456", 12, 1299, 14289, 1191);
+
+        int binary = DecisionEventCodec.encode(event).length;
+        int json = mapper.writeValueAsBytes(event).length;
+        assertTrue(binary * 3 < json, "binary=" + binary + " json=" + json);
+    }
+
+    @Test
+    void rejects_unknown_versions_and_garbage() {
+        var bytes = DecisionEventCodec.encode(new PaymentDeclinedEvent(UUID.randomUUID(), Instant.EPOCH, "c",
+                Topics.PAYMENT_DECLINED, UUID.randomUUID(), "risk_rejected"));
+
+        var future = bytes.clone();
+        future[1] = 2;
+        assertEquals("decision_codec_version_not_supported",
+                assertThrows(IllegalArgumentException.class, () -> DecisionEventCodec.decode(future)).getMessage());
+
+        var truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertEquals("decision_codec_truncated",
+                assertThrows(IllegalArgumentException.class, () -> DecisionEventCodec.decode(truncated)).getMessage());
+
+        var json = "{\"paymentId\":\"x\"}".getBytes(StandardCharsets.UTF_8);
+        assertEquals("decision_codec_invalid",
+                assertThrows(IllegalArgumentException.class, () -> DecisionEventCodec.decode(json)).getMessage());
+    }
+
+    @Test
+    void never_crashes_on_random_input() {
+        var random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            var bytes = new byte[random.nextInt(64)];
+            random.nextBytes(bytes);
+            if (bytes.length > 1) {
+                bytes[0] = DecisionEventCodec.MAGIC;
+                bytes[1] = DecisionEventCodec.VERSION;
+            }
+            try {
+                DecisionEventCodec.decode(bytes);
+            } catch (IllegalArgumentException | java.time.DateTimeException expected) {
+                // só exceções de validação são aceitáveis
+            }
+        }
+    }
+
+    @Test
+    void serializer_picks_the_format_by_topic() {
+        var serializer = new DecisionEventSerializer<Object>(Set.of(Topics.PAYMENT_DECLINED));
+        var declined = new PaymentDeclinedEvent(UUID.randomUUID(), Instant.EPOCH, "c", Topics.PAYMENT_DECLINED,
+                UUID.randomUUID(), "risk_rejected");
+
+        var headers = new RecordHeaders();
+        var binary = serializer.serialize(Topics.PAYMENT_DECLINED, headers, declined);
+        assertEquals(declined, DecisionEventCodec.decode(binary));
+        assertEquals(DecisionEventCodec.CONTENT_TYPE,
+                new String(headers.lastHeader(DecisionEventSerializer.CONTENT_TYPE_HEADER).value(), StandardCharsets.US_ASCII));
+
+        var json = serializer.serialize(Topics.PAYMENT_AUTHORIZED, new RecordHeaders(), declined);
+        assertEquals('{', json[0]);
+    }
+
+    @Test
+    void binary_messages_are_less_than_half_the_json_size() {
+        // os mesmos eventos do DecisionCodecBenchmark
+        var now = Instant.parse("2030-01-01T00:00:00Z");
+        var authorized = new PaymentAuthorizedEvent(UUID.randomUUID(), now, UUID.randomUUID().toString(),
+                Topics.PAYMENT_AUTHORIZED, UUID.randomUUID(), "SIM123456", 12, 1299, 14289, 1191);
+        var declined = new PaymentDeclinedEvent(UUID.randomUUID(), now, UUID.randomUUID().toString(),
+                Topics.PAYMENT_DECLINED, UUID.randomUUID(), "insufficient_funds");
+        var json = new JsonSerializer<Object>();
+
+        for (PaymentDecisionEvent event : List.of(authorized, declined)) {
+            int jsonBytes = json.serialize(Topics.PAYMENT_AUTHORIZED, new RecordHeaders(), event).length;
+            int binaryBytes = DecisionEventCodec.encode(event).length;
+            assertTrue(binaryBytes * 2 < jsonBytes, event.getClass().getSimpleName() + " json=" + jsonBytes + " binary=" + binaryBytes);
+        }
+    }
+
+    @Test
+    void serializer_passes_producer_config_to_the_json_serializer() {
+        var declined = new PaymentDeclinedEvent(UUID.randomUUID(), Instant.EPOCH, "c", Topics.PAYMENT_DECLINED,
+                UUID.randomUUID(), "risk_rejected");
+        var defaults = new DecisionEventSerializer<Object>(Set.of());
+        var configured = new DecisionEventSerializer<Object>(Set.of());
+        configured.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+
+        var withDefaults = new RecordHeaders();
+        defaults.serialize(Topics.PAYMENT_DECLINED, withDefaults, declined);
+        var withConfig = new RecordHeaders();
+        configured.serialize(Topics.PAYMENT_DECLINED, withConfig, declined);
+
+        assertNotNull(withDefaults.lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME));
+        assertNull(withConfig.lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME));
+    }
+}
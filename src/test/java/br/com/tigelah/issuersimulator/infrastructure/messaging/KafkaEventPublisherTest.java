@@ -0,0 +1,120 @@
+package br.com.tigelah.issuersimulator.infrastructure.messaging;
+
+import br.com.tigelah.issuersimulator.application.events.PaymentAuthorizedEvent;
+import br.com.tigelah.issuersimulator.application.events.PaymentDeclinedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class KafkaEventPublisherTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafka = mock(KafkaTemplate.class);
+    private final List<CompletableFuture<SendResult<String, Object>>> sends = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    KafkaEventPublisherTest() {
+        when(kafka.send(anyString(), anyString(), any())).thenAnswer(inv -> {
+            var future = new CompletableFuture<SendResult<String, Object>>();
+            sends.add(future);
+            return future;
+        });
+    }
+
+    @Test
+    void returns_only_after_the_broker_acknowledges() throws Exception {
+        var publisher = new KafkaEventPublisher(kafka, 10, Duration.ofSeconds(5), registry);
+        var returned = new AtomicBoolean();
+        var thread = Thread.ofVirtual().start(() -> {
+            publisher.publishAuthorized(authorized());
+            returned.set(true);
+        });
+
+        awaitSends(1);
+        thread.join(100);
+        assertFalse(returned.get());
+        assertEquals(1, publisher.inFlight());
+
+        sends.get(0).complete(null);
+        thread.join(5_000);
+        assertTrue(returned.get());
+        assertEquals(0, publisher.inFlight());
+        assertEquals(1, registry.get("issuer.publish.send").tag("topic", Topics.PAYMENT_AUTHORIZED).timer().count());
+    }
+
+    @Test
+    void broker_failure_is_thrown_and_counted() {
+        var publisher = new KafkaEventPublisher(kafka, 10, Duration.ofSeconds(5), registry);
+        when(kafka.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        var ex = assertThrows(IllegalStateException.class, () -> publisher.publishDeclined(declined()));
+        assertEquals("event_publish_failed", ex.getMessage());
+        assertEquals("broker down", ex.getCause().getMessage());
+        assertEquals(1.0, registry.get("issuer.publish.failures").tag("topic", Topics.PAYMENT_DECLINED).counter().count());
+        assertEquals(0, publisher.inFlight());
+    }
+
+    @Test
+    void blocks_new_sends_while_max_in_flight_are_pending() throws Exception {
+        var publisher = new KafkaEventPublisher(kafka, 2, Duration.ofSeconds(5), registry);
+        var publishers = List.of(
+                Thread.ofVirtual().start(() -> publisher.publishAuthorized(authorized())),
+                Thread.ofVirtual().start(() -> publisher.publishAuthorized(authorized())),
+                Thread.ofVirtual().start(() -> publisher.publishAuthorized(authorized())));
+
+        awaitSends(2);
+        Thread.sleep(100);
+        assertEquals(2, sends.size());
+
+        sends.get(0).complete(null);
+        awaitSends(3);
+        sends.forEach(f -> f.complete(null));
+        for (var t : publishers) t.join(5_000);
+        assertEquals(0, publisher.inFlight());
+    }
+
+    @Test
+    void publish_all_flushes_once_and_waits_for_every_ack() {
+        var publisher = new KafkaEventPublisher(kafka, 10, Duration.ofSeconds(5), registry);
+        doAnswer(inv -> {
+            sends.forEach(f -> f.complete(null));
+            return null;
+        }).when(kafka).flush();
+
+        publisher.publishAll(List.of(authorized(), authorized()), List.of(declined()));
+
+        assertEquals(3, sends.size());
+        verify(kafka, times(1)).flush();
+        assertTrue(sends.stream().allMatch(CompletableFuture::isDone));
+    }
+
+    private void awaitSends(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (sends.size() < count && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(count, sends.size());
+    }
+
+    private static PaymentAuthorizedEvent authorized() {
+        return new PaymentAuthorizedEvent(UUID.randomUUID(), Instant.EPOCH, "c", Topics.PAYMENT_AUTHORIZED,
+                UUID.randomUUID(), "SIM1", 1, 0, 1000, 1000);
+    }
+
+    private static PaymentDeclinedEvent declined() {
+        return new PaymentDeclinedEvent(UUID.randomUUID(), Instant.EPOCH, "c", Topics.PAYMENT_DECLINED,
+                UUID.randomUUID(), "risk_rejected");
+    }
+}
@@ -0,0 +1,157 @@
+package br.com.tigelah.issuersimulator.infrastructure.rates;
+
+import br.com.tigelah.issuersimulator.domain.services.InstallmentCalculator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReloadableRateTableTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loads_rates_from_file_with_fallback_and_empty_cells() throws Exception {
+        var file = write("""
+                # taxas de teste
+                merchant,2,6,12
+                *,0.020,0.060,0.120
+                m1,0.015,,0.100
+                """, 1);
+        var calculator = new InstallmentCalculator(new ReloadableRateTable(file, new SimpleMeterRegistry()));
+
+        assertEquals(15, calculator.calculate("m1", 1000, 2).interestCents());
+        assertEquals(100, calculator.calculate("m1", 1000, 12).interestCents());
+        assertEquals(60, calculator.calculate("other", 1000, 6).interestCents());
+        var ex = assertThrows(IllegalArgumentException.class, () -> calculator.calculate("m1", 1000, 6));
+        assertEquals("installments_not_supported", ex.getMessage());
+        assertEquals(1000, calculator.calculate("m1", 1000, 1).totalCents());
+        assertThrows(IllegalArgumentException.class, () -> calculator.calculate("m1", 1000, 3));
+    }
+
+    @Test
+    void swaps_table_when_file_changes_and_keeps_it_on_invalid_file() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var file = write("merchant,2\n*,0.020\n", 1);
+        var rates = new ReloadableRateTable(file, registry);
+        var calculator = new InstallmentCalculator(rates);
+
+        assertFalse(rates.reloadIfChanged());
+        assertEquals(1, rates.get().version());
+
+        write("merchant,2,6\n*,0.030,0.060\nm1,0.010,0.050\n", 2);
+        assertTrue(rates.reloadIfChanged());
+        assertEquals(2, rates.get().version());
+        assertEquals(30, calculator.calculate("other", 1000, 2).interestCents());
+        assertEquals(50, calculator.calculate("m1", 1000, 6).interestCents());
+
+        write("merchant,2\n*,abc\n", 3);
+        assertFalse(rates.reloadIfChanged());
+        assertEquals(2, rates.get().version());
+        assertEquals(30, calculator.calculate("other", 1000, 2).interestCents());
+
+        assertEquals(2, registry.get("issuer.installments.rates.reload").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("issuer.installments.rates.reload").tag("outcome", "failure").timer().count());
+        assertEquals(2, registry.get("issuer.installments.rates.merchants").gauge().value());
+        assertEquals(3, registry.get("issuer.installments.rates.plans").gauge().value());
+        assertEquals(2, registry.get("issuer.installments.rates.version").gauge().value());
+    }
+
+    @Test
+    void invalid_file_fails_at_startup() throws Exception {
+        var file = write("2,6\n*,0.02,0.06\n", 1);
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> new ReloadableRateTable(file, new SimpleMeterRegistry()));
+        assertEquals("rate_table_invalid: line 1", ex.getMessage());
+    }
+
+    @Test
+    void duplicate_merchant_row_invalidates_the_file() throws Exception {
+        var file = write("merchant,2\n*,0.020\nm1,0.010\nm1,0.030\n", 1);
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> new ReloadableRateTable(file, new SimpleMeterRegistry()));
+        assertEquals("rate_table_invalid: line 4", ex.getMessage());
+        assertEquals("merchant_duplicated", ex.getCause().getMessage());
+    }
+
+    @Test
+    void file_changed_while_reading_is_not_published_and_is_retried() throws Exception {
+        var file = write("merchant,2\n*,0.020\n", 1);
+        var midWrite = new AtomicBoolean();
+        var rates = new ReloadableRateTable(file, new SimpleMeterRegistry(), (path, version) -> {
+            var table = RateTableFile.load(path, version);
+            if (midWrite.getAndSet(false)) {
+                try {
+                    write("merchant,2\n*,0.040\n", 3);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return table;
+        });
+
+        write("merchant,2\n*,0.03", 2);
+        midWrite.set(true);
+        assertFalse(rates.reloadIfChanged());
+        assertEquals(1, rates.get().version());
+
+        assertTrue(rates.reloadIfChanged());
+        assertEquals(2, rates.get().version());
+        assertEquals(40, InstallmentCalculator.calculate(rates.get(), "m1", 1000, 2).interestCents());
+    }
+
+    @Test
+    void readers_always_see_a_complete_table_during_reloads() throws Exception {
+        var file = write(table(1), 1);
+        var rates = new ReloadableRateTable(file, new SimpleMeterRegistry());
+        var calculator = new InstallmentCalculator(rates);
+        var stop = new AtomicBoolean();
+        var failure = new AtomicReference<Throwable>();
+
+        var reader = Thread.ofPlatform().start(() -> {
+            while (!stop.get()) {
+                try {
+                    // na tabela n, m1 cobra n% em 2x e 2n% em 6x: as duas taxas vêm sempre da mesma versão
+                    var table = calculator.rateTable();
+                    long two = InstallmentCalculator.calculate(table, "m1", 100_000, 2).interestCents();
+                    long six = InstallmentCalculator.calculate(table, "m1", 100_000, 6).interestCents();
+                    if (six != 2 * two) throw new AssertionError("mixed versions: " + two + " / " + six);
+                } catch (Throwable t) {
+                    failure.set(t);
+                    return;
+                }
+            }
+        });
+        for (int version = 2; version <= 30; version++) {
+            write(table(version), version);
+            assertTrue(rates.reloadIfChanged());
+        }
+        stop.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(30, rates.get().version());
+    }
+
+    private static String table(int n) {
+        var sb = new StringBuilder("merchant,2,6\n");
+        for (int i = 0; i < 1000; i++) sb.append("x").append(i).append(",0.01,0.02\n");
+        return sb.append("m1,0.").append(String.format("%02d", n)).append(",0.").append(String.format("%02d", 2 * n)).append('\n').toString();
+    }
+
+    private Path write(String content, long second) throws Exception {
+        var file = dir.resolve("rates.csv");
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(1_700_000_000L + second)));
+        return file;
+    }
+}